@@ -0,0 +1,93 @@
+package com.carter.cache;
+
+import com.carter.common.Constants;
+import com.carter.event.EmbeddingModelActivatedEvent;
+import com.carter.event.ProfileUpdatedEvent;
+import com.carter.event.ProfileVectorsRefreshedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide profile version counter.
+ *
+ * <p>Bumped in Redis whenever a profile is rewritten or the embedding model changes.
+ * Results derived from profiles record the epoch they were computed at and are
+ * ignored once it moves on. Each instance polls the shared value, so updates made
+ * elsewhere take effect within one sync interval. Local updates should also be
+ * handled directly by the cache holding the derived results, which keeps working
+ * if Redis is unavailable.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class ProfileEpoch {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileEpoch.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final AtomicLong current = new AtomicLong();
+
+    public ProfileEpoch(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * The latest known epoch.
+     */
+    public long current() {
+        return current.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileUpdated(ProfileUpdatedEvent event) {
+        bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileVectorsRefreshed(ProfileVectorsRefreshedEvent event) {
+        bump();
+    }
+
+    /**
+     * Every profile ranks differently under a new embedding model.
+     */
+    @EventListener
+    public void onEmbeddingModelActivated(EmbeddingModelActivatedEvent event) {
+        bump();
+    }
+
+    private void bump() {
+        try {
+            Long next = redisTemplate.opsForValue().increment(Constants.PROFILE_EPOCH_KEY);
+            if (next != null) {
+                advanceTo(next);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[Epoch] Failed to bump shared profile epoch: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dendrite.semantic-cache.epoch-sync-ms:5000}")
+    public void sync() {
+        try {
+            String value = redisTemplate.opsForValue().get(Constants.PROFILE_EPOCH_KEY);
+            if (value != null) {
+                advanceTo(Long.parseLong(value));
+            }
+        } catch (RuntimeException e) {
+            log.debug("[Epoch] Sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void advanceTo(long epoch) {
+        current.accumulateAndGet(epoch, Math::max);
+    }
+}
@@ -0,0 +1,202 @@
+package com.carter.cache;
+
+import com.carter.event.ProfileUpdatedEvent;
+import com.carter.event.ProfileVectorsRefreshedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process cache of search answers indexed by query embedding.
+ *
+ * <p>A lookup returns the answer cached for the most similar earlier query in the
+ * same namespace, provided the cosine similarity reaches the configured threshold.
+ * This serves paraphrases ("会k8s", "懂Kubernetes") that an exact-text cache misses.</p>
+ *
+ * <p>Entries live in a fixed-size ring (oldest overwritten first) and are ignored
+ * once expired or once the {@link ProfileEpoch} has moved past the epoch they were
+ * computed at. Vectors are stored L2-normalized so similarity is a plain dot product.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class SemanticResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticResultCache.class);
+
+    private final ProfileEpoch profileEpoch;
+    private final boolean enabled;
+    private final double threshold;
+    private final long ttlMs;
+
+    private final Entry[] ring;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int next;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SemanticResultCache(ProfileEpoch profileEpoch,
+                               @Value("${dendrite.semantic-cache.enabled:true}") boolean enabled,
+                               @Value("${dendrite.semantic-cache.threshold:0.95}") double threshold,
+                               @Value("${dendrite.semantic-cache.max-entries:2000}") int maxEntries,
+                               @Value("${dendrite.semantic-cache.ttl-ms:600000}") long ttlMs) {
+        this.profileEpoch = profileEpoch;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.ttlMs = ttlMs;
+        this.ring = new Entry[Math.max(1, maxEntries)];
+    }
+
+    /**
+     * Epoch to pass to {@link #put}. Read it before computing the value, so a
+     * profile update that lands mid-computation invalidates the result.
+     */
+    public long currentEpoch() {
+        return profileEpoch.current();
+    }
+
+    /**
+     * Finds the cached value for the nearest query above the similarity threshold.
+     *
+     * @param namespace separates unrelated result types (e.g. answers vs. result lists)
+     * @param queryVector embedding of the incoming query
+     * @param type expected value type
+     * @return the cached value, or null on a miss
+     */
+    public <T> T find(String namespace, float[] queryVector, Class<T> type) {
+        if (!enabled || queryVector == null || queryVector.length == 0) {
+            return null;
+        }
+
+        float[] query = normalize(queryVector);
+        long epoch = profileEpoch.current();
+        long now = System.currentTimeMillis();
+
+        Entry best = null;
+        double bestScore = threshold;
+
+        lock.readLock().lock();
+        try {
+            for (Entry entry : ring) {
+                if (entry == null || !entry.namespace.equals(namespace)
+                        || entry.epoch != epoch || entry.expiresAt <= now
+                        || entry.vector.length != query.length) {
+                    continue;
+                }
+                double score = dot(entry.vector, query);
+                if (score >= bestScore) {
+                    bestScore = score;
+                    best = entry;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (best == null || !type.isInstance(best.value)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        log.debug("[SemanticCache] {} hit, similarity {}", namespace, String.format("%.3f", bestScore));
+        return type.cast(best.value);
+    }
+
+    /**
+     * Caches a value under a query embedding.
+     *
+     * @param epoch the epoch read before the value was computed
+     */
+    public void put(String namespace, float[] queryVector, Object value, long epoch) {
+        if (!enabled || queryVector == null || queryVector.length == 0 || value == null) {
+            return;
+        }
+
+        Entry entry = new Entry(namespace, normalize(queryVector), value, epoch,
+                System.currentTimeMillis() + ttlMs);
+
+        lock.writeLock().lock();
+        try {
+            ring[next] = entry;
+            next = (next + 1) % ring.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops everything on a local profile update, without waiting for the shared epoch.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileUpdated(ProfileUpdatedEvent event) {
+        clear();
+    }
+
+    /**
+     * Drops everything when a batch of profile vectors was re-embedded.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileVectorsRefreshed(ProfileVectorsRefreshedEvent event) {
+        clear();
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(ring, null);
+            next = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Hit/miss counters and configuration.
+     */
+    public SemanticCacheStats stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        double hitRate = h + m == 0 ? 0.0 : (double) h / (h + m);
+        return new SemanticCacheStats(ring.length, h, m, threshold, Math.round(hitRate * 1000) / 1000.0);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float[] result = new float[vector.length];
+        if (norm == 0) {
+            return result;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = vector[i] * scale;
+        }
+        return result;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Entry(String namespace, float[] vector, Object value, long epoch, long expiresAt) {}
+
+    /**
+     * Semantic cache statistics.
+     */
+    public record SemanticCacheStats(int capacity, long hits, long misses, double threshold, double hitRate) {}
+}
@@ -0,0 +1,334 @@
+package com.carter.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Two-tier cache: a size-bounded Caffeine (W-TinyLFU) L1 in front of a shared Redis L2.
+ *
+ * <p>Reads go L1 → L2 → loader, and an L2 hit is promoted into L1. Writes go to both
+ * tiers. Evictions also publish an invalidation so other instances drop their L1 copy.
+ * Redis failures degrade to L1-only rather than failing the caller.</p>
+ *
+ * <p>{@link #get(Object, Callable)} loads each key once per instance: concurrent
+ * callers for a missing key wait on the first caller's load. The L2 read and the
+ * loader run outside Caffeine's compute, so a slow load never blocks other keys
+ * that hash to the same Caffeine bin. An evict or clear arriving during a load
+ * marks it stale: its value is still returned to the callers that were waiting,
+ * but it is not cached, or is removed again if it was stored in the meantime.</p>
+ *
+ * <p>Keys are normalised to strings so remote invalidations can address them.
+ * Values are stored in L2 as typed JSON
+ * ({@link com.carter.config.RedisConfig#jsonSerializer()}), so they must be
+ * Jackson-serializable.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredCache.class);
+
+    private static final String KEY_PREFIX = "dendrite:cache:";
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration ttl;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    private final ConcurrentHashMap<String, Load> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    public TieredCache(String name,
+                       com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                       RedisTemplate<String, Object> redisTemplate,
+                       Duration ttl,
+                       BiConsumer<String, String> invalidationPublisher) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = key.toString();
+        Object value = local.getIfPresent(cacheKey);
+        if (value != null) {
+            return value;
+        }
+
+        value = readRemote(cacheKey);
+        if (value != null) {
+            local.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = key.toString();
+        Object stored = local.getIfPresent(cacheKey);
+        if (stored != null) {
+            return (T) fromStoreValue(stored);
+        }
+
+        Load load = new Load();
+        Load inFlight = loading.putIfAbsent(cacheKey, load);
+        if (inFlight != null) {
+            try {
+                return (T) fromStoreValue(inFlight.result.join());
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            // Put while we were registering; read quietly so the miss isn't counted twice
+            stored = local.policy().getIfPresentQuietly(cacheKey);
+            if (stored == null) {
+                stored = readRemote(cacheKey);
+                boolean loaded = stored == null;
+                if (loaded) {
+                    stored = toStoreValue(valueLoader.call());
+                }
+                store(cacheKey, stored, loaded, load);
+            }
+            load.result.complete(stored);
+            return (T) fromStoreValue(stored);
+        } catch (Exception e) {
+            load.result.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (Error e) {
+            load.result.completeExceptionally(e); // Don't leave waiters hanging
+            throw e;
+        } finally {
+            loading.remove(cacheKey, load);
+        }
+    }
+
+    /**
+     * Caches a loaded value unless an invalidation arrived during the load. The
+     * second check catches one arriving between the first check and the writes.
+     */
+    private void store(String cacheKey, Object stored, boolean writeRemote, Load load) {
+        if (load.stale) {
+            return;
+        }
+        if (writeRemote) {
+            writeRemote(cacheKey, stored);
+        }
+        local.put(cacheKey, stored);
+        if (load.stale) {
+            local.invalidate(cacheKey);
+            if (writeRemote) {
+                deleteRemote(cacheKey);
+            }
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String cacheKey = key.toString();
+        Object stored = toStoreValue(value);
+        local.put(cacheKey, stored);
+        writeRemote(cacheKey, stored);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = key.toString();
+        abandonLoad(cacheKey);
+        local.invalidate(cacheKey);
+        deleteRemote(cacheKey);
+        invalidationPublisher.accept(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        abandonLoads();
+        local.invalidateAll();
+        try {
+            deleteRemoteKeys();
+        } catch (RuntimeException e) {
+            log.debug("[Cache] L2 clear failed for {}: {}", name, e.getMessage());
+        }
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops an entry from L1 only (invalidation received from another instance).
+     */
+    void evictLocal(String key) {
+        abandonLoad(key);
+        local.invalidate(key);
+    }
+
+    /**
+     * Drops all of L1 only (invalidation received from another instance).
+     */
+    void clearLocal() {
+        abandonLoads();
+        local.invalidateAll();
+    }
+
+    /**
+     * Marks an in-flight load of the key stale and unregisters it, so later callers
+     * start a fresh load instead of joining one that may have read old data.
+     */
+    private void abandonLoad(String cacheKey) {
+        Load load = loading.remove(cacheKey);
+        if (load != null) {
+            load.stale = true;
+        }
+    }
+
+    private void abandonLoads() {
+        loading.values().removeIf(load -> {
+            load.stale = true;
+            return true;
+        });
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Hit/miss statistics for both tiers.
+     */
+    public CacheStats stats() {
+        var l1 = local.stats();
+        long l2Hits = remoteHits.sum();
+        long l2Misses = remoteMisses.sum();
+        long requests = l1.requestCount();
+        double hitRate = requests == 0 ? 0.0 : (double) (l1.hitCount() + l2Hits) / requests;
+
+        return new CacheStats(
+                name,
+                local.estimatedSize(),
+                l1.hitCount(),
+                l1.missCount(),
+                l1.evictionCount(),
+                l2Hits,
+                l2Misses,
+                Math.round(l1.hitRate() * 1000) / 1000.0,
+                Math.round(hitRate * 1000) / 1000.0
+        );
+    }
+
+    private Object readRemote(String cacheKey) {
+        try {
+            Object value = redisTemplate.opsForValue().get(redisKey(cacheKey));
+            if (value != null) {
+                remoteHits.increment();
+            } else {
+                remoteMisses.increment();
+            }
+            return value;
+        } catch (RuntimeException e) {
+            remoteMisses.increment();
+            log.debug("[Cache] L2 read failed for {}::{}: {}", name, cacheKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRemote(String cacheKey, Object value) {
+        try {
+            redisTemplate.opsForValue().set(redisKey(cacheKey), value, ttl);
+        } catch (RuntimeException e) {
+            log.debug("[Cache] L2 write failed for {}::{}: {}", name, cacheKey, e.getMessage());
+        }
+    }
+
+    private void deleteRemote(String cacheKey) {
+        try {
+            redisTemplate.delete(redisKey(cacheKey));
+        } catch (RuntimeException e) {
+            log.debug("[Cache] L2 evict failed for {}::{}: {}", name, cacheKey, e.getMessage());
+        }
+    }
+
+    private void deleteRemoteKeys() {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(KEY_PREFIX + name + "::*")
+                .count(DELETE_BATCH_SIZE)
+                .build();
+
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            List<byte[]> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == DELETE_BATCH_SIZE) {
+                        connection.keyCommands().del(batch.toArray(new byte[0][]));
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                connection.keyCommands().del(batch.toArray(new byte[0][]));
+            }
+            return null;
+        });
+    }
+
+    private String redisKey(String cacheKey) {
+        return KEY_PREFIX + name + "::" + cacheKey;
+    }
+
+    /**
+     * One in-flight load and whether an invalidation has overtaken it.
+     */
+    private static final class Load {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile boolean stale;
+    }
+
+    /**
+     * Cache statistics. {@code hitRate} counts a hit in either tier.
+     */
+    public record CacheStats(
+            String name,
+            long localSize,
+            long localHits,
+            long localMisses,
+            long localEvictions,
+            long remoteHits,
+            long remoteMisses,
+            double localHitRate,
+            double hitRate
+    ) {}
+}
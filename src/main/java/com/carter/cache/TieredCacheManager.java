@@ -0,0 +1,110 @@
+package com.carter.cache;
+
+import com.carter.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cache manager producing {@link TieredCache}s with per-cache size and TTL.
+ *
+ * <p>Also the cross-node invalidation hub: local evictions are published on
+ * {@link #INVALIDATION_CHANNEL} as {@code nodeId|cacheName|key} (key {@code *} = clear),
+ * and messages from other nodes drop the matching L1 entries here.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public class TieredCacheManager extends AbstractCacheManager implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "dendrite:cache:invalidation";
+    private static final String CLEAR_ALL = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheProperties properties;
+    private final RedisTemplate<String, Object> valueTemplate;
+    private final StringRedisTemplate messageTemplate;
+
+    public TieredCacheManager(CacheProperties properties,
+                              RedisTemplate<String, Object> valueTemplate,
+                              StringRedisTemplate messageTemplate) {
+        this.properties = properties;
+        this.valueTemplate = valueTemplate;
+        this.messageTemplate = messageTemplate;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return properties.getSpecs().keySet().stream()
+                .map(this::createCache)
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    /**
+     * Statistics for every cache created so far.
+     */
+    public List<TieredCache.CacheStats> getStats() {
+        return getCacheNames().stream()
+                .map(this::getCache)
+                .filter(TieredCache.class::isInstance)
+                .map(cache -> ((TieredCache) cache).stats())
+                .toList();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        Cache cache = lookupCache(parts[1]);
+        if (cache instanceof TieredCache tiered) {
+            if (CLEAR_ALL.equals(parts[2])) {
+                tiered.clearLocal();
+            } else {
+                tiered.evictLocal(parts[2]);
+            }
+            log.debug("[Cache] Remote invalidation {}::{}", parts[1], parts[2]);
+        }
+    }
+
+    private TieredCache createCache(String name) {
+        CacheProperties.Spec spec = properties.specFor(name);
+        var local = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTtl())
+                .recordStats()
+                .<String, Object>build();
+
+        log.info("[Cache] {}: max {} entries, ttl {}", name, spec.getMaximumSize(), spec.getTtl());
+        return new TieredCache(name, local, valueTemplate, spec.getTtl(), this::publishInvalidation);
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            messageTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + "|" + cacheName + "|" + (key != null ? key : CLEAR_ALL));
+        } catch (RuntimeException e) {
+            log.warn("[Cache] Failed to publish invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.carter.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Additive-increase / multiplicative-decrease pacer for a single AI model.
+ * The permitted rate grows by a fixed step per increase interval of healthy calls and is cut
+ * by a factor whenever the provider answers with 429 / RESOURCE_EXHAUSTED,
+ * so throughput converges on the real quota instead of a hard-coded guess.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public final class AimdRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AimdRateLimiter.class);
+
+    private final String model;
+    private final double minPermitsPerMinute;
+    private final double maxPermitsPerMinute;
+
+    private final Lock pacingLock = new ReentrantLock(true); // Fair lock ensures FIFO
+    private long nextPermitTime = 0;
+
+    private volatile double permitsPerMinute;
+    private volatile long lastLatencyMs = 0;
+    private long lastDecreaseTime = 0;
+    private long lastIncreaseTime = 0;
+
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong throttleCount = new AtomicLong();
+
+    public AimdRateLimiter(String model, double initialPermitsPerMinute,
+                           double minPermitsPerMinute, double maxPermitsPerMinute) {
+        if (minPermitsPerMinute <= 0 || maxPermitsPerMinute < minPermitsPerMinute) {
+            throw new IllegalArgumentException("Invalid AIMD bounds for model " + model);
+        }
+        this.model = model;
+        this.minPermitsPerMinute = minPermitsPerMinute;
+        this.maxPermitsPerMinute = maxPermitsPerMinute;
+        this.permitsPerMinute = clamp(initialPermitsPerMinute);
+    }
+
+    /**
+     * Blocks until the current rate allows another call. The slot is reserved
+     * under the lock and waited for outside it, so callers queue in reservation
+     * order without one sleeper holding up the rest.
+     */
+    public void acquire() {
+        long now;
+        long permitTime;
+        pacingLock.lock();
+        try {
+            now = System.currentTimeMillis();
+            permitTime = Math.max(now, nextPermitTime);
+            nextPermitTime = permitTime + intervalMs();
+        } finally {
+            pacingLock.unlock();
+        }
+
+        long waitTime = permitTime - now;
+        if (waitTime > 0) {
+            log.info("Quota protection: Waiting {}ms for {} quota (rate: {} QPM)",
+                    waitTime, model, String.format("%.1f", permitsPerMinute));
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for quota", e);
+            }
+        }
+    }
+
+    /**
+     * Additive increase, at most one step per {@link Constants#AIMD_INCREASE_INTERVAL_MS}
+     * however many calls succeed in it, so the rate grows linearly in time rather
+     * than with its own throughput. Slow responses hold the rate instead of raising
+     * it, since latency creeping up is the provider's early congestion signal.
+     */
+    public synchronized void onSuccess(long latencyMs) {
+        successCount.incrementAndGet();
+        lastLatencyMs = latencyMs;
+        if (latencyMs > Constants.AIMD_LATENCY_CEILING_MS) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastIncreaseTime < Constants.AIMD_INCREASE_INTERVAL_MS) {
+            return;
+        }
+        lastIncreaseTime = now;
+        permitsPerMinute = clamp(permitsPerMinute + Constants.AIMD_ADDITIVE_STEP_QPM);
+    }
+
+    /**
+     * Multiplicative decrease. A burst of 429s from calls that were already in
+     * flight counts as one congestion event.
+     */
+    public void onThrottle() {
+        throttleCount.incrementAndGet();
+        long now = System.currentTimeMillis();
+        double newRate;
+        synchronized (this) {
+            if (now - lastDecreaseTime < Constants.AIMD_DECREASE_COOLDOWN_MS) {
+                return;
+            }
+            lastDecreaseTime = now;
+            lastIncreaseTime = now; // Recovery starts one interval after the cut
+            newRate = clamp(permitsPerMinute * Constants.AIMD_DECREASE_FACTOR);
+            permitsPerMinute = newRate;
+        }
+        log.warn("Quota protection: {} throttled by provider, rate cut to {} QPM",
+                model, String.format("%.1f", newRate));
+
+        // Push the next permit out so waiters back off immediately
+        pacingLock.lock();
+        try {
+            nextPermitTime = Math.max(nextPermitTime, now + intervalMs());
+        } finally {
+            pacingLock.unlock();
+        }
+    }
+
+    public double getPermitsPerMinute() {
+        return permitsPerMinute;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public RateSnapshot snapshot() {
+        return new RateSnapshot(
+                model,
+                Math.round(permitsPerMinute * 10) / 10.0,
+                minPermitsPerMinute,
+                maxPermitsPerMinute,
+                successCount.get(),
+                throttleCount.get(),
+                lastLatencyMs
+        );
+    }
+
+    private long intervalMs() {
+        return (long) Math.ceil(60_000 / permitsPerMinute);
+    }
+
+    private double clamp(double rate) {
+        return Math.max(minPermitsPerMinute, Math.min(maxPermitsPerMinute, rate));
+    }
+
+    /**
+     * Point-in-time view of a model's adaptive rate.
+     */
+    public record RateSnapshot(
+            String model,
+            double permitsPerMinute,
+            double minPermitsPerMinute,
+            double maxPermitsPerMinute,
+            long successes,
+            long throttles,
+            long lastLatencyMs
+    ) {}
+}
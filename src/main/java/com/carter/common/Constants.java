@@ -17,20 +17,87 @@ public final class Constants {
     // Redis Keys
     // ==========================================
     public static final String REDIS_QUEUE_KEY = "dendrite:evaluation:queue";
+    public static final String QUERY_FREQ_KEY = "dendrite:query:freq";
+    public static final String QUERY_SEEN_KEY = "dendrite:query:seen";
+    public static final String PROFILE_EPOCH_KEY = "dendrite:profiles:epoch";
+    public static final String LEADERBOARD_KEY_PREFIX = "dendrite:leaderboard:";
+
+    // ==========================================
+    // Cache Names
+    // ==========================================
+    public static final String CACHE_SEARCH_RESULTS = "searchResults";
+    public static final String CACHE_PROFILES = "profiles";
+    public static final String CACHE_QUERY_EXPANSION = "queryExpansion";
+    public static final String CACHE_QUERY_VECTORS = "queryVectors";
+    public static final String CACHE_RECOMMENDATIONS = "recommendations";
+    public static final String CACHE_COMPETENCY_CENTROIDS = "competencyCentroids";
 
     // ==========================================
     // Search Configuration
     // ==========================================
     public static final int DEFAULT_SEARCH_LIMIT = 5;
     public static final double SIMILARITY_THRESHOLD = 0.7;
-    public static final int QUERY_CACHE_MAX_SIZE = 100;
+
+    // ==========================================
+    // Cursor Pagination
+    // ==========================================
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // ==========================================
+    // Candidate Reranking (weights sum to 1)
+    // ==========================================
+    public static final double RERANK_WEIGHT_SIMILARITY = 0.5;
+    public static final double RERANK_WEIGHT_LEXICAL = 0.2;
+    public static final double RERANK_WEIGHT_SKILL = 0.15;
+    public static final double RERANK_WEIGHT_TAG = 0.1;
+    public static final double RERANK_WEIGHT_RECENCY = 0.05;
+    public static final double RERANK_RECENCY_HALF_LIFE_DAYS = 90.0;
+    public static final int RERANK_MIN_SUMMARY_TOKENS = 40;
 
     // ==========================================
     // Batch Processing
     // ==========================================
     public static final int MAX_BATCH_SIZE = 10;
+    public static final int MAX_TAG_BATCH_SIZE = 250; // Embedding API instances per request
     public static final long QUEUE_SCAN_INTERVAL_MS = 300_000; // 5 minutes
     public static final long QUEUE_INITIAL_DELAY_MS = 10_000;  // 10 seconds
+    public static final int MAX_IMPORT_ERRORS = 20; // Rejected-record messages returned per import
+    public static final String IMPORT_KEY_PREFIX = "dendrite:import:";
+
+    // ==========================================
+    // Task Progress
+    // ==========================================
+    public static final String TASK_KEY_PREFIX = "dendrite:task:";
+    public static final String TASK_SEQ_KEY = "dendrite:task:seq";
+    public static final String TASK_CHANNEL = "dendrite:task:events";
+
+    // ==========================================
+    // Profile Generation
+    // ==========================================
+    public static final String PROFILE_LOCK_PREFIX = "dendrite:profile:lock:";
+    public static final String PROFILE_REQUEUE_KEY = "dendrite:profile:requeue";
+
+    // ==========================================
+    // Ingestion Deduplication
+    // ==========================================
+    public static final String DEDUP_KEY_PREFIX = "dendrite:dedup:";
+    public static final int SHINGLE_SIZE = 5;           // Characters per shingle
+    public static final int MINHASH_PERMUTATIONS = 128;
+    public static final int LSH_BANDS = 16;             // 8 rows per band: ~0.7 Jaccard threshold
+
+    // ==========================================
+    // Embedding Backfill
+    // ==========================================
+    public static final String BACKFILL_LOCK_KEY = "dendrite:backfill:lock";
+    public static final String BACKFILL_CHECKPOINT_KEY = "dendrite:backfill:checkpoint";
+
+    // ==========================================
+    // Embedding Versioning
+    // ==========================================
+    public static final String EMBEDDING_ACTIVE_MODEL_KEY = "dendrite:embedding:active-model";
+    public static final String EMBEDDING_MIGRATION_KEY = "dendrite:embedding:migration";
+    public static final String EMBEDDING_MIGRATION_LOCK_KEY = "dendrite:embedding:migration:lock";
 
     // ==========================================
     // Gamification
@@ -41,15 +108,39 @@ public final class Constants {
     public static final int EVALUATION_SUBMIT_REWARD = 5;
     public static final double BASE_WEIGHT = 1.0;
     public static final double LEVEL_WEIGHT_INCREMENT = 0.25;
+    public static final double MIN_TAG_WEIGHT = 0.1;
+
+    // ==========================================
+    // Tag Interactions
+    // ==========================================
+    public static final String INTERACTION_DEDUP_PREFIX = "dendrite:interaction:";
+    public static final int MAX_INTERACTION_TEXT_LENGTH = 255; // trigger_user / related_query columns
+    public static final String SEARCH_HIT_DEDUP_PREFIX = "dendrite:search-hit:";
 
     // ==========================================
     // AI Configuration
     // ==========================================
-    public static final int VECTOR_DIMENSION = 768;
     public static final int SUMMARY_MAX_LENGTH = 200;
     public static final int MIN_SKILL_TAGS = 5;
     public static final int MAX_SKILL_TAGS = 10;
 
+    // ==========================================
+    // Adaptive Quota (AIMD)
+    // ==========================================
+    public static final double AIMD_MIN_QPM = 1.0;
+    public static final double AIMD_ADDITIVE_STEP_QPM = 1.0;
+    public static final long AIMD_INCREASE_INTERVAL_MS = 5_000; // At most one additive step per interval
+    public static final double AIMD_DECREASE_FACTOR = 0.5;
+    public static final long AIMD_DECREASE_COOLDOWN_MS = 10_000;
+    public static final long AIMD_LATENCY_CEILING_MS = 10_000;
+    public static final int AIMD_MAX_THROTTLE_RETRIES = 2;
+
+    // ==========================================
+    // Distributed Rate Limiting
+    // ==========================================
+    public static final long RATE_LIMIT_LEASE_TTL_MS = 1_000;
+    public static final int RATE_LIMIT_MAX_LEASES = 10_000;
+
     // ==========================================
     // Validation
     // ==========================================
@@ -57,5 +148,6 @@ public final class Constants {
     public static final int MAX_EMPLOYEE_NAME_LENGTH = 100;
     public static final int MIN_CONTENT_LENGTH = 10;
     public static final int MAX_CONTENT_LENGTH = 5000;
+    public static final int MAX_TAG_CONTEXT_LENGTH = 1000;
 }
 
@@ -0,0 +1,95 @@
+package com.carter.common;
+
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ * A token is the sort key of the last row of a page, URL-safe base64 encoded so
+ * clients pass it back unchanged instead of building offsets.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {}
+
+    /**
+     * Encodes the key parts of the last row into a token.
+     */
+    public static String encode(Object... parts) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token into its key parts.
+     *
+     * @param token the token from a previous page
+     * @param parts expected number of parts
+     * @throws DendriteException if the token is malformed
+     */
+    public static Key decode(String token, int parts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] values = raw.split("\\" + SEPARATOR, parts);
+            if (values.length == parts) {
+                return new Key(values);
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through
+        }
+        throw invalid();
+    }
+
+    private static DendriteException invalid() {
+        return new DendriteException(ErrorCode.INVALID_PARAMETER, "Invalid cursor");
+    }
+
+    /**
+     * Decoded key parts, parsed on access. A part that does not parse is reported
+     * as an invalid cursor rather than a server error.
+     */
+    public record Key(String[] parts) {
+
+        public String string(int index) {
+            return parts[index];
+        }
+
+        public long longValue(int index) {
+            try {
+                return Long.parseLong(parts[index]);
+            } catch (NumberFormatException e) {
+                throw invalid();
+            }
+        }
+
+        public double doubleValue(int index) {
+            try {
+                return Double.parseDouble(parts[index]);
+            } catch (NumberFormatException e) {
+                throw invalid();
+            }
+        }
+
+        public LocalDateTime time(int index) {
+            try {
+                return LocalDateTime.parse(parts[index]);
+            } catch (RuntimeException e) {
+                throw invalid();
+            }
+        }
+    }
+}
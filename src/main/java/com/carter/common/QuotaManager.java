@@ -1,50 +1,171 @@
 package com.carter.common;
 
+import com.carter.common.AimdRateLimiter.RateSnapshot;
+import com.google.genai.errors.ApiException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * Manages API quotas to prevent 429 Too Many Requests errors.
  * Specifically targets the strict rate limits of Google Vertex AI.
+ *
+ * <p>Chat and embedding models are paced independently by an {@link AimdRateLimiter},
+ * which learns the real quota from the provider's responses.</p>
+ *
+ * <p>With {@code dendrite.quota.distributed.enabled=true} every call must also take a
+ * permit from a {@link RedisTokenBucket} shared by all instances, so scaling out
+ * does not multiply the traffic sent against one provider quota.</p>
  */
 @Component
 public class QuotaManager {
     private static final Logger log = LoggerFactory.getLogger(QuotaManager.class);
-    
-    // Conservative limit: 1 request every 15 seconds (4 requests/min) to be safe against 5 QPM limit
-    private static final long EMBEDDING_INTERVAL_MS = 15000;
-    
-    private final Lock embeddingLock = new ReentrantLock(true); // Fair lock ensures FIFO
-    private long lastEmbeddingTime = 0;
+
+    private static final String BUCKET_KEY_PREFIX = "dendrite:quota:";
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final Pattern THROTTLED_STATUS = Pattern.compile("\\b429\\b");
+
+    private final AimdRateLimiter chatLimiter;
+    private final AimdRateLimiter embeddingLimiter;
+    private final RedisTokenBucket tokenBucket;
+    private final boolean distributed;
+    private final int leaseSize;
+
+    public QuotaManager(@Value("${spring.ai.google.genai.chat.options.model:gemini-2.0-flash}") String chatModel,
+                        @Value("${spring.ai.google.genai.embedding.options.model:text-embedding-004}") String embeddingModel,
+                        @Value("${dendrite.quota.chat.initial-qpm:60}") double chatInitialQpm,
+                        @Value("${dendrite.quota.chat.max-qpm:1000}") double chatMaxQpm,
+                        @Value("${dendrite.quota.embedding.initial-qpm:4}") double embeddingInitialQpm,
+                        @Value("${dendrite.quota.embedding.max-qpm:600}") double embeddingMaxQpm,
+                        @Value("${dendrite.quota.distributed.enabled:false}") boolean distributed,
+                        @Value("${dendrite.quota.distributed.lease-size:1}") int leaseSize,
+                        RedisTokenBucket tokenBucket) {
+        this.chatLimiter = new AimdRateLimiter(chatModel, chatInitialQpm, Constants.AIMD_MIN_QPM, chatMaxQpm);
+        this.embeddingLimiter = new AimdRateLimiter(embeddingModel, embeddingInitialQpm, Constants.AIMD_MIN_QPM, embeddingMaxQpm);
+        this.tokenBucket = tokenBucket;
+        this.distributed = distributed;
+        this.leaseSize = Math.max(1, leaseSize);
+        if (distributed) {
+            log.info("Distributed quota enabled (lease size: {})", this.leaseSize);
+        }
+    }
 
     /**
-     * Blocks until it's safe to make an embedding API call.
+     * Runs an embedding API call under the embedding model's adaptive quota.
+     *
+     * @param call the provider call
+     * @return the call's result
      */
-    public void acquireEmbeddingQuota() {
-        embeddingLock.lock();
-        try {
-            long now = System.currentTimeMillis();
-            long timeSinceLast = now - lastEmbeddingTime;
-            
-            if (timeSinceLast < EMBEDDING_INTERVAL_MS) {
-                long waitTime = EMBEDDING_INTERVAL_MS - timeSinceLast;
-                log.info("Quota protection: Waiting {}ms for embedding quota (Limit: 5 QPM)", waitTime);
-                try {
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted while waiting for quota", e);
+    public <T> T callEmbedding(Supplier<T> call) {
+        return callWithQuota(embeddingLimiter, call);
+    }
+
+    /**
+     * Runs a chat completion under the chat model's adaptive quota.
+     *
+     * @param call the provider call
+     * @return the call's result
+     */
+    public <T> T callChat(Supplier<T> call) {
+        return callWithQuota(chatLimiter, call);
+    }
+
+    /**
+     * Current adaptive rates, one entry per model.
+     */
+    public List<RateSnapshot> getRates() {
+        return List.of(chatLimiter.snapshot(), embeddingLimiter.snapshot());
+    }
+
+    private <T> T callWithQuota(AimdRateLimiter limiter, Supplier<T> call) {
+        for (int attempt = 0; ; attempt++) {
+            limiter.acquire();
+            if (distributed) {
+                acquireSharedPermit(limiter);
+            }
+            long start = System.currentTimeMillis();
+            try {
+                T result = call.get();
+                limiter.onSuccess(System.currentTimeMillis() - start);
+                return result;
+            } catch (RuntimeException e) {
+                if (!isThrottled(e)) {
+                    throw e;
+                }
+                limiter.onThrottle();
+                if (attempt >= Constants.AIMD_MAX_THROTTLE_RETRIES) {
+                    throw e;
                 }
+                log.info("Retrying {} call after throttle (attempt {})", limiter.getModel(), attempt + 1);
             }
-            // Update time to NOW (after sleep)
-            lastEmbeddingTime = System.currentTimeMillis();
-        } finally {
-            embeddingLock.unlock();
         }
     }
-}
 
+    /**
+     * Blocks until the cluster-wide bucket for this model grants a permit.
+     * The bucket refills at this instance's current AIMD rate, so a 429 seen
+     * anywhere slows the shared budget down as soon as that instance calls again.
+     * If Redis is unreachable we fall back to local pacing only.
+     */
+    private void acquireSharedPermit(AimdRateLimiter limiter) {
+        double permitsPerSecond = limiter.getPermitsPerMinute() / 60.0;
+        int capacity = Math.max(1, (int) Math.ceil(permitsPerSecond));
+        String key = BUCKET_KEY_PREFIX + limiter.getModel();
+
+        while (true) {
+            RedisTokenBucket.Acquisition acquisition;
+            try {
+                acquisition = tokenBucket.tryAcquire(key, 1, capacity, permitsPerSecond, leaseSize);
+            } catch (RuntimeException e) {
+                log.warn("Distributed quota unavailable for {}, using local pacing: {}",
+                        limiter.getModel(), e.getMessage());
+                return;
+            }
+            if (acquisition.granted()) {
+                return;
+            }
+            log.info("Quota protection: Waiting {}ms for shared {} quota", acquisition.waitMs(), limiter.getModel());
+            try {
+                Thread.sleep(acquisition.waitMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for quota", e);
+            }
+        }
+    }
+
+    /**
+     * Detects provider throttling anywhere in the cause chain. HTTP status codes are
+     * checked first; the message is only matched for wrappers that carry none, and
+     * then only on a standalone {@code 429}, not on digits inside ids or token counts.
+     */
+    static boolean isThrottled(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ApiException api) {
+                if (api.code() == HTTP_TOO_MANY_REQUESTS || "RESOURCE_EXHAUSTED".equals(api.status())) {
+                    return true;
+                }
+                continue;
+            }
+            if (t instanceof RestClientResponseException response) {
+                if (response.getStatusCode().value() == HTTP_TOO_MANY_REQUESTS) {
+                    return true;
+                }
+                continue;
+            }
+            String message = t.getMessage();
+            if (message != null && (THROTTLED_STATUS.matcher(message).find()
+                    || message.contains("RESOURCE_EXHAUSTED")
+                    || message.contains("Too Many Requests"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
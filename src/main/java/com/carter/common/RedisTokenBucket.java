@@ -0,0 +1,153 @@
+package com.carter.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster-wide token bucket stored in Redis.
+ * Refill and take happen atomically in one Lua script using the Redis clock,
+ * so every Dendrite instance draws from the same budget.
+ *
+ * <p>To avoid a Redis round trip per call, an instance may prefetch a small
+ * lease of permits and spend it locally. Unused leased permits expire quickly
+ * so a crashed or idle instance cannot hoard the shared quota.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class RedisTokenBucket {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTokenBucket.class);
+
+    /**
+     * KEYS[1] bucket hash; ARGV: capacity, refill permits/sec, min permits, max permits.
+     * Grants between min and max permits (all-or-nothing on min). Returns the
+     * permits granted, or minus the milliseconds until min permits are available,
+     * so the result is a single integer reply.
+     */
+    private static final String TOKEN_BUCKET_LUA = """
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local minimum = tonumber(ARGV[3])
+            local maximum = tonumber(ARGV[4])
+            local clock = redis.call('TIME')
+            local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+              tokens = capacity
+              ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+            local granted = 0
+            local wait = 0
+            if tokens >= minimum then
+              granted = math.min(maximum, math.floor(tokens))
+              tokens = tokens - granted
+            else
+              wait = math.ceil((minimum - tokens) * 1000 / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            if granted >= minimum then return granted end
+            return -math.max(1, wait)
+            """;
+
+    private static final DefaultRedisScript<Long> SCRIPT = new DefaultRedisScript<>(TOKEN_BUCKET_LUA, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    public RedisTokenBucket(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Takes permits from the shared bucket, serving from the local lease when possible.
+     *
+     * @param key bucket key in Redis
+     * @param permits permits needed by this call (never granted if above {@code capacity})
+     * @param capacity bucket size (maximum burst)
+     * @param permitsPerSecond refill rate
+     * @param leaseSize permits to prefetch per Redis round trip (at least {@code permits})
+     * @return whether the permits were granted and, if not, how long to wait
+     */
+    public Acquisition tryAcquire(String key, int permits, int capacity, double permitsPerSecond, int leaseSize) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+
+        synchronized (lease) {
+            if (lease.take(permits, now)) {
+                return Acquisition.GRANTED;
+            }
+
+            int maximum = Math.min(capacity, Math.max(permits, leaseSize));
+            Long result = redisTemplate.execute(SCRIPT, List.of(key),
+                    String.valueOf(capacity),
+                    String.valueOf(permitsPerSecond),
+                    String.valueOf(permits),
+                    String.valueOf(maximum));
+
+            long granted = result != null ? result : -1;
+            if (granted < permits) {
+                return new Acquisition(false, Math.max(1, -granted));
+            }
+
+            lease.refill((int) granted - permits, now + Constants.RATE_LIMIT_LEASE_TTL_MS);
+        }
+
+        if (leases.size() > Constants.RATE_LIMIT_MAX_LEASES) {
+            purgeExpiredLeases(now);
+        }
+        return Acquisition.GRANTED;
+    }
+
+    private void purgeExpiredLeases(long now) {
+        leases.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        log.debug("Purged expired rate limit leases, {} remaining", leases.size());
+    }
+
+    /**
+     * Result of a bucket acquisition.
+     *
+     * @param granted whether the permits were granted
+     * @param waitMs suggested wait before retrying when not granted
+     */
+    public record Acquisition(boolean granted, long waitMs) {
+        static final Acquisition GRANTED = new Acquisition(true, 0);
+    }
+
+    /**
+     * Permits prefetched from Redis that this instance may spend locally.
+     */
+    private static final class Lease {
+        private int remaining;
+        private long expiresAt;
+
+        boolean take(int permits, long now) {
+            if (now >= expiresAt || remaining < permits) {
+                return false;
+            }
+            remaining -= permits;
+            return true;
+        }
+
+        void refill(int permits, long expiresAt) {
+            this.remaining = permits;
+            this.expiresAt = expiresAt;
+        }
+
+        synchronized boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
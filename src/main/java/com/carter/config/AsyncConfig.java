@@ -1,5 +1,6 @@
 package com.carter.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -43,6 +44,25 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * Fetches query expansions for speculative {@code /ask} retrieval. Kept apart from
+     * {@code searchExecutor}, which the requests waiting on these already occupy; when
+     * full it rejects, and the request goes on with the raw query alone.
+     */
+    @Bean(name = "expansionExecutor")
+    public Executor expansionExecutor(@Value("${dendrite.search.expansion-threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, threads));
+        executor.setMaxPoolSize(Math.max(1, threads));
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("expansion-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * Task executor for background processing.
      */
@@ -59,5 +79,42 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * Runs bulk import jobs, one thread per import for its whole duration.
+     * Kept apart from {@code taskExecutor} so long imports never hold its threads;
+     * an import beyond the limit is rejected rather than queued for hours.
+     */
+    @Bean(name = "importExecutor")
+    public Executor importExecutor(@Value("${dendrite.import.max-concurrent-imports:2}") int maxImports) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, maxImports));
+        executor.setMaxPoolSize(Math.max(1, maxImports));
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs the batches of bulk imports. Import jobs block on these, so they must
+     * never share a pool; each job bounds its own batches in flight, and a full
+     * queue makes the job run the batch itself.
+     */
+    @Bean(name = "importBatchExecutor")
+    public Executor importBatchExecutor(@Value("${dendrite.import.batch-threads:6}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, threads));
+        executor.setMaxPoolSize(Math.max(1, threads));
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("import-batch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,38 +1,56 @@
 package com.carter.config;
 
-import org.springframework.cache.CacheManager;
+import com.carter.cache.TieredCacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * Cache configuration for high-performance search.
- * Uses in-memory caching to reduce database and AI calls.
+ * Two tiers: Caffeine in-process (L1) and Redis shared across instances (L2),
+ * with per-cache TTLs from {@code dendrite.cache.specs}.
  *
  * @author Carter
  * @since 1.0.0
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     /**
-     * Simple in-memory cache manager.
-     * For production with multiple instances, consider Redis-based caching.
+     * Tiered cache manager.
      *
      * Cache names:
      * - searchResults: caches vector search results
      * - profiles: caches talent profiles
      * - queryExpansion: caches AI query expansions
+     * - queryVectors: caches query embeddings
+     * - recommendations: caches /ask answers by query and candidate fingerprint
      */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-                "searchResults",
-                "profiles",
-                "queryExpansion"
-        );
+    public TieredCacheManager cacheManager(CacheProperties properties,
+                                           RedisTemplate<String, Object> redisTemplate,
+                                           StringRedisTemplate stringRedisTemplate) {
+        // L2 values use the JSON serializer of RedisConfig's redisTemplate
+        return new TieredCacheManager(properties, redisTemplate, stringRedisTemplate);
     }
-}
 
+    /**
+     * Subscribes to cross-node cache invalidations.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TieredCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TieredCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,41 @@
+package com.carter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache size and TTL settings ({@code dendrite.cache.*}).
+ * Caches not listed under {@code specs} use {@code defaults}.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Data
+@ConfigurationProperties(prefix = "dendrite.cache")
+public class CacheProperties {
+
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Spec {
+        /**
+         * Maximum entries kept in the in-process (L1) tier.
+         */
+        private long maximumSize = 1_000;
+
+        /**
+         * Time to live in both tiers.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
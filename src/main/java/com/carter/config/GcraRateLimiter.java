@@ -0,0 +1,183 @@
+package com.carter.config;
+
+import com.carter.config.RateLimitConfig.ClientRateLimiter;
+
+/**
+ * Bounded, lock-striped GCRA (generic cell rate algorithm) limiter.
+ *
+ * <p>Each client needs a single {@code long}: its theoretical arrival time (TAT).
+ * A request of cost {@code c} is allowed when {@code max(TAT, now) + c * T - now <= window},
+ * where {@code T = window / limit}. This behaves like a sliding window without
+ * per-request bookkeeping, and a client whose TAT is in the past holds no state,
+ * so it can be evicted without changing any decision.</p>
+ *
+ * <p>Keys live in fixed-size open-addressing tables, one per stripe. Lookups,
+ * updates and evictions reuse preallocated arrays, so the per-key path does not
+ * allocate and memory is capped no matter how many distinct IPs show up.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public class GcraRateLimiter implements ClientRateLimiter {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final long emissionIntervalNanos;
+    private final long windowNanos;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param limit requests allowed per window (also the maximum burst)
+     * @param windowMs window length in milliseconds
+     * @param maxTrackedKeys upper bound on clients tracked at once
+     */
+    public GcraRateLimiter(int limit, long windowMs, int maxTrackedKeys) {
+        this.windowNanos = windowMs * 1_000_000L;
+        this.emissionIntervalNanos = windowNanos / limit;
+
+        int keysPerStripe = Math.max(16, maxTrackedKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String clientKey, int cost) {
+        long increment = emissionIntervalNanos * Math.max(1, cost);
+        if (increment > windowNanos) {
+            return false; // Can never fit, don't let it take a slot
+        }
+
+        int hash = spread(clientKey.hashCode());
+        Stripe stripe = stripes[hash & (STRIPES - 1)];
+        long now = System.nanoTime();
+
+        synchronized (stripe) {
+            return stripe.acquire(clientKey, hash >>> STRIPE_BITS, now, increment, windowNanos);
+        }
+    }
+
+    /**
+     * Number of clients currently tracked (approximate under concurrency).
+     */
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size;
+        }
+        return total;
+    }
+
+    private static int spread(int h) {
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Linear-probing table of key -> TAT guarded by the stripe's monitor.
+     */
+    private static final class Stripe {
+        private final int maxSize;
+        private final int mask;
+        private String[] keys;
+        private long[] tats;
+        private String[] spareKeys;
+        private long[] spareTats;
+        private int size;
+
+        Stripe(int maxSize) {
+            int capacity = Integer.highestOneBit(maxSize * 2 - 1) << 1; // load factor <= 0.5
+            this.maxSize = maxSize;
+            this.mask = capacity - 1;
+            this.keys = new String[capacity];
+            this.tats = new long[capacity];
+            this.spareKeys = new String[capacity];
+            this.spareTats = new long[capacity];
+        }
+
+        boolean acquire(String key, int hash, long now, long increment, long window) {
+            int slot = find(key, hash);
+            long tat = slot >= 0 ? tats[slot] : now;
+            long newTat = Math.max(tat, now) + increment;
+
+            if (newTat - now > window) {
+                return false;
+            }
+
+            if (slot >= 0) {
+                tats[slot] = newTat;
+                return true;
+            }
+
+            if (size >= maxSize) {
+                evict(now, window);
+            }
+            insert(key, hash, newTat);
+            return true;
+        }
+
+        private int find(String key, int hash) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                String k = keys[i];
+                if (k == null) {
+                    return -1;
+                }
+                if (k.equals(key)) {
+                    return i;
+                }
+            }
+        }
+
+        private void insert(String key, int hash, long tat) {
+            int i = hash & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            tats[i] = tat;
+            size++;
+        }
+
+        /**
+         * Drops idle clients (TAT already passed). If every client is still
+         * active, drops the ones closest to being idle until an eighth of the
+         * stripe is free. Surviving entries are rehashed into the spare arrays,
+         * which then become the live table.
+         */
+        private void evict(long now, long window) {
+            int target = maxSize - Math.max(1, maxSize / 8);
+            long cutoff = now;
+            while (countAbove(cutoff) > target && cutoff - now < window) {
+                cutoff += window / 4;
+            }
+
+            String[] oldKeys = keys;
+            long[] oldTats = tats;
+            keys = spareKeys;
+            tats = spareTats;
+            spareKeys = oldKeys;
+            spareTats = oldTats;
+            size = 0;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                String k = oldKeys[i];
+                if (k != null && oldTats[i] > cutoff) {
+                    insert(k, spread(k.hashCode()) >>> STRIPE_BITS, oldTats[i]);
+                }
+                oldKeys[i] = null;
+            }
+        }
+
+        private int countAbove(long cutoff) {
+            int count = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null && tats[i] > cutoff) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
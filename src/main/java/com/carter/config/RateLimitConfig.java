@@ -1,18 +1,25 @@
 package com.carter.config;
 
+import com.carter.common.RedisTokenBucket;
 import com.carter.dto.ApiResponse;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Rate limiting configuration to protect AI endpoints.
@@ -24,85 +31,308 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Configuration
 public class RateLimitConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    // Limits: 30 AI request units per minute per IP
+    private static final int MAX_REQUESTS_PER_MINUTE = 30;
+    private static final long WINDOW_MS = 60_000;
+
+    private static final String KEY_PREFIX = "dendrite:ratelimit:";
+
+    private static final EndpointCost DEFAULT_COST = new EndpointCost(1, 0);
+
+    // Path -> cost. A batch costs one unit per query, since each fans out to its own LLM calls.
+    private static final Map<String, EndpointCost> ENDPOINT_COSTS = Map.of(
+            "/api/v1/gardener/ask", new EndpointCost(1, 0),
+            "/api/v1/gardener/ask/batch", new EndpointCost(0, 1)
+    );
+
     /**
      * Rate limit filter for AI-intensive endpoints.
+     * Set {@code dendrite.rate-limit.distributed.enabled=true} to share the
+     * per-IP budget across all instances through Redis.
      */
     @Bean
-    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter() {
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            RedisTokenBucket tokenBucket,
+            @Value("${dendrite.rate-limit.distributed.enabled:false}") boolean distributed,
+            @Value("${dendrite.rate-limit.distributed.lease-size:5}") int leaseSize,
+            @Value("${dendrite.rate-limit.max-tracked-clients:100000}") int maxTrackedClients,
+            @Value("${dendrite.rate-limit.max-body-bytes:1048576}") int maxBodyBytes) {
+
+        ClientRateLimiter limiter = distributed
+                ? new RedisClientRateLimiter(tokenBucket, KEY_PREFIX, MAX_REQUESTS_PER_MINUTE, leaseSize)
+                : new GcraRateLimiter(MAX_REQUESTS_PER_MINUTE, WINDOW_MS, maxTrackedClients);
+        log.info("AI endpoint rate limiting: {}", distributed ? "distributed (Redis)" : "local");
+
         FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>();
-        registration.setFilter(new RateLimitFilter());
+        registration.setFilter(new RateLimitFilter(limiter, MAX_REQUESTS_PER_MINUTE, "AI requests", maxBodyBytes));
         registration.addUrlPatterns("/api/v1/gardener/ask", "/api/v1/gardener/ask/*");
+        registration.setName("rateLimitFilter");
         registration.setOrder(1);
         return registration;
     }
 
     /**
-     * Simple sliding window rate limiter.
-     * In production, consider using Redis-based distributed rate limiting.
+     * Separate, larger per-IP budget for endpoints that feed user signals into tag
+     * weights and rewards (views, votes, search hits), so they can't be replayed
+     * to inflate a tag or a contributor.
      */
-    public static class RateLimitFilter implements Filter {
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> interactionRateLimitFilter(
+            RedisTokenBucket tokenBucket,
+            @Value("${dendrite.rate-limit.distributed.enabled:false}") boolean distributed,
+            @Value("${dendrite.rate-limit.distributed.lease-size:5}") int leaseSize,
+            @Value("${dendrite.rate-limit.max-tracked-clients:100000}") int maxTrackedClients,
+            @Value("${dendrite.rate-limit.interactions.per-minute:120}") int perMinute) {
+        // Servlet patterns can't match /tags/{id}/interactions alone; tag batches share the budget
+        return budgetFilter("interactionRateLimitFilter", "interactions", perMinute,
+                tokenBucket, distributed, leaseSize, maxTrackedClients,
+                "/api/v1/gardener/tags/*", "/api/v1/gardener/search/hit");
+    }
 
-        // IP -> (timestamp -> count)
-        private final Map<String, RequestCounter> requestCounts = new ConcurrentHashMap<>();
+    /**
+     * Per-IP budget for corpus exports, each of which holds a database connection
+     * and a snapshot for as long as the dump streams.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> exportRateLimitFilter(
+            RedisTokenBucket tokenBucket,
+            @Value("${dendrite.rate-limit.distributed.enabled:false}") boolean distributed,
+            @Value("${dendrite.rate-limit.distributed.lease-size:5}") int leaseSize,
+            @Value("${dendrite.rate-limit.max-tracked-clients:100000}") int maxTrackedClients,
+            @Value("${dendrite.rate-limit.exports.per-minute:6}") int perMinute) {
+        return budgetFilter("exportRateLimitFilter", "exports", perMinute,
+                tokenBucket, distributed, leaseSize, maxTrackedClients, "/api/v1/export/*");
+    }
+
+    private static FilterRegistrationBean<RateLimitFilter> budgetFilter(
+            String name, String unit, int perMinute, RedisTokenBucket tokenBucket,
+            boolean distributed, int leaseSize, int maxTrackedClients, String... urlPatterns) {
+
+        int limit = Math.max(1, perMinute);
+        ClientRateLimiter limiter = distributed
+                ? new RedisClientRateLimiter(tokenBucket, KEY_PREFIX + unit + ":", limit, leaseSize)
+                : new GcraRateLimiter(limit, WINDOW_MS, maxTrackedClients);
+
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new RateLimitFilter(limiter, limit, unit));
+        registration.addUrlPatterns(urlPatterns);
+        registration.setName(name);
+        registration.setOrder(1);
+        return registration;
+    }
+
+    /**
+     * Client address used as the rate limit and dedup identity.
+     *
+     * <p>This is the remote address as resolved by the container. With
+     * {@code server.forward-headers-strategy: native}, Tomcat takes it from
+     * {@code X-Forwarded-For} only for hops added by trusted proxies
+     * ({@code server.tomcat.remoteip.internal-proxies}), so a client cannot pick
+     * its own identity by sending the header itself.</p>
+     */
+    public static String clientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Decides whether a client may make another AI request.
+     */
+    public interface ClientRateLimiter {
+
+        /**
+         * @param clientKey client identity (IP address)
+         * @param cost request units this request consumes
+         * @return true if the request is allowed
+         */
+        boolean tryAcquire(String clientKey, int cost);
+    }
+
+    /**
+     * Cost of one request to an endpoint: {@code baseCost + items * perItemCost}.
+     */
+    record EndpointCost(int baseCost, int perItemCost) {}
+
+    /**
+     * Rejects requests once the client's limiter says no.
+     */
+    public static class RateLimitFilter implements Filter {
 
-        // Limits: 30 AI requests per minute per IP
-        private static final int MAX_REQUESTS_PER_MINUTE = 30;
-        private static final long WINDOW_MS = 60_000;
+        private static final int DEFAULT_MAX_BODY_BYTES = 1 << 20;
 
+        private final ClientRateLimiter limiter;
+        private final int limitPerMinute;
+        private final String unit;
+        private final int maxBodyBytes;
         private final ObjectMapper objectMapper = new ObjectMapper();
 
+        public RateLimitFilter(ClientRateLimiter limiter, int limitPerMinute, String unit) {
+            this(limiter, limitPerMinute, unit, DEFAULT_MAX_BODY_BYTES);
+        }
+
+        /**
+         * @param limiter the per-client limiter
+         * @param limitPerMinute the limiter's budget, for the error message
+         * @param unit what the budget counts, for the error message
+         * @param maxBodyBytes largest body buffered to size a batch; larger ones get 413
+         */
+        public RateLimitFilter(ClientRateLimiter limiter, int limitPerMinute, String unit, int maxBodyBytes) {
+            this.limiter = limiter;
+            this.limitPerMinute = limitPerMinute;
+            this.unit = unit;
+            this.maxBodyBytes = Math.max(1, maxBodyBytes);
+        }
+
         @Override
         public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
                 throws IOException, ServletException {
 
             HttpServletRequest httpRequest = (HttpServletRequest) request;
-            String clientIp = getClientIp(httpRequest);
+            String clientIp = clientIp(httpRequest);
 
-            if (isRateLimited(clientIp)) {
-                HttpServletResponse httpResponse = (HttpServletResponse) response;
-                httpResponse.setStatus(429);
-                httpResponse.setContentType("application/json");
+            EndpointCost endpointCost = ENDPOINT_COSTS.getOrDefault(httpRequest.getRequestURI(), DEFAULT_COST);
+            int cost = endpointCost.baseCost();
+            if (endpointCost.perItemCost() > 0) {
+                // Checked before and while reading, since a chunked body has no length
+                CachedBodyRequest cached = httpRequest.getContentLengthLong() > maxBodyBytes
+                        ? null
+                        : CachedBodyRequest.read(httpRequest, maxBodyBytes);
+                if (cached == null) {
+                    reject((HttpServletResponse) response, 413,
+                            "Request body too large. Max " + maxBodyBytes + " bytes.");
+                    return;
+                }
+                cost += countItems(cached.body) * endpointCost.perItemCost();
+                request = cached;
+            }
+            cost = Math.max(1, cost);
 
-                ApiResponse<Object> errorResponse = ApiResponse.error(
-                        "Rate limit exceeded. Max " + MAX_REQUESTS_PER_MINUTE + " AI requests per minute."
-                );
-                httpResponse.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            if (!limiter.tryAcquire(clientIp, cost)) {
+                reject((HttpServletResponse) response, 429,
+                        "Rate limit exceeded. Max " + limitPerMinute + " " + unit
+                                + " per minute (this request counts as " + cost + ").");
                 return;
             }
 
             chain.doFilter(request, response);
         }
 
-        private boolean isRateLimited(String clientIp) {
-            long now = System.currentTimeMillis();
+        private void reject(HttpServletResponse response, int status, String message) throws IOException {
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.getWriter().write(objectMapper.writeValueAsString(ApiResponse.error(message)));
+        }
+
+        /**
+         * Number of elements in a JSON array body; 1 if the body isn't one
+         * (the controller rejects it anyway).
+         */
+        private int countItems(byte[] body) {
+            try {
+                var node = objectMapper.readTree(body);
+                return node != null && node.isArray() ? node.size() : 1;
+            } catch (IOException e) {
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * Reads the body up front so the filter can size a batch and the
+     * controller can still read it afterwards.
+     */
+    static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        /**
+         * Buffers the body, reading at most one byte past the limit.
+         *
+         * @return the wrapped request, or null if the body exceeds {@code maxBytes}
+         */
+        static CachedBodyRequest read(HttpServletRequest request, int maxBytes) throws IOException {
+            byte[] body = request.getInputStream().readNBytes(maxBytes + 1);
+            return body.length > maxBytes ? null : new CachedBodyRequest(request, body);
+        }
 
-            RequestCounter counter = requestCounts.compute(clientIp, (key, existing) -> {
-                if (existing == null || now - existing.windowStart > WINDOW_MS) {
-                    return new RequestCounter(now);
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory: all of it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
                 }
-                return existing;
-            });
 
-            return counter.count.incrementAndGet() > MAX_REQUESTS_PER_MINUTE;
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
         }
 
-        private String getClientIp(HttpServletRequest request) {
-            String xForwardedFor = request.getHeader("X-Forwarded-For");
-            if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-                return xForwardedFor.split(",")[0].trim();
-            }
-            return request.getRemoteAddr();
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
         }
+    }
+
+    /**
+     * Per-IP token bucket shared by every instance through Redis.
+     * Falls back to allowing the request if Redis is unreachable, since
+     * the provider quota is still guarded by QuotaManager.
+     */
+    static class RedisClientRateLimiter implements ClientRateLimiter {
 
-        private static class RequestCounter {
-            final long windowStart;
-            final AtomicInteger count;
+        private final RedisTokenBucket tokenBucket;
+        private final String keyPrefix;
+        private final int limitPerMinute;
+        private final int leaseSize;
 
-            RequestCounter(long windowStart) {
-                this.windowStart = windowStart;
-                this.count = new AtomicInteger(0);
+        RedisClientRateLimiter(RedisTokenBucket tokenBucket, String keyPrefix, int limitPerMinute, int leaseSize) {
+            this.tokenBucket = tokenBucket;
+            this.keyPrefix = keyPrefix;
+            this.limitPerMinute = limitPerMinute;
+            this.leaseSize = Math.max(1, leaseSize);
+        }
+
+        @Override
+        public boolean tryAcquire(String clientIp, int cost) {
+            try {
+                return tokenBucket.tryAcquire(keyPrefix + clientIp, cost, limitPerMinute,
+                        limitPerMinute * 1000.0 / WINDOW_MS, leaseSize).granted();
+            } catch (RuntimeException e) {
+                log.warn("Distributed rate limit unavailable, allowing request: {}", e.getMessage());
+                return true;
             }
         }
     }
 }
-
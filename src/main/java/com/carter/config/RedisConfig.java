@@ -1,6 +1,12 @@
 package com.carter.config;
 
 
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -25,8 +31,26 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
 
         // Value 使用 JSON 序列化 (对象自动转 JSON 存进去)
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(jsonSerializer());
 
         return template;
     }
+
+    /**
+     * JSON value serializer shared by every {@code RedisTemplate<String, Object>}, including
+     * the L2 cache. Values carry their type ({@code @class}) so records and collections
+     * read back as written; java.time types are stored as ISO strings, and properties a
+     * newer or older build doesn't know are ignored, so cached values survive deploys.
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+                ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+        return new GenericJackson2JsonRedisSerializer(mapper);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.carter.controller;
+
+import com.carter.service.CorpusExportService;
+import com.carter.service.CorpusExportService.Dataset;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Bulk export of the corpus for offline analytics.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/export")
+public class ExportController {
+
+    private final CorpusExportService exportService;
+
+    public ExportController(CorpusExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Streams a whole dataset as NDJSON, one object per row in id order, ending with
+     * a {@code {"type":"end","count":N}} line. With {@code vectors=true} each row also
+     * carries {@code dims} and {@code vector}: base64 of little-endian float32 values.
+     * Fails without a body when too many exports are already running.
+     *
+     * @param dataset profiles, skills or tags
+     * @param vectors whether to include vectors
+     */
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable String dataset,
+                       @RequestParam(defaultValue = "false") boolean vectors,
+                       HttpServletResponse response) throws IOException {
+        Dataset source = Dataset.parse(dataset);
+
+        exportService.export(source, vectors, () -> {
+            response.setContentType("application/x-ndjson");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Content-Disposition",
+                    "attachment; filename=\"" + source.name().toLowerCase() + ".ndjson\"");
+            return response.getOutputStream();
+        });
+    }
+}
@@ -1,20 +1,49 @@
 package com.carter.controller;
 
+import com.carter.common.AimdRateLimiter.RateSnapshot;
 import com.carter.common.Constants;
+import com.carter.common.QuotaManager;
+import com.carter.config.RateLimitConfig;
 import com.carter.dto.ApiResponse;
+import com.carter.dto.CursorPage;
 import com.carter.dto.EvaluationRequest;
 import com.carter.dto.SearchResultDto;
+import com.carter.dto.TagRequest;
 import com.carter.entity.TalentProfile;
+import com.carter.entity.enums.InteractionType;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.carter.service.EmbeddingBackfillService;
+import com.carter.service.EmbeddingBackfillService.BackfillStatus;
+import com.carter.service.EmbeddingMigrationService;
+import com.carter.service.EmbeddingMigrationService.MigrationStatus;
+import com.carter.service.EvaluationImportService;
+import com.carter.service.EvaluationImportService.ImportFormat;
+import com.carter.service.EvaluationImportService.ImportResult;
 import com.carter.service.EvaluationProcessorService;
+import com.carter.service.GardenerService;
+import com.carter.service.GardenerService.TagBatchResult;
+import com.carter.service.IngestionDeduplicator;
+import com.carter.service.IngestionDeduplicator.Admission;
+import com.carter.service.ProfileGenerationCoordinator;
 import com.carter.service.SearchService;
-import com.carter.service.SummarizerService;
+import com.carter.service.TaskProgressBroadcaster;
+import com.carter.service.TagInteractionRecorder;
+import com.carter.service.TagInteractionRecorder.InteractionStats;
 import com.carter.service.TaskProgressService;
 import com.carter.service.TaskProgressService.TaskProgress;
 import com.carter.service.TokenUsageTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * REST API controller for the Dendrite talent management system.
@@ -27,22 +56,50 @@ import java.util.List;
 @RequestMapping("/api/v1/gardener")
 public class GardenerController {
 
+    // Interactions the system derives itself (SEARCH_HIT, AI_VALIDATED, REJECTED) are not accepted from clients
+    private static final Set<InteractionType> USER_INTERACTIONS =
+            EnumSet.of(InteractionType.VIEWED, InteractionType.UPVOTE, InteractionType.DOWNVOTE);
+
     private final SearchService searchService;
-    private final SummarizerService summarizerService;
+    private final ProfileGenerationCoordinator profileCoordinator;
     private final TokenUsageTracker tokenTracker;
     private final EvaluationProcessorService processorService;
     private final TaskProgressService progressService;
+    private final QuotaManager quotaManager;
+    private final GardenerService gardenerService;
+    private final TagInteractionRecorder interactionRecorder;
+    private final TaskProgressBroadcaster progressBroadcaster;
+    private final EmbeddingBackfillService backfillService;
+    private final EmbeddingMigrationService migrationService;
+    private final EvaluationImportService importService;
+    private final IngestionDeduplicator deduplicator;
 
-    public GardenerController(SummarizerService summarizerService,
+    public GardenerController(ProfileGenerationCoordinator profileCoordinator,
                               SearchService searchService,
                               TokenUsageTracker tokenTracker,
                               EvaluationProcessorService processorService,
-                              TaskProgressService progressService) {
-        this.summarizerService = summarizerService;
+                              TaskProgressService progressService,
+                              QuotaManager quotaManager,
+                              GardenerService gardenerService,
+                              TagInteractionRecorder interactionRecorder,
+                              TaskProgressBroadcaster progressBroadcaster,
+                              EmbeddingBackfillService backfillService,
+                              EmbeddingMigrationService migrationService,
+                              EvaluationImportService importService,
+                              IngestionDeduplicator deduplicator) {
+        this.profileCoordinator = profileCoordinator;
         this.searchService = searchService;
         this.tokenTracker = tokenTracker;
         this.processorService = processorService;
         this.progressService = progressService;
+        this.quotaManager = quotaManager;
+        this.gardenerService = gardenerService;
+        this.interactionRecorder = interactionRecorder;
+        this.progressBroadcaster = progressBroadcaster;
+        this.backfillService = backfillService;
+        this.migrationService = migrationService;
+        this.importService = importService;
+        this.deduplicator = deduplicator;
     }
 
     // ==========================================
@@ -62,16 +119,10 @@ public class GardenerController {
             @RequestParam String employee,
             @RequestBody String content) {
 
-        // Create task and start processing immediately
-        String taskId = progressService.createTask(employee);
-        
-        // Process asynchronously
-        processorService.processEvaluation(taskId, employee, content);
-
-        return ApiResponse.success(
-                new EvaluationSubmitResult(taskId, employee, "processing"),
-                "Evaluation submitted, processing started"
-        );
+        EvaluationSubmitResult result = submit(employee, content);
+        return ApiResponse.success(result, result.dedup().process()
+                ? "Evaluation submitted, processing started"
+                : "Duplicate evaluation, returning the result of " + result.dedup().originalTaskId());
     }
 
     /**
@@ -89,6 +140,44 @@ public class GardenerController {
         return ApiResponse.success(progress);
     }
 
+    /**
+     * Gets the progress of many tasks in one call.
+     *
+     * @param taskIds task IDs
+     * @return progress of the tasks that still exist
+     */
+    @PostMapping("/tasks/status")
+    public ApiResponse<List<TaskProgress>> getTasksProgress(@RequestBody List<String> taskIds) {
+        return ApiResponse.success(progressService.getProgresses(taskIds));
+    }
+
+    /**
+     * Opens an SSE stream of progress events for any number of tasks.
+     * The first event ({@code subscribed}) carries the subscription ID;
+     * each change is sent as a {@code progress} event.
+     *
+     * @param ids task IDs to follow, comma separated
+     * @return the event stream
+     */
+    @GetMapping(value = "/tasks/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskProgress(@RequestParam(defaultValue = "") List<String> ids) {
+        return progressBroadcaster.subscribe(ids.stream().filter(id -> !id.isBlank()).toList());
+    }
+
+    /**
+     * Adds tasks to an open progress stream.
+     *
+     * @param subscriptionId the stream's subscription ID
+     * @param taskIds task IDs to follow
+     */
+    @PostMapping("/tasks/stream/{subscriptionId}")
+    public ApiResponse<Void> followTasks(@PathVariable String subscriptionId, @RequestBody List<String> taskIds) {
+        if (!progressBroadcaster.follow(subscriptionId, taskIds)) {
+            return ApiResponse.error("Subscription not found: " + subscriptionId);
+        }
+        return ApiResponse.success(null, String.format("Following %d more tasks", taskIds.size()));
+    }
+
     /**
      * Submits multiple evaluations and processes them.
      *
@@ -100,20 +189,116 @@ public class GardenerController {
             @RequestBody List<EvaluationRequest> evaluations) {
 
         List<String> taskIds = new ArrayList<>();
+        int duplicates = 0;
         
         for (EvaluationRequest eval : evaluations) {
             eval.validate();
-            String taskId = progressService.createTask(eval.employee());
-            processorService.processEvaluation(taskId, eval.employee(), eval.content());
-            taskIds.add(taskId);
+            EvaluationSubmitResult result = submit(eval.employee(), eval.content());
+            taskIds.add(result.taskId());
+            if (!result.dedup().process()) {
+                duplicates++;
+            }
         }
 
         return ApiResponse.success(
-                new BatchSubmitResult(taskIds.size(), taskIds),
-                String.format("Submitted %d evaluations for processing", taskIds.size())
+                new BatchSubmitResult(taskIds.size(), taskIds, duplicates),
+                String.format("Submitted %d evaluations for processing, %d duplicates skipped",
+                        taskIds.size() - duplicates, duplicates)
         );
     }
 
+    /**
+     * Creates a task for an evaluation and starts processing it, unless it repeats an
+     * earlier submission; then the task completes at once, pointing at the original.
+     */
+    private EvaluationSubmitResult submit(String employee, String content) {
+        String taskId = progressService.createTask(employee);
+        Admission admission = deduplicator.admit(employee, content, taskId);
+
+        if (!admission.process()) {
+            progressService.completeTask(taskId,
+                    "重复评价，已跳过（同 " + admission.originalTaskId() + "）",
+                    "Duplicate of " + admission.originalTaskId() + ", skipped");
+            return new EvaluationSubmitResult(taskId, employee, "duplicate", admission);
+        }
+
+        processorService.processEvaluation(taskId, employee, content);
+        return new EvaluationSubmitResult(taskId, employee, "processing", admission);
+    }
+
+    /**
+     * Streams a bulk import of historical evaluations.
+     * The body is NDJSON ({@code {"employee": ..., "content": ...}} per line) or, with a
+     * {@code text/csv} content type, CSV with {@code employee} and {@code content} columns.
+     * The whole import is tracked as one task, also returned in the {@code X-Task-Id} header.
+     *
+     * @return the import task ID and how many records were accepted or rejected
+     */
+    @PostMapping(value = "/evaluate/import", consumes = {"application/x-ndjson", "text/csv", "text/plain"})
+    public ApiResponse<ImportResult> importEvaluations(HttpServletRequest request,
+                                                       HttpServletResponse response) throws IOException {
+        ImportResult result = importService.importEvaluations(request.getInputStream(),
+                ImportFormat.fromContentType(request.getContentType()));
+        if (result.taskId() == null) {
+            return ApiResponse.error(String.format("No valid records (%d rejected)%s", result.rejected(),
+                    result.errors().isEmpty() ? "" : ": " + result.errors().get(0)));
+        }
+        response.setHeader("X-Task-Id", result.taskId());
+        return ApiResponse.success(result, String.format("Importing %d evaluations, %d rejected",
+                result.accepted(), result.rejected()));
+    }
+
+    // ==========================================
+    // Tag Endpoints
+    // ==========================================
+
+    /**
+     * Submits a batch of evaluation tags, e.g. from a review cycle.
+     *
+     * @param tags the tags
+     * @return number saved and count per category
+     */
+    @PostMapping("/tags/batch")
+    public ApiResponse<TagBatchResult> submitTags(@RequestBody List<TagRequest> tags) {
+        TagBatchResult result = gardenerService.processUserTags(tags);
+        return ApiResponse.success(result, String.format("Saved %d tags", result.saved()));
+    }
+
+    /**
+     * Records a view, upvote or downvote of a tag. Each client address counts once
+     * per tag within the dedup window; the reported user is only stored with it.
+     * Written in the background; the tag's weight is adjusted on flush.
+     *
+     * @param tagId the tag ID
+     * @param type VIEWED, UPVOTE or DOWNVOTE
+     * @param user the user who interacted, if known
+     */
+    @PostMapping("/tags/{tagId}/interactions")
+    public ApiResponse<Void> recordTagInteraction(@PathVariable long tagId,
+                                                  @RequestParam InteractionType type,
+                                                  @RequestParam(required = false) String user,
+                                                  HttpServletRequest request) {
+        if (!USER_INTERACTIONS.contains(type)) {
+            throw new DendriteException(ErrorCode.INVALID_PARAMETER, "type must be VIEWED, UPVOTE or DOWNVOTE");
+        }
+        String reportedUser = user != null && !user.isBlank() ? user.trim() : null;
+
+        return switch (interactionRecorder.recordFromUser(tagId, type, reportedUser,
+                RateLimitConfig.clientIp(request))) {
+            case RECORDED -> ApiResponse.success(null, "Interaction recorded");
+            case DUPLICATE -> ApiResponse.success(null, "Interaction already recorded");
+            case DROPPED -> ApiResponse.error("Interaction buffer full, try again later");
+        };
+    }
+
+    /**
+     * Returns tag interaction buffer statistics.
+     */
+    @GetMapping("/tags/interactions/stats")
+    public ApiResponse<InteractionStats> getInteractionStats() {
+        return ApiResponse.success(interactionRecorder.stats());
+    }
+
     // ==========================================
     // Profile Endpoints
     // ==========================================
@@ -126,10 +311,58 @@ public class GardenerController {
      */
     @PostMapping("/summarize")
     public ApiResponse<TalentProfile> summarizeEmployee(@RequestParam String employee) {
-        TalentProfile profile = summarizerService.generateProfile(employee);
+        TalentProfile profile = profileCoordinator.generateProfile(employee);
         return ApiResponse.success(profile, "Profile generated successfully");
     }
 
+    /**
+     * Returns how many rows still lack an embedding, per table.
+     */
+    @GetMapping("/embeddings/backfill")
+    public ApiResponse<BackfillStatus> getBackfillStatus() {
+        return ApiResponse.success(backfillService.status());
+    }
+
+    /**
+     * Starts an embedding backfill run in the background.
+     */
+    @PostMapping("/embeddings/backfill")
+    public ApiResponse<Void> startBackfill() {
+        backfillService.runAsync();
+        return ApiResponse.success(null, "Embedding backfill started");
+    }
+
+    /**
+     * Returns the active embedding model and the progress of the current or last migration.
+     */
+    @GetMapping("/embeddings/migration")
+    public ApiResponse<MigrationStatus> getMigrationStatus() {
+        return ApiResponse.success(migrationService.status());
+    }
+
+    /**
+     * Starts re-embedding all vectors with another model. Search keeps using the
+     * current model until the migration cuts over.
+     *
+     * @param targetModel the embedding model to switch to
+     * @return the migration status
+     */
+    @PostMapping("/embeddings/migration")
+    public ApiResponse<MigrationStatus> startMigration(@RequestParam String targetModel) {
+        return ApiResponse.success(migrationService.start(targetModel), "Embedding migration started");
+    }
+
+    /**
+     * Cancels a running embedding migration.
+     */
+    @DeleteMapping("/embeddings/migration")
+    public ApiResponse<Void> cancelMigration() {
+        if (!migrationService.cancel()) {
+            return ApiResponse.error("No embedding migration is running");
+        }
+        return ApiResponse.success(null, "Embedding migration cancelled");
+    }
+
     // ==========================================
     // Search Endpoints
     // ==========================================
@@ -147,6 +380,40 @@ public class GardenerController {
         return ApiResponse.success(results);
     }
 
+    /**
+     * Pages through semantic search results, nearest first. Pass the returned
+     * {@code nextCursor} as {@code cursor}, with the same query, for the next page.
+     *
+     * @param query search query
+     * @param cursor continuation token, omitted for the first page
+     * @param size page size (max 100)
+     */
+    @GetMapping("/search/page")
+    public ApiResponse<CursorPage<SearchResultDto>> searchPage(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ApiResponse.success(searchService.searchPage(query, cursor, size));
+    }
+
+    /**
+     * Records that a search result was selected. Taggers whose tags matched the
+     * query are rewarded in the background. Repeats of the same selection from the
+     * same client address within the dedup window are ignored.
+     *
+     * @param query the original search query
+     * @param employee the selected employee
+     */
+    @PostMapping("/search/hit")
+    public ApiResponse<Void> trackSearchHit(@RequestParam String query,
+                                            @RequestParam String employee,
+                                            HttpServletRequest request) {
+        if (!searchService.trackSearchHit(query, employee, RateLimitConfig.clientIp(request))) {
+            return ApiResponse.success(null, "Search hit already recorded");
+        }
+        return ApiResponse.success(null, "Search hit recorded");
+    }
+
     /**
      * Performs concurrent batch search.
      *
@@ -205,6 +472,14 @@ public class GardenerController {
         return ApiResponse.success(null, "Token statistics reset");
     }
 
+    /**
+     * Returns the adaptive AI call rate for each model.
+     */
+    @GetMapping("/quota")
+    public ApiResponse<List<RateSnapshot>> getQuotaRates() {
+        return ApiResponse.success(quotaManager.getRates());
+    }
+
     /**
      * Toggles economy mode.
      *
@@ -226,7 +501,7 @@ public class GardenerController {
     // Response DTOs
     // ==========================================
 
-    public record EvaluationSubmitResult(String taskId, String employee, String status) {}
-    public record BatchSubmitResult(int submitted, List<String> taskIds) {}
+    public record EvaluationSubmitResult(String taskId, String employee, String status, Admission dedup) {}
+    public record BatchSubmitResult(int submitted, List<String> taskIds, int duplicates) {}
     public record CostModeResult(boolean economyMode, boolean queryExpansion) {}
 }
@@ -1,14 +1,20 @@
 package com.carter.controller;
 
+import com.carter.cache.SemanticResultCache;
+import com.carter.cache.TieredCache;
+import com.carter.cache.TieredCacheManager;
 import com.carter.dto.ApiResponse;
 import com.carter.repo.TalentProfileRepository;
 import com.carter.repo.SkillRecordRepository;
+import com.carter.service.TaskProgressBroadcaster;
+import com.carter.service.TaskProgressBroadcaster.BroadcastStats;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Health check and system statistics endpoints.
@@ -23,13 +29,22 @@ public class HealthController {
     private final TalentProfileRepository profileRepo;
     private final SkillRecordRepository skillRepo;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final TieredCacheManager cacheManager;
+    private final SemanticResultCache semanticCache;
+    private final TaskProgressBroadcaster progressBroadcaster;
 
     public HealthController(TalentProfileRepository profileRepo,
                             SkillRecordRepository skillRepo,
-                            RedisTemplate<String, Object> redisTemplate) {
+                            RedisTemplate<String, Object> redisTemplate,
+                            TieredCacheManager cacheManager,
+                            SemanticResultCache semanticCache,
+                            TaskProgressBroadcaster progressBroadcaster) {
         this.profileRepo = profileRepo;
         this.skillRepo = skillRepo;
         this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.semanticCache = semanticCache;
+        this.progressBroadcaster = progressBroadcaster;
     }
 
     /**
@@ -73,6 +88,22 @@ public class HealthController {
         ));
     }
 
+    /**
+     * Per-cache hit rates and sizes for both tiers, plus the semantic cache.
+     */
+    @GetMapping("/stats/cache")
+    public ApiResponse<CacheStatsResponse> cacheStats() {
+        return ApiResponse.success(new CacheStatsResponse(cacheManager.getStats(), semanticCache.stats()));
+    }
+
+    /**
+     * Open task progress streams and the tasks they follow.
+     */
+    @GetMapping("/stats/progress")
+    public ApiResponse<BroadcastStats> progressStats() {
+        return ApiResponse.success(progressBroadcaster.stats());
+    }
+
     private boolean checkDatabase() {
         try {
             profileRepo.count();
@@ -106,5 +137,9 @@ public class HealthController {
             long maxMemoryMB,
             int availableProcessors
     ) {}
-}
 
+    public record CacheStatsResponse(
+            List<TieredCache.CacheStats> caches,
+            SemanticResultCache.SemanticCacheStats semantic
+    ) {}
+}
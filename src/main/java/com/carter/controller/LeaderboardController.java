@@ -0,0 +1,88 @@
+package com.carter.controller;
+
+import com.carter.dto.ApiResponse;
+import com.carter.service.LeaderboardService;
+import com.carter.service.LeaderboardService.ContributorStats;
+import com.carter.service.LeaderboardService.HistoryPage;
+import com.carter.service.LeaderboardService.Period;
+import com.carter.service.LeaderboardService.RankEntry;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST API for contributor leaderboards and reward history.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/leaderboard")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    /**
+     * Top contributors for a period, highest first.
+     *
+     * @param period total, weekly or monthly
+     * @param offset zero-based rank offset
+     * @param limit page size (max 100)
+     */
+    @GetMapping("/{period}")
+    public ApiResponse<List<RankEntry>> top(
+            @PathVariable String period,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(leaderboardService.top(Period.parse(period), offset, limit));
+    }
+
+    /**
+     * An employee's rank and points for a period.
+     */
+    @GetMapping("/{period}/rank/{employee}")
+    public ApiResponse<RankEntry> rank(@PathVariable String period, @PathVariable String employee) {
+        RankEntry entry = leaderboardService.rank(Period.parse(period), employee);
+        if (entry == null) {
+            return ApiResponse.error("Not ranked: " + employee);
+        }
+        return ApiResponse.success(entry);
+    }
+
+    /**
+     * An employee and their neighbours on the leaderboard.
+     *
+     * @param radius entries to include above and below
+     */
+    @GetMapping("/{period}/around/{employee}")
+    public ApiResponse<List<RankEntry>> around(
+            @PathVariable String period,
+            @PathVariable String employee,
+            @RequestParam(defaultValue = "5") int radius) {
+        return ApiResponse.success(leaderboardService.around(Period.parse(period), employee, radius));
+    }
+
+    /**
+     * Contributor points, level and ranks.
+     */
+    @GetMapping("/contributors/{employee}")
+    public ApiResponse<ContributorStats> contributorStats(@PathVariable String employee) {
+        return ApiResponse.success(leaderboardService.contributorStats(employee));
+    }
+
+    /**
+     * Reward history, newest first. Pass the returned {@code nextCursor} as
+     * {@code before} to fetch the next page.
+     */
+    @GetMapping("/contributors/{employee}/history")
+    public ApiResponse<HistoryPage> history(
+            @PathVariable String employee,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int size) {
+        return ApiResponse.success(leaderboardService.history(employee, before, size));
+    }
+}
@@ -1,11 +1,10 @@
 package com.carter.controller;
 
 import com.carter.dto.ApiResponse;
-import com.carter.entity.TalentProfile;
+import com.carter.dto.CursorPage;
+import com.carter.dto.ProfileView;
 import com.carter.repo.TalentProfileRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import com.carter.service.ProfileService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -22,27 +21,28 @@ import java.util.Optional;
 public class ProfileController {
 
     private final TalentProfileRepository profileRepo;
+    private final ProfileService profileService;
 
-    public ProfileController(TalentProfileRepository profileRepo) {
+    public ProfileController(TalentProfileRepository profileRepo, ProfileService profileService) {
         this.profileRepo = profileRepo;
+        this.profileService = profileService;
     }
 
     /**
-     * Lists all talent profiles with pagination.
+     * Lists talent profiles, most recently updated first. Pass the returned
+     * {@code nextCursor} as {@code cursor} to fetch the next page.
      *
-     * @param page page number (0-indexed)
-     * @param size page size
-     * @return paginated list of profiles
+     * @param cursor continuation token, omitted for the first page
+     * @param size page size (max 100)
+     * @param total whether to include an approximate total
+     * @return one page of profiles
      */
     @GetMapping
-    public ApiResponse<Page<TalentProfile>> listProfiles(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("lastUpdated").descending());
-        Page<TalentProfile> profiles = profileRepo.findAll(pageRequest);
-
-        return ApiResponse.success(profiles);
+    public ApiResponse<CursorPage<ProfileView>> listProfiles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean total) {
+        return ApiResponse.success(profileService.listProfiles(cursor, size, total));
     }
 
     /**
@@ -52,8 +52,8 @@ public class ProfileController {
      * @return profile if found
      */
     @GetMapping("/{name}")
-    public ApiResponse<TalentProfile> getProfile(@PathVariable String name) {
-        Optional<TalentProfile> profile = profileRepo.findByEmployeeName(name);
+    public ApiResponse<ProfileView> getProfile(@PathVariable String name) {
+        Optional<ProfileView> profile = profileService.findProfile(name);
 
         if (profile.isEmpty()) {
             return ApiResponse.error("Profile not found: " + name);
@@ -0,0 +1,20 @@
+package com.carter.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param <T> the item type
+ * @param items the page
+ * @param nextCursor token for the next page, or null on the last page
+ * @param approximateTotal estimated total, only if requested
+ * @author Carter
+ * @since 1.0.0
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        Long approximateTotal
+) implements Serializable {}
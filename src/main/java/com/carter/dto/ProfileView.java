@@ -0,0 +1,37 @@
+package com.carter.dto;
+
+import com.carter.entity.TalentProfile;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Detached, cacheable view of a talent profile.
+ * Same JSON shape as {@link TalentProfile}, without the vector.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public record ProfileView(
+        Long id,
+        String employeeName,
+        String summaryZh,
+        String summaryEn,
+        List<String> skillsZh,
+        List<String> skillsEn,
+        LocalDateTime lastUpdated
+) implements Serializable {
+
+    public static ProfileView from(TalentProfile profile) {
+        return new ProfileView(
+                profile.getId(),
+                profile.getEmployeeName(),
+                profile.getSummaryZh(),
+                profile.getSummaryEn(),
+                profile.getSkillsZh() != null ? List.copyOf(profile.getSkillsZh()) : List.of(),
+                profile.getSkillsEn() != null ? List.copyOf(profile.getSkillsEn()) : List.of(),
+                profile.getLastUpdated()
+        );
+    }
+}
@@ -1,5 +1,8 @@
 package com.carter.dto;
 
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
 /**
  * DTO for search result entries.
  * Replaces the untyped Map&lt;String, Object&gt;.
@@ -10,6 +13,7 @@ package com.carter.dto;
 public record SearchResultDto(
         String employeeName,
         String professionalSummary,
-        double similarity
-) {}
+        double similarity,
+        LocalDateTime lastUpdated
+) implements Serializable {}
 
@@ -0,0 +1,37 @@
+package com.carter.dto;
+
+import com.carter.common.Constants;
+
+/**
+ * Request DTO for submitting an evaluation tag.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public record TagRequest(
+        String fromUser,
+        String targetUser,
+        String rawTag,
+        String context
+) {
+    /**
+     * Validates the request fields.
+     *
+     * @throws IllegalArgumentException if validation fails
+     */
+    public void validate() {
+        if (fromUser == null || fromUser.isBlank()) {
+            throw new IllegalArgumentException("Contributor name is required");
+        }
+        if (targetUser == null || targetUser.isBlank()) {
+            throw new IllegalArgumentException("Target employee name is required");
+        }
+        if (rawTag == null || rawTag.isBlank()) {
+            throw new IllegalArgumentException("Tag is required");
+        }
+        if (context != null && context.length() > Constants.MAX_TAG_CONTEXT_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Context must be at most " + Constants.MAX_TAG_CONTEXT_LENGTH + " characters");
+        }
+    }
+}
@@ -47,6 +47,10 @@ public class EvaluationTag {
     @org.hibernate.annotations.ColumnTransformer(write = "?::vector", read = "vector::text")
     private List<Double> vector;
 
+    // 生成 vector 的模型 (不同模型的向量不可比较)
+    @Column(name = "embedding_model")
+    private String embeddingModel;
+
     // === 进化参数 ===
     // 初始权重 = 评价者等级系数 * AI置信度
     // 随着点赞/搜索命中，这个权重会动态增加！
@@ -0,0 +1,27 @@
+package com.carter.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a reward journal segment whose entries have been applied to the database.
+ * Written in the same transaction as the rewards, so a segment left on disk after
+ * a crash is never applied twice on replay.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Entity
+@Data
+@Table(name = "dendrite_reward_ledger_segments")
+public class RewardLedgerSegment {
+
+    @Id
+    private String segmentName;
+
+    private LocalDateTime appliedAt;
+}
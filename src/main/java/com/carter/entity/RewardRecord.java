@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Data
-@Table(name = "dendrite_reward_records")
+@Table(name = "dendrite_reward_records",
+        indexes = @Index(name = "idx_reward_records_employee_id", columnList = "employee_name, id"))
 public class RewardRecord {
 
     @Id
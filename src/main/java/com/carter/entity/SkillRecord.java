@@ -39,6 +39,10 @@ public class SkillRecord {
     @org.hibernate.annotations.ColumnTransformer(write = "?::vector", read = "embedding::text")
     private List<Double> embedding;
 
+    // 生成 embedding 的模型 (不同模型的向量不可比较)
+    @Column(name = "embedding_model")
+    private String embeddingModel;
+
     // 创建时间
     private LocalDateTime createdAt = LocalDateTime.now();
 }
@@ -0,0 +1,31 @@
+package com.carter.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cluster-wide setting that must survive a Redis flush, such as the active
+ * embedding model. Redis holds the copy instances poll; this row is the source
+ * it is restored from.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Entity
+@Data
+@Table(name = "dendrite_settings")
+public class SystemSetting {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String value;
+
+    private LocalDateTime updatedAt;
+}
@@ -18,7 +18,8 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
-@Table(name = "dendrite_profiles")
+@Table(name = "dendrite_profiles",
+        indexes = @Index(name = "idx_profiles_last_updated_id", columnList = "last_updated, id"))
 public class TalentProfile {
 
     @Id
@@ -56,12 +57,20 @@ public class TalentProfile {
 
     private LocalDateTime lastUpdated = LocalDateTime.now();
 
+    // 建表时的维度; 切换 embedding 模型时由迁移按新模型的维度重建该列
     @Convert(converter = com.carter.converter.VectorToStringConverter.class)
     @Column(columnDefinition = "vector(768)")
     @org.hibernate.annotations.ColumnTransformer(write = "?::vector", read = "embedding::text")
     @JsonIgnore
     private List<Double> embedding;
 
+    /**
+     * Model that produced {@link #embedding}.
+     */
+    @Column(name = "embedding_model")
+    @JsonIgnore
+    private String embeddingModel;
+
     // ==========================================
     // Legacy compatibility (for existing code)
     // ==========================================
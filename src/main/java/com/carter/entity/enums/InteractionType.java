@@ -8,16 +8,27 @@ package com.carter.entity.enums;
  */
 public enum InteractionType {
     // 强信号 (高奖励)
-    SEARCH_HIT,     // 关键：该标签帮助用户在搜索中找到了人 (召回贡献)
+    SEARCH_HIT(0.5),     // 关键：该标签帮助用户在搜索中找到了人 (召回贡献)
 
     // 中信号 (中奖励)
-    UPVOTE,         // 被其他人点赞/附议
-    AI_VALIDATED,   // 通过了 AI 的逻辑一致性检查
+    UPVOTE(0.2),         // 被其他人点赞/附议
+    AI_VALIDATED(0.1),   // 通过了 AI 的逻辑一致性检查
 
     // 弱信号 (低奖励)
-    VIEWED,         // 被查看
+    VIEWED(0.01),        // 被查看
 
     // 负信号 (惩罚)
-    DOWNVOTE,       // 被踩/举报
-    REJECTED        // 被 AI 判定为垃圾信息
+    DOWNVOTE(-0.3),      // 被踩/举报
+    REJECTED(-1.0);      // 被 AI 判定为垃圾信息
+
+    // 每次交互对标签权重的增量
+    private final double weightDelta;
+
+    InteractionType(double weightDelta) {
+        this.weightDelta = weightDelta;
+    }
+
+    public double getWeightDelta() {
+        return weightDelta;
+    }
 }
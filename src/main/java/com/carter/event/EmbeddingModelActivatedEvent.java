@@ -0,0 +1,12 @@
+package com.carter.event;
+
+/**
+ * Published after an embedding migration has cut over to a new model.
+ * Everything ranked by vectors of the previous model is stale from this point.
+ *
+ * @param previousModel the model vectors were produced with until now
+ * @param model the model now active
+ * @author Carter
+ * @since 1.0.0
+ */
+public record EmbeddingModelActivatedEvent(String previousModel, String model) {}
@@ -0,0 +1,11 @@
+package com.carter.event;
+
+/**
+ * Published whenever a talent profile's summary, tags or vector is rewritten.
+ * Listeners use it to drop anything derived from the old profile.
+ *
+ * @param employeeName the employee whose profile changed
+ * @author Carter
+ * @since 1.0.0
+ */
+public record ProfileUpdatedEvent(String employeeName) {}
@@ -0,0 +1,11 @@
+package com.carter.event;
+
+/**
+ * Published after a batch of profile vectors was re-embedded without changing the
+ * profiles' text. Search rankings are stale; the profiles themselves are not.
+ *
+ * @param profiles the number of profiles whose vector was rewritten
+ * @author Carter
+ * @since 1.0.0
+ */
+public record ProfileVectorsRefreshedEvent(int profiles) {}
@@ -0,0 +1,12 @@
+package com.carter.event;
+
+import java.util.Map;
+
+/**
+ * Published after the reward ledger commits a flush.
+ *
+ * @param earnedByEmployee points earned (positive rewards only) per employee in this flush
+ * @author Carter
+ * @since 1.0.0
+ */
+public record RewardsAppliedEvent(Map<String, Long> earnedByEmployee) {}
@@ -0,0 +1,12 @@
+package com.carter.event;
+
+/**
+ * Published when a user selects a search result.
+ * Consumed asynchronously to reward the taggers whose tags led to the hit.
+ *
+ * @param query the original search query
+ * @param selectedEmployeeName the employee that was selected
+ * @author Carter
+ * @since 1.0.0
+ */
+public record SearchHitEvent(String query, String selectedEmployeeName) {}
@@ -0,0 +1,13 @@
+package com.carter.event;
+
+import com.carter.service.TaskProgressService.TaskProgress;
+
+/**
+ * Published whenever a task's progress changes.
+ * Consumed by the SSE broadcaster to push the new state to subscribers.
+ *
+ * @param progress the task's new progress
+ * @author Carter
+ * @since 1.0.0
+ */
+public record TaskProgressEvent(TaskProgress progress) {}
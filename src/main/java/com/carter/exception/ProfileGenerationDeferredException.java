@@ -0,0 +1,23 @@
+package com.carter.exception;
+
+/**
+ * Profile generation for an employee was not run here because another instance holds
+ * its lease; the employee is queued and regenerated once that run has finished.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+public class ProfileGenerationDeferredException extends DendriteException {
+
+    private final String employeeName;
+
+    public ProfileGenerationDeferredException(String employeeName) {
+        super(ErrorCode.PROCESSING_ERROR,
+                "Profile generation for " + employeeName + " is running on another instance; queued to rerun");
+        this.employeeName = employeeName;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+}
@@ -3,7 +3,7 @@ package com.carter.pipeline;
 import com.carter.entity.SkillRecord;
 import com.carter.entity.TalentProfile;
 import com.carter.service.GardenerService;
-import com.carter.service.SummarizerService;
+import com.carter.service.ProfileGenerationCoordinator;
 import com.carter.task.BatchEvaluationTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,11 +27,11 @@ public class EvaluationPipeline {
     private static final Logger log = LoggerFactory.getLogger(EvaluationPipeline.class);
 
     private final GardenerService gardenerService;
-    private final SummarizerService summarizerService;
+    private final ProfileGenerationCoordinator profileCoordinator;
 
-    public EvaluationPipeline(GardenerService gardenerService, SummarizerService summarizerService) {
+    public EvaluationPipeline(GardenerService gardenerService, ProfileGenerationCoordinator profileCoordinator) {
         this.gardenerService = gardenerService;
-        this.summarizerService = summarizerService;
+        this.profileCoordinator = profileCoordinator;
     }
 
     /**
@@ -104,7 +104,7 @@ public class EvaluationPipeline {
     private TalentProfile safeGenerateProfile(String employee) {
         try {
             log.info("[Node 2] Generating profile for: {}", employee);
-            TalentProfile profile = summarizerService.generateProfile(employee);
+            TalentProfile profile = profileCoordinator.generateProfile(employee);
             log.info("[Node 2] Profile generated for {}: id={}, skills={}", 
                     employee, profile.getId(), profile.getTopSkills());
             return profile;
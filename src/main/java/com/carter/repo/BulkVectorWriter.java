@@ -0,0 +1,297 @@
+package com.carter.repo;
+
+import com.carter.entity.SkillRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Bulk writer for rows carrying pgvector columns.
+ *
+ * <p>Rows are streamed through {@code COPY ... FROM STDIN (FORMAT BINARY)}, with
+ * vectors in pgvector's binary form instead of text literals, so tens of thousands
+ * of rows go over in one statement. IDs are reserved from the table's identity
+ * sequence first and set on the entities, so callers get the same result as
+ * {@code saveAll} while each row is written exactly once.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Repository
+public class BulkVectorWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkVectorWriter.class);
+
+    private static final String COPY_SKILLS_SQL = """
+            COPY dendrite_skills (id, employee_name, skill_name, proficiency, evidence, embedding, embedding_model, created_at)
+            FROM STDIN (FORMAT BINARY)
+            """;
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE IF NOT EXISTS vector_staging (id bigint, v vector, ver bigint) ON COMMIT DELETE ROWS";
+
+    private static final String COPY_STAGING_SQL = "COPY vector_staging (id, v, ver) FROM STDIN (FORMAT BINARY)";
+
+    // Rows filled in meanwhile by another writer with this model are left alone
+    private static final String APPLY_STAGING_SQL = """
+            UPDATE %1$s t SET %2$s = s.v, embedding_model = ?
+            FROM vector_staging s
+            WHERE t.id = s.id AND (t.%2$s IS NULL OR t.embedding_model IS DISTINCT FROM ?)
+            """;
+
+    // Rows changed since they were read (their xmin moved) are left for the next pass
+    private static final String APPLY_SHADOW_SQL = """
+            UPDATE %s t SET embedding_next = s.v, embedding_next_model = ?
+            FROM vector_staging s
+            WHERE t.id = s.id AND t.xmin::text::bigint = s.ver
+            """;
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final LocalDateTime PG_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkVectorWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Inserts skill records, with their embeddings if set, and assigns their IDs.
+     *
+     * @param skills new skill records (IDs must be null)
+     * @return the same records, with IDs set
+     */
+    public List<SkillRecord> writeSkills(List<SkillRecord> skills) {
+        if (skills.isEmpty()) {
+            return skills;
+        }
+        long start = System.currentTimeMillis();
+
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, "dendrite_skills", skills.size());
+        for (int i = 0; i < skills.size(); i++) {
+            skills.get(i).setId(ids.get(i));
+        }
+
+        long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SKILLS_SQL);
+            try {
+                ChunkedCopyStream out = new ChunkedCopyStream(copy);
+                out.writeHeader();
+                for (SkillRecord skill : skills) {
+                    out.writeShort(8);
+                    out.writeInt8(skill.getId());
+                    out.writeText(skill.getEmployeeName());
+                    out.writeText(skill.getSkillName());
+                    out.writeText(skill.getProficiency());
+                    out.writeText(skill.getEvidence());
+                    out.writeVector(skill.getEmbedding());
+                    out.writeText(skill.getEmbedding() != null ? skill.getEmbeddingModel() : null);
+                    out.writeTimestamp(skill.getCreatedAt());
+                }
+                out.writeShort(-1);
+                out.flushChunk();
+                return copy.endCopy();
+            } catch (IOException e) {
+                throw new SQLException("Failed to encode COPY data", e);
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+
+        log.info("COPY wrote {} skill rows in {}ms", rows, System.currentTimeMillis() - start);
+        return skills;
+    }
+
+    /**
+     * Sets the vector column of existing rows that have none, or only one from another
+     * model, in one round trip: the vectors are COPYed into a session temp table and
+     * applied with one UPDATE.
+     *
+     * @param table table name (a trusted constant)
+     * @param vectorColumn vector column name (a trusted constant)
+     * @param ids row IDs
+     * @param vectors vectors, aligned with {@code ids}
+     * @param model the model that produced the vectors
+     * @return number of rows updated
+     */
+    public int updateVectors(String table, String vectorColumn, List<Long> ids, List<float[]> vectors, String model) {
+        return applyStaged(ids, vectors, null, APPLY_STAGING_SQL.formatted(table, vectorColumn), model, model);
+    }
+
+    /**
+     * Writes re-embedded vectors into the {@code embedding_next} shadow column used by
+     * the embedding migration. A row is only written if its {@code xmin} still equals
+     * the version read along with its text, so a row rewritten in the meantime is
+     * skipped instead of getting a vector of stale text.
+     *
+     * @param table table name (a trusted constant)
+     * @param ids row IDs
+     * @param versions row {@code xmin} values, aligned with {@code ids}
+     * @param vectors vectors, aligned with {@code ids}
+     * @param model the model that produced the vectors
+     * @return number of rows written
+     */
+    public int writeShadowVectors(String table, List<Long> ids, List<Long> versions, List<float[]> vectors, String model) {
+        return applyStaged(ids, vectors, versions, APPLY_SHADOW_SQL.formatted(table), model);
+    }
+
+    private int applyStaged(List<Long> ids, List<float[]> vectors, List<Long> versions, String applySql, Object... params) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Integer updated = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<Integer>) connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(CREATE_STAGING_SQL);
+                    }
+
+                    CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING_SQL);
+                    try {
+                        ChunkedCopyStream out = new ChunkedCopyStream(copy);
+                        out.writeHeader();
+                        for (int i = 0; i < ids.size(); i++) {
+                            out.writeShort(3);
+                            out.writeInt8(ids.get(i));
+                            out.writeVector(vectors.get(i));
+                            out.writeInt8(versions != null ? versions.get(i) : null);
+                        }
+                        out.writeShort(-1);
+                        out.flushChunk();
+                        copy.endCopy();
+                    } catch (IOException e) {
+                        throw new SQLException("Failed to encode COPY data", e);
+                    } finally {
+                        if (copy.isActive()) {
+                            copy.cancelCopy();
+                        }
+                    }
+
+                    try (PreparedStatement statement = connection.prepareStatement(applySql)) {
+                        for (int i = 0; i < params.length; i++) {
+                            statement.setObject(i + 1, params[i]);
+                        }
+                        return statement.executeUpdate();
+                    }
+                }));
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Encodes COPY BINARY fields into a buffer that is handed to the server in chunks.
+     */
+    static final class ChunkedCopyStream {
+
+        private final CopyIn copy;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_BYTES * 2);
+        private final DataOutputStream out = new DataOutputStream(buffer);
+
+        ChunkedCopyStream(CopyIn copy) {
+            this.copy = copy;
+        }
+
+        void writeHeader() throws IOException {
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0); // Flags
+            out.writeInt(0); // Header extension length
+        }
+
+        void writeShort(int value) throws IOException, SQLException {
+            out.writeShort(value);
+            maybeFlush();
+        }
+
+        void writeInt8(Long value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(8);
+            out.writeLong(value);
+        }
+
+        void writeText(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        void writeVector(float[] vector) throws IOException {
+            if (vector == null || vector.length == 0) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(4 + 4 * vector.length);
+            out.writeShort(vector.length);
+            out.writeShort(0);
+            for (float v : vector) {
+                out.writeFloat(v);
+            }
+        }
+
+        // pgvector binary format: int16 dimensions, int16 unused, then float4 values
+        void writeVector(List<Double> vector) throws IOException {
+            if (vector == null || vector.isEmpty()) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(4 + 4 * vector.size());
+            out.writeShort(vector.size());
+            out.writeShort(0);
+            for (Double v : vector) {
+                out.writeFloat(v.floatValue());
+            }
+        }
+
+        // timestamp: int64 microseconds since 2000-01-01
+        void writeTimestamp(LocalDateTime value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(8);
+            out.writeLong(ChronoUnit.MICROS.between(PG_EPOCH, value));
+        }
+
+        void maybeFlush() throws IOException, SQLException {
+            if (buffer.size() >= CHUNK_BYTES) {
+                flushChunk();
+            }
+        }
+
+        void flushChunk() throws IOException, SQLException {
+            out.flush();
+            if (buffer.size() > 0) {
+                copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                buffer.reset();
+            }
+        }
+    }
+}
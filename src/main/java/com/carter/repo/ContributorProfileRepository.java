@@ -4,6 +4,8 @@ package com.carter.repo;
 import com.carter.entity.ContributorProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,4 +16,7 @@ import java.util.Optional;
 public interface ContributorProfileRepository extends JpaRepository<ContributorProfile, Long> {
     // 根据员工名字查找伯乐档案
     Optional<ContributorProfile> findByEmployeeName(String employeeName);
+
+    // 批量查找伯乐档案
+    List<ContributorProfile> findByEmployeeNameIn(Collection<String> employeeNames);
 }
@@ -2,6 +2,7 @@ package com.carter.repo;
 
 
 import com.carter.entity.RewardRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -14,4 +15,9 @@ import java.util.List;
 public interface RewardRecordRepository extends JpaRepository<RewardRecord, Long> {
     // 查某个人的积分流水
     List<RewardRecord> findByEmployeeNameOrderByTimestampDesc(String employeeName);
+
+    // 积分流水分页 (keyset：按 id 倒序，从游标之前继续)
+    List<RewardRecord> findByEmployeeNameOrderByIdDesc(String employeeName, Pageable pageable);
+
+    List<RewardRecord> findByEmployeeNameAndIdLessThanOrderByIdDesc(String employeeName, Long id, Pageable pageable);
 }
@@ -2,9 +2,33 @@ package com.carter.repo;
 
 
 import com.carter.entity.TalentProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface TalentProfileRepository extends JpaRepository<TalentProfile, Long> {
     Optional<TalentProfile> findByEmployeeName(String employeeName);
-}
\ No newline at end of file
+
+    // 档案分页 (keyset：按 lastUpdated, id 倒序，走 idx_profiles_last_updated_id)
+    @Query("SELECT p FROM TalentProfile p ORDER BY p.lastUpdated DESC, p.id DESC")
+    List<TalentProfile> findNewest(Pageable pageable);
+
+    @Query("""
+            SELECT p FROM TalentProfile p
+            WHERE (p.lastUpdated, p.id) < (:lastUpdated, :id)
+            ORDER BY p.lastUpdated DESC, p.id DESC
+            """)
+    List<TalentProfile> findNewestBefore(@Param("lastUpdated") LocalDateTime lastUpdated,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    // 估算总数 (统计信息，未 ANALYZE 时为 -1)
+    @Query(value = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'dendrite_profiles'::regclass",
+            nativeQuery = true)
+    long estimateCount();
+}
@@ -0,0 +1,279 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.dto.SearchResultDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CPU-only rerank stage between vector retrieval and the recommendation prompt.
+ *
+ * <p>Each candidate is scored on vector similarity, lexical overlap with the query,
+ * skill-tag match, accumulated peer tag weight and profile recency. Candidates far
+ * below the best score are dropped, and the survivors' summaries are cut down to the
+ * sentences most relevant to the query, within a shared token budget.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class CandidateReranker {
+
+    private static final Logger log = LoggerFactory.getLogger(CandidateReranker.class);
+
+    private static final String FEATURES_SQL = """
+            SELECT p.employee_name,
+                   (SELECT string_agg(s.skills_zh, '|') FROM profile_skills_zh s
+                     WHERE s.talent_profile_id = p.id) AS skills_zh,
+                   (SELECT string_agg(s.skills_en, '|') FROM profile_skills_en s
+                     WHERE s.talent_profile_id = p.id) AS skills_en,
+                   (SELECT COALESCE(SUM(t.weight), 0) FROM dendrite_evaluation_tags t
+                     WHERE t.target_employee = p.employee_name) AS tag_weight
+            FROM dendrite_profiles p
+            WHERE p.employee_name IN (%s)
+            """;
+
+    private static final String SENTENCE_DELIMITERS = "(?<=[。！？；!?;\\n])|(?<=\\.)\\s+";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final double minRelativeScore;
+    private final int contextTokenBudget;
+
+    public CandidateReranker(JdbcTemplate jdbcTemplate,
+                             @Value("${dendrite.rerank.enabled:true}") boolean enabled,
+                             @Value("${dendrite.rerank.min-relative-score:0.6}") double minRelativeScore,
+                             @Value("${dendrite.rerank.context-token-budget:600}") int contextTokenBudget) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.minRelativeScore = minRelativeScore;
+        this.contextTokenBudget = contextTokenBudget;
+    }
+
+    /**
+     * Reorders, filters and trims candidates for the recommendation prompt.
+     * The best-scoring candidate is always kept.
+     *
+     * @param queryText the user's query
+     * @param expansion cached expansion terms, or null
+     * @param candidates vector search results
+     * @return reranked candidates with trimmed summaries
+     */
+    public List<SearchResultDto> rerank(String queryText, String expansion, List<SearchResultDto> candidates) {
+        if (!enabled || candidates.isEmpty()) {
+            return candidates;
+        }
+
+        Set<String> queryTerms = terms(expansion != null ? queryText + " " + expansion : queryText);
+        Map<String, Features> features = loadFeatures(candidates);
+        double maxTagWeight = features.values().stream().mapToDouble(Features::tagWeight).max().orElse(0);
+
+        List<Scored> scored = new ArrayList<>(candidates.size());
+        for (SearchResultDto candidate : candidates) {
+            Features f = features.getOrDefault(candidate.employeeName(), Features.EMPTY);
+            double score = Constants.RERANK_WEIGHT_SIMILARITY * candidate.similarity()
+                    + Constants.RERANK_WEIGHT_LEXICAL * overlap(queryTerms, terms(candidate.professionalSummary()))
+                    + Constants.RERANK_WEIGHT_SKILL * skillMatch(queryTerms, f.skills())
+                    + Constants.RERANK_WEIGHT_TAG * normalizedTagWeight(f.tagWeight(), maxTagWeight)
+                    + Constants.RERANK_WEIGHT_RECENCY * recency(candidate.lastUpdated());
+            scored.add(new Scored(candidate, score));
+        }
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed());
+
+        double cutoff = scored.get(0).score() * minRelativeScore;
+        List<Scored> kept = scored.stream().filter(s -> s.score() >= cutoff).toList();
+
+        int perCandidateBudget = Math.max(Constants.RERANK_MIN_SUMMARY_TOKENS, contextTokenBudget / kept.size());
+        List<SearchResultDto> result = kept.stream()
+                .map(s -> withSummary(s.candidate(),
+                        trimSummary(s.candidate().professionalSummary(), queryTerms, perCandidateBudget)))
+                .toList();
+
+        log.debug("[Rerank] kept {}/{} candidates, top: {}", result.size(), candidates.size(),
+                result.get(0).employeeName());
+        return result;
+    }
+
+    private Map<String, Features> loadFeatures(List<SearchResultDto> candidates) {
+        String placeholders = String.join(",", Collections.nCopies(candidates.size(), "?"));
+        Object[] names = candidates.stream().map(SearchResultDto::employeeName).toArray();
+
+        Map<String, Features> features = new HashMap<>();
+        jdbcTemplate.query(FEATURES_SQL.formatted(placeholders), rs -> {
+            List<String> skills = new ArrayList<>();
+            for (String column : List.of("skills_zh", "skills_en")) {
+                String joined = rs.getString(column);
+                if (joined != null) {
+                    skills.addAll(Arrays.asList(joined.split("\\|")));
+                }
+            }
+            features.put(rs.getString("employee_name"), new Features(skills, rs.getDouble("tag_weight")));
+        }, names);
+        return features;
+    }
+
+    /**
+     * Keeps the sentences that share the most terms with the query, in their
+     * original order, until the token budget is used.
+     */
+    private String trimSummary(String summary, Set<String> queryTerms, int tokenBudget) {
+        if (summary == null || TokenUsageTracker.estimateTokens(summary) <= tokenBudget) {
+            return summary;
+        }
+
+        String[] sentences = Arrays.stream(summary.split(SENTENCE_DELIMITERS))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toArray(String[]::new);
+
+        Integer[] order = new Integer[sentences.length];
+        double[] relevance = new double[sentences.length];
+        for (int i = 0; i < sentences.length; i++) {
+            order[i] = i;
+            relevance[i] = overlap(queryTerms, terms(sentences[i]));
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(relevance[b], relevance[a]));
+
+        boolean[] selected = new boolean[sentences.length];
+        long used = 0;
+        for (int i : order) {
+            long cost = TokenUsageTracker.estimateTokens(sentences[i]);
+            if (used + cost <= tokenBudget) {
+                selected[i] = true;
+                used += cost;
+            }
+        }
+
+        StringBuilder trimmed = new StringBuilder();
+        for (int i = 0; i < sentences.length; i++) {
+            if (selected[i]) {
+                trimmed.append(sentences[i]);
+                if (sentences[i].endsWith(".")) {
+                    trimmed.append(' ');
+                }
+            }
+        }
+        if (trimmed.isEmpty()) {
+            // Even the most relevant sentence is over budget
+            String best = sentences.length > 0 ? sentences[order[0]] : summary;
+            return best.substring(0, Math.min(best.length(), tokenBudget * 2)) + "…";
+        }
+        return trimmed.toString().trim();
+    }
+
+    /**
+     * Lower-cased latin/digit words plus Han character bigrams, so Chinese text
+     * can be compared without a segmenter.
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        char previousHan = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+                flushWord(word, terms);
+                if (previousHan != 0) {
+                    terms.add(String.valueOf(new char[]{previousHan, c}));
+                } else if (i + 1 >= lower.length()
+                        || Character.UnicodeScript.of(lower.charAt(i + 1)) != Character.UnicodeScript.HAN) {
+                    terms.add(String.valueOf(c)); // Isolated Han character
+                }
+                previousHan = c;
+            } else {
+                previousHan = 0;
+                if (Character.isLetterOrDigit(c)) {
+                    word.append(c);
+                } else {
+                    flushWord(word, terms);
+                }
+            }
+        }
+        flushWord(word, terms);
+        return terms;
+    }
+
+    private static void flushWord(StringBuilder word, Set<String> terms) {
+        if (word.length() >= 2) {
+            terms.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    private static double overlap(Set<String> queryTerms, Set<String> textTerms) {
+        if (queryTerms.isEmpty()) {
+            return 0.0;
+        }
+        int matched = 0;
+        for (String term : queryTerms) {
+            if (textTerms.contains(term)) {
+                matched++;
+            }
+        }
+        return (double) matched / queryTerms.size();
+    }
+
+    /**
+     * Best fraction of any single skill's terms found in the query.
+     */
+    private static double skillMatch(Set<String> queryTerms, List<String> skills) {
+        double best = 0.0;
+        for (String skill : skills) {
+            Set<String> skillTerms = terms(skill);
+            if (skillTerms.isEmpty()) {
+                continue;
+            }
+            int matched = 0;
+            for (String term : skillTerms) {
+                if (queryTerms.contains(term)) {
+                    matched++;
+                }
+            }
+            best = Math.max(best, (double) matched / skillTerms.size());
+        }
+        return best;
+    }
+
+    private static double normalizedTagWeight(double tagWeight, double maxTagWeight) {
+        return maxTagWeight <= 0 ? 0.0 : Math.log1p(tagWeight) / Math.log1p(maxTagWeight);
+    }
+
+    private static double recency(LocalDateTime lastUpdated) {
+        if (lastUpdated == null) {
+            return 0.0;
+        }
+        double ageDays = Math.max(0, Duration.between(lastUpdated, LocalDateTime.now()).toHours() / 24.0);
+        return Math.pow(0.5, ageDays / Constants.RERANK_RECENCY_HALF_LIFE_DAYS);
+    }
+
+    private static SearchResultDto withSummary(SearchResultDto candidate, String summary) {
+        return new SearchResultDto(candidate.employeeName(), summary, candidate.similarity(), candidate.lastUpdated());
+    }
+
+    private record Features(List<String> skills, double tagWeight) {
+        static final Features EMPTY = new Features(List.of(), 0.0);
+    }
+
+    private record Scored(SearchResultDto candidate, double score) {}
+}
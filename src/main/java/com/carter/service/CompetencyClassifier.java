@@ -0,0 +1,260 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.common.QuotaManager;
+import com.carter.entity.enums.StandardCompetency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maps evaluation tags to a {@link StandardCompetency} without a chat call.
+ *
+ * <p>Each competency has a few prototype phrases. Their embeddings are averaged into
+ * one centroid per competency, computed with a single embedding request and cached
+ * (shared through the tiered cache, keyed by embedding model, and rebuilt when the
+ * active model changes). A tag is assigned to
+ * the centroid nearest its own vector. Only when the two best centroids are closer
+ * than {@code dendrite.classifier.min-margin} is the LLM asked instead.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class CompetencyClassifier {
+
+    private static final Logger log = LoggerFactory.getLogger(CompetencyClassifier.class);
+
+    private static final Map<StandardCompetency, List<String>> PROTOTYPES = new EnumMap<>(Map.of(
+            StandardCompetency.PROBLEM_SOLVING, List.of(
+                    "善于解决问题，排查定位故障", "快速找到根因并修复线上问题", "problem solving, troubleshooting, root cause analysis"),
+            StandardCompetency.STRATEGIC_MINDSET, List.of(
+                    "有战略眼光，善于规划", "架构设计和长期技术规划", "strategic thinking, long-term planning, architecture vision"),
+            StandardCompetency.ACTION_ORIENTED, List.of(
+                    "执行力强，做事靠谱", "说干就干，推进迅速", "action oriented, reliable execution, gets things done"),
+            StandardCompetency.DRIVE_FOR_RESULTS, List.of(
+                    "结果导向，达成目标和KPI", "按时交付，拿到业务结果", "results driven, delivers on targets and KPIs"),
+            StandardCompetency.PEER_RELATIONSHIPS, List.of(
+                    "团队合作好，乐于助人", "与同事关系融洽，好合作", "great teammate, collaborative, helps peers"),
+            StandardCompetency.COMMUNICATION, List.of(
+                    "沟通能力强，表达清晰", "善于讲解和汇报", "clear communicator, good presentation and writing"),
+            StandardCompetency.TECHNICAL_LEARNING, List.of(
+                    "学习能力强，对新技术好奇", "快速掌握新框架和工具", "fast learner, curious about new technology"),
+            StandardCompetency.RESILIENCE, List.of(
+                    "抗压能力强，情绪稳定", "在压力和挫折下坚持", "resilient under pressure, calm, persistent"),
+            StandardCompetency.HARD_SKILL_GENERAL, List.of(
+                    "精通Java、SQL、Redis等具体技术", "Kubernetes、Docker运维技能", "specific hard skills: Java, SQL, Redis, Kubernetes")
+    ));
+
+    // Part of the shared cache key, so editing a phrase invalidates the centroids on every instance
+    private static final String PROTOTYPES_DIGEST = digest(PROTOTYPES);
+
+    private final EmbeddingService embeddingService;
+    private final QuotaManager quotaManager;
+    private final ChatClient chatClient;
+    private final Cache prototypeCache;
+    private final double minMargin;
+
+    private volatile Centroids centroids;
+
+    private final LongAdder localDecisions = new LongAdder();
+    private final LongAdder llmFallbacks = new LongAdder();
+
+    public CompetencyClassifier(EmbeddingService embeddingService,
+                                QuotaManager quotaManager,
+                                ChatClient.Builder builder,
+                                CacheManager cacheManager,
+                                @Value("${dendrite.classifier.min-margin:0.03}") double minMargin) {
+        this.embeddingService = embeddingService;
+        this.quotaManager = quotaManager;
+        this.chatClient = builder.build();
+        this.prototypeCache = cacheManager.getCache(Constants.CACHE_COMPETENCY_CENTROIDS);
+        this.minMargin = minMargin;
+    }
+
+    /**
+     * Classifies a tag from the vector already computed for it.
+     *
+     * @param rawTag the tag text (used only for the LLM fallback)
+     * @param context the tag context (used only for the LLM fallback)
+     * @param model the model that produced {@code tagVector}
+     * @param tagVector embedding of {@code rawTag + " " + context}
+     * @return the competency
+     */
+    public StandardCompetency classify(String rawTag, String context, String model, float[] tagVector) {
+        Map<StandardCompetency, float[]> current = centroids(model);
+        if (current == null || tagVector == null || tagVector.length == 0) {
+            return classifyWithLlm(rawTag, context);
+        }
+
+        StandardCompetency best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        double secondScore = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<StandardCompetency, float[]> entry : current.entrySet()) {
+            double score = cosine(entry.getValue(), tagVector);
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = entry.getKey();
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+
+        if (bestScore - secondScore < minMargin) {
+            log.debug("Low classification margin {} for '{}', asking LLM",
+                    String.format("%.3f", bestScore - secondScore), rawTag);
+            return classifyWithLlm(rawTag, context);
+        }
+        localDecisions.increment();
+        return best;
+    }
+
+    /**
+     * Share of tags classified locally, for monitoring.
+     */
+    public double localRate() {
+        long local = localDecisions.sum();
+        long total = local + llmFallbacks.sum();
+        return total == 0 ? 0.0 : (double) local / total;
+    }
+
+    private Map<StandardCompetency, float[]> centroids(String model) {
+        Centroids current = centroids;
+        if (current != null && current.model().equals(model)) {
+            return current.vectors();
+        }
+        synchronized (this) {
+            if (centroids == null || !centroids.model().equals(model)) {
+                try {
+                    Map<StandardCompetency, float[]> vectors = prototypeCache.get(
+                            model + ":" + PROTOTYPES_DIGEST, () -> computeCentroids(model));
+                    centroids = new Centroids(model, vectors);
+                } catch (RuntimeException e) {
+                    // Retried on the next tag
+                    log.warn("Failed to build competency centroids for {}: {}", model, e.getMessage());
+                    return null;
+                }
+            }
+            return centroids.vectors();
+        }
+    }
+
+    /**
+     * SHA-256 over the phrases in competency-name order. Unlike {@code hashCode()},
+     * stable across JVMs and releases.
+     */
+    private static String digest(Map<StandardCompetency, List<String>> prototypes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            prototypes.entrySet().stream()
+                    .sorted(Comparator.comparing(entry -> entry.getKey().name()))
+                    .forEach(entry -> {
+                        digest.update(entry.getKey().name().getBytes(StandardCharsets.UTF_8));
+                        for (String phrase : entry.getValue()) {
+                            digest.update((byte) 0);
+                            digest.update(phrase.getBytes(StandardCharsets.UTF_8));
+                        }
+                        digest.update((byte) '\n');
+                    });
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private EnumMap<StandardCompetency, float[]> computeCentroids(String model) {
+        List<StandardCompetency> owners = new ArrayList<>();
+        List<String> phrases = new ArrayList<>();
+        PROTOTYPES.forEach((competency, examples) -> examples.forEach(example -> {
+            owners.add(competency);
+            phrases.add(example);
+        }));
+
+        List<float[]> vectors = embeddingService.embedAll(phrases, model);
+
+        EnumMap<StandardCompetency, float[]> sums = new EnumMap<>(StandardCompetency.class);
+        for (int i = 0; i < vectors.size(); i++) {
+            float[] unit = normalize(vectors.get(i));
+            float[] sum = sums.computeIfAbsent(owners.get(i), k -> new float[unit.length]);
+            for (int d = 0; d < unit.length; d++) {
+                sum[d] += unit[d];
+            }
+        }
+        sums.replaceAll((competency, sum) -> normalize(sum));
+
+        log.info("Built competency centroids for {} from {} prototype phrases", model, phrases.size());
+        return sums;
+    }
+
+    private StandardCompetency classifyWithLlm(String rawTag, String context) {
+        llmFallbacks.increment();
+        String prompt = """
+                Classify this evaluation tag into a standard competency:
+                Tag: "%s"
+                Context: "%s"
+
+                Standard competency list:
+                %s
+
+                Return only the enum value, nothing else.
+                """.formatted(rawTag, context, Arrays.toString(StandardCompetency.values()));
+
+        String categoryStr = quotaManager.callChat(() -> chatClient.prompt(prompt).call().content());
+
+        try {
+            String cleanCategory = categoryStr.replaceAll("[^a-zA-Z_]", "").toUpperCase();
+            return StandardCompetency.valueOf(cleanCategory);
+        } catch (Exception e) {
+            log.warn("Failed to parse category '{}', using default", categoryStr);
+            return StandardCompetency.HARD_SKILL_GENERAL;
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float[] result = vector.clone();
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < result.length; i++) {
+                result[i] *= scale;
+            }
+        }
+        return result;
+    }
+
+    // Centroids are unit length, so only the tag vector's norm matters
+    private static double cosine(float[] unitCentroid, float[] vector) {
+        if (unitCentroid.length != vector.length) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double dot = 0.0;
+        double norm = 0.0;
+        for (int i = 0; i < vector.length; i++) {
+            dot += unitCentroid[i] * vector[i];
+            norm += vector[i] * vector[i];
+        }
+        return norm == 0 ? 0.0 : dot / Math.sqrt(norm);
+    }
+
+    private record Centroids(String model, Map<StandardCompetency, float[]> vectors) {}
+}
@@ -0,0 +1,272 @@
+package com.carter.service;
+
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams the corpus out as NDJSON for offline analytics.
+ *
+ * <p>Each dataset is read with one query on a server-side cursor: the query runs in
+ * a read-only, repeatable-read transaction (PostgreSQL only uses a cursor outside
+ * autocommit), rows arrive {@code dendrite.export.fetch-size} at a time and each is
+ * written straight to the output stream with a streaming JSON generator, so memory
+ * stays flat and the dump is a consistent snapshot. Vectors are optional and sent
+ * as base64 of little-endian float32 values, read through pgvector's binary
+ * {@code vector_send} instead of its text form. The last line is a trailer with the
+ * row count, so a truncated dump can be detected.</p>
+ *
+ * <p>Each export pins a connection and holds back vacuum for its duration, so at most
+ * {@code dendrite.export.max-concurrent} run at once, and the snapshot transaction is
+ * bounded by a statement timeout and an idle-in-transaction timeout (a client that
+ * stops reading leaves the transaction idle).</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class CorpusExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CorpusExportService.class);
+
+    // pgvector binary form: int16 dimensions, int16 unused, then big-endian float4 values
+    private static final int VECTOR_HEADER_BYTES = 4;
+
+    /**
+     * Exportable tables. {@code %s} is replaced by the vector expression.
+     */
+    public enum Dataset {
+        PROFILES("""
+                SELECT p.id, p.employee_name, p.summary_zh, p.summary_en, p.last_updated, p.embedding_model,
+                       ARRAY(SELECT s.skills_zh FROM profile_skills_zh s WHERE s.talent_profile_id = p.id) AS skills_zh,
+                       ARRAY(SELECT s.skills_en FROM profile_skills_en s WHERE s.talent_profile_id = p.id) AS skills_en,
+                       %s AS vector
+                FROM dendrite_profiles p
+                ORDER BY p.id
+                """, "p.embedding"),
+        SKILLS("""
+                SELECT id, employee_name, skill_name, proficiency, evidence, created_at, embedding_model,
+                       %s AS vector
+                FROM dendrite_skills
+                ORDER BY id
+                """, "embedding"),
+        TAGS("""
+                SELECT id, creator_employee, target_employee, raw_tag_name, context, standardized_category,
+                       weight, created_at, embedding_model,
+                       %s AS vector
+                FROM dendrite_evaluation_tags
+                ORDER BY id
+                """, "vector");
+
+        final String sqlTemplate;
+        final String vectorColumn;
+
+        Dataset(String sqlTemplate, String vectorColumn) {
+            this.sqlTemplate = sqlTemplate;
+            this.vectorColumn = vectorColumn;
+        }
+
+        String sql(boolean vectors) {
+            return sqlTemplate.formatted(vectors ? "vector_send(" + vectorColumn + ")" : "NULL::bytea");
+        }
+
+        public static Dataset parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new DendriteException(ErrorCode.INVALID_PARAMETER, "dataset must be profiles, skills or tags");
+            }
+        }
+    }
+
+    /**
+     * Opens the output once a slot has been granted, so a rejected export can still
+     * answer with a regular error response.
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+        OutputStream open() throws IOException;
+    }
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final long statementTimeoutMs;
+    private final long idleTimeoutMs;
+
+    public CorpusExportService(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${dendrite.export.fetch-size:1000}") int fetchSize,
+                               @Value("${dendrite.export.max-concurrent:2}") int maxConcurrent,
+                               @Value("${dendrite.export.statement-timeout:30m}") Duration statementTimeout,
+                               @Value("${dendrite.export.idle-timeout:60s}") Duration idleTimeout) {
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+        this.statementTimeoutMs = statementTimeout.toMillis();
+        this.idleTimeoutMs = idleTimeout.toMillis();
+
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(Math.max(1, fetchSize));
+
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Writes a dataset as NDJSON, one object per row, followed by a trailer line
+     * {@code {"type":"end","dataset":...,"count":N}}.
+     *
+     * @param dataset the table to export
+     * @param vectors whether to include vectors
+     * @param target opens the response stream; the stream is not closed
+     * @return number of rows written
+     * @throws DendriteException if the maximum number of exports is already running
+     */
+    public long export(Dataset dataset, boolean vectors, ExportTarget target) throws IOException {
+        if (!slots.tryAcquire()) {
+            throw new DendriteException(ErrorCode.PROCESSING_ERROR, "Too many exports running, retry later");
+        }
+        try {
+            return stream(dataset, vectors, target.open());
+        } finally {
+            slots.release();
+        }
+    }
+
+    private long stream(Dataset dataset, boolean vectors, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        String type = dataset.name().toLowerCase(Locale.ROOT);
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            Long count = snapshotTransaction.execute(status -> {
+                // Scoped to this transaction; the pooled connection keeps its defaults
+                cursorTemplate.execute("SET LOCAL statement_timeout = " + statementTimeoutMs);
+                cursorTemplate.execute("SET LOCAL idle_in_transaction_session_timeout = " + idleTimeoutMs);
+                long[] rows = {0};
+                cursorTemplate.query(dataset.sql(vectors), rs -> {
+                    try {
+                        json.writeStartObject();
+                        json.writeStringField("type", type);
+                        writeRow(dataset, rs, json);
+                        writeVector(rs.getBytes("vector"), json);
+                        json.writeEndObject();
+                        json.writeRaw('\n');
+                        rows[0]++;
+                    } catch (IOException e) {
+                        // Client went away; abort the query
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return rows[0];
+            });
+            long written = count != null ? count : 0;
+
+            json.writeStartObject();
+            json.writeStringField("type", "end");
+            json.writeStringField("dataset", type);
+            json.writeNumberField("count", written);
+            json.writeEndObject();
+            json.writeRaw('\n');
+            json.flush();
+
+            log.info("[Export] Streamed {} {} rows in {}ms", written, type, System.currentTimeMillis() - start);
+            return written;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeRow(Dataset dataset, ResultSet rs, JsonGenerator json) throws SQLException, IOException {
+        json.writeNumberField("id", rs.getLong("id"));
+        switch (dataset) {
+            case PROFILES -> {
+                json.writeStringField("employeeName", rs.getString("employee_name"));
+                json.writeStringField("summaryZh", rs.getString("summary_zh"));
+                json.writeStringField("summaryEn", rs.getString("summary_en"));
+                writeArray("skillsZh", rs.getArray("skills_zh"), json);
+                writeArray("skillsEn", rs.getArray("skills_en"), json);
+                writeTimestamp("lastUpdated", rs.getTimestamp("last_updated"), json);
+            }
+            case SKILLS -> {
+                json.writeStringField("employeeName", rs.getString("employee_name"));
+                json.writeStringField("skillName", rs.getString("skill_name"));
+                json.writeStringField("proficiency", rs.getString("proficiency"));
+                json.writeStringField("evidence", rs.getString("evidence"));
+                writeTimestamp("createdAt", rs.getTimestamp("created_at"), json);
+            }
+            case TAGS -> {
+                json.writeStringField("creatorEmployee", rs.getString("creator_employee"));
+                json.writeStringField("targetEmployee", rs.getString("target_employee"));
+                json.writeStringField("rawTagName", rs.getString("raw_tag_name"));
+                json.writeStringField("context", rs.getString("context"));
+                json.writeStringField("standardizedCategory", rs.getString("standardized_category"));
+                json.writeNumberField("weight", rs.getDouble("weight"));
+                writeTimestamp("createdAt", rs.getTimestamp("created_at"), json);
+            }
+        }
+        json.writeStringField("embeddingModel", rs.getString("embedding_model"));
+    }
+
+    private static void writeArray(String field, Array array, JsonGenerator json) throws SQLException, IOException {
+        json.writeArrayFieldStart(field);
+        if (array != null) {
+            for (Object value : (Object[]) array.getArray()) {
+                json.writeString((String) value);
+            }
+            array.free();
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeTimestamp(String field, Timestamp value, JsonGenerator json) throws IOException {
+        if (value != null) {
+            json.writeStringField(field, value.toLocalDateTime().toString());
+        } else {
+            json.writeNullField(field);
+        }
+    }
+
+    private static void writeVector(byte[] binary, JsonGenerator json) throws IOException {
+        if (binary == null || binary.length < VECTOR_HEADER_BYTES) {
+            return;
+        }
+        ByteBuffer source = ByteBuffer.wrap(binary).order(ByteOrder.BIG_ENDIAN);
+        int dims = source.getShort() & 0xFFFF;
+        source.getShort();
+
+        ByteBuffer target = ByteBuffer.allocate(dims * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < dims; i++) {
+            target.putFloat(source.getFloat());
+        }
+        json.writeNumberField("dims", dims);
+        json.writeStringField("vector", Base64.getEncoder().encodeToString(target.array()));
+    }
+}
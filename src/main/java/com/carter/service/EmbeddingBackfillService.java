@@ -0,0 +1,278 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.event.ProfileVectorsRefreshedEvent;
+import com.carter.repo.BulkVectorWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills in embeddings that are still NULL, e.g. after a failed batch embedding, and
+ * re-embeds rows whose vector came from a model other than the active one (written by
+ * a request that was in flight during an embedding migration).
+ *
+ * <p>Each source table is scanned in id order with a keyset cursor. Every page is
+ * embedded in one request through the quota manager, so the job runs at whatever
+ * rate live traffic leaves, and written back with one COPY + UPDATE. The cursor is
+ * checkpointed in Redis after every page, so a restart resumes where it stopped;
+ * a finished pass resets it. A Redis lock keeps replicas from backfilling the same
+ * rows. Each profile page publishes one {@link ProfileVectorsRefreshedEvent}, so
+ * search caches are dropped once per page rather than once per row.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class EmbeddingBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingBackfillService.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    /**
+     * A table with a vector column and the text its vector is computed from.
+     * The text matches what the regular write path embeds.
+     */
+    enum Source {
+        SKILLS("dendrite_skills", "embedding", """
+                SELECT id,
+                       skill_name || ': ' || COALESCE(evidence, '') AS text
+                FROM dendrite_skills
+                WHERE (embedding IS NULL OR embedding_model IS DISTINCT FROM ?) AND id > ?
+                ORDER BY id
+                LIMIT ?
+                """),
+        PROFILES("dendrite_profiles", "embedding", """
+                SELECT p.id,
+                       p.summary_en || ' ' || COALESCE((SELECT string_agg(s.skills_en, ', ')
+                                                       FROM profile_skills_en s
+                                                       WHERE s.talent_profile_id = p.id), '') AS text
+                FROM dendrite_profiles p
+                WHERE (p.embedding IS NULL OR p.embedding_model IS DISTINCT FROM ?)
+                  AND p.summary_en IS NOT NULL AND p.id > ?
+                ORDER BY p.id
+                LIMIT ?
+                """),
+        TAGS("dendrite_evaluation_tags", "vector", """
+                SELECT id,
+                       raw_tag_name || ' ' || COALESCE(context, '') AS text
+                FROM dendrite_evaluation_tags
+                WHERE (vector IS NULL OR embedding_model IS DISTINCT FROM ?) AND id > ?
+                ORDER BY id
+                LIMIT ?
+                """);
+
+        final String table;
+        final String vectorColumn;
+        final String pageSql;
+
+        Source(String table, String vectorColumn, String pageSql) {
+            this.table = table;
+            this.vectorColumn = vectorColumn;
+            this.pageSql = pageSql;
+        }
+
+        String missingSql() {
+            return "SELECT COUNT(*) FROM " + table
+                    + " WHERE " + vectorColumn + " IS NULL OR embedding_model IS DISTINCT FROM ?";
+        }
+    }
+
+    private final JdbcTemplate pageTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkVectorWriter bulkVectorWriter;
+    private final EmbeddingService embeddingService;
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmbeddingMigrationService migrationService;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lockTtl;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public EmbeddingBackfillService(JdbcTemplate jdbcTemplate,
+                                    BulkVectorWriter bulkVectorWriter,
+                                    EmbeddingService embeddingService,
+                                    StringRedisTemplate redisTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    EmbeddingMigrationService migrationService,
+                                    @Value("${dendrite.backfill.enabled:true}") boolean enabled,
+                                    @Value("${dendrite.backfill.batch-size:250}") int batchSize,
+                                    @Value("${dendrite.backfill.max-batches-per-run:40}") int maxBatchesPerRun,
+                                    @Value("${dendrite.backfill.lock-ttl:30m}") Duration lockTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkVectorWriter = bulkVectorWriter;
+        this.embeddingService = embeddingService;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.migrationService = migrationService;
+        this.enabled = enabled;
+        this.batchSize = Math.min(Math.max(1, batchSize), Constants.MAX_TAG_BATCH_SIZE);
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lockTtl = lockTtl;
+
+        // A page is fetched in one round trip, never more than one page buffered
+        this.pageTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.pageTemplate.setFetchSize(this.batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${dendrite.backfill.interval-ms:600000}",
+            initialDelayString = "${dendrite.backfill.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Starts a backfill run in the background.
+     */
+    @Async("taskExecutor")
+    public void runAsync() {
+        run();
+    }
+
+    /**
+     * Backfills up to {@code max-batches-per-run} pages across all sources.
+     *
+     * @return rows filled per source, empty if another run holds the lock
+     */
+    public Map<String, Integer> run() {
+        if (!running.compareAndSet(false, true)) {
+            return Map.of();
+        }
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean locked = redisTemplate.opsForValue().setIfAbsent(Constants.BACKFILL_LOCK_KEY, token, lockTtl);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("[Backfill] Another instance is running");
+                return Map.of();
+            }
+            if (migrationService.isRunning()) {
+                // Vectors written now would be replaced at cutover anyway
+                log.debug("[Backfill] Waiting for the embedding migration to finish");
+                redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(Constants.BACKFILL_LOCK_KEY), token);
+                return Map.of();
+            }
+            try {
+                return backfill();
+            } finally {
+                redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(Constants.BACKFILL_LOCK_KEY), token);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Rows still missing a vector of the active model and the saved cursor, per source.
+     */
+    public BackfillStatus status() {
+        String model = embeddingService.activeModel();
+        Map<String, SourceStatus> sources = new LinkedHashMap<>();
+        for (Source source : Source.values()) {
+            Long missing = jdbcTemplate.queryForObject(source.missingSql(), Long.class, model);
+            sources.put(source.name().toLowerCase(), new SourceStatus(missing != null ? missing : 0, checkpoint(source)));
+        }
+        return new BackfillStatus(running.get(), sources);
+    }
+
+    private Map<String, Integer> backfill() {
+        Map<String, Integer> filled = new LinkedHashMap<>();
+        String model = embeddingService.activeModel();
+        int budget = maxBatchesPerRun;
+
+        for (Source source : Source.values()) {
+            int count = 0;
+            long cursor = checkpoint(source);
+            while (budget > 0) {
+                List<Row> page = readPage(source, model, cursor);
+                if (page.isEmpty()) {
+                    // Pass complete; the next run rescans from the start
+                    saveCheckpoint(source, 0);
+                    break;
+                }
+
+                count += writePage(source, model, page);
+                budget--;
+
+                cursor = page.get(page.size() - 1).id();
+                saveCheckpoint(source, cursor);
+                if (page.size() < batchSize) {
+                    saveCheckpoint(source, 0);
+                    break;
+                }
+            }
+            filled.put(source.name().toLowerCase(), count);
+        }
+
+        if (filled.values().stream().anyMatch(n -> n > 0)) {
+            log.info("[Backfill] Filled missing embeddings: {}", filled);
+        }
+        return filled;
+    }
+
+    private List<Row> readPage(Source source, String model, long afterId) {
+        List<Row> rows = new ArrayList<>(batchSize);
+        pageTemplate.query(source.pageSql, rs -> {
+            rows.add(new Row(rs.getLong("id"), rs.getString("text")));
+        }, model, afterId, batchSize);
+        return rows;
+    }
+
+    private int writePage(Source source, String model, List<Row> page) {
+        List<String> texts = page.stream().map(r -> r.text().isBlank() ? " " : r.text()).toList();
+        List<float[]> vectors;
+        try {
+            vectors = embeddingService.embedAll(texts, model);
+        } catch (RuntimeException e) {
+            // Skipped rows are picked up on the next pass
+            log.warn("[Backfill] Embedding failed for {} {} rows: {}", page.size(), source.table, e.getMessage());
+            return 0;
+        }
+
+        int updated = bulkVectorWriter.updateVectors(source.table, source.vectorColumn,
+                page.stream().map(Row::id).toList(), vectors, model);
+
+        if (source == Source.PROFILES && updated > 0) {
+            eventPublisher.publishEvent(new ProfileVectorsRefreshedEvent(updated));
+        }
+        return updated;
+    }
+
+    private long checkpoint(Source source) {
+        Object value = redisTemplate.opsForHash().get(Constants.BACKFILL_CHECKPOINT_KEY, source.name());
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private void saveCheckpoint(Source source, long cursor) {
+        redisTemplate.opsForHash().put(Constants.BACKFILL_CHECKPOINT_KEY, source.name(), String.valueOf(cursor));
+    }
+
+    private record Row(long id, String text) {}
+
+    public record SourceStatus(long missing, long cursor) {}
+
+    public record BackfillStatus(boolean running, Map<String, SourceStatus> sources) {}
+}
@@ -0,0 +1,532 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.event.EmbeddingModelActivatedEvent;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.carter.repo.BulkVectorWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Switches the embedding model without downtime.
+ *
+ * <p>Every vector table gets a shadow column ({@code embedding_next}) which a
+ * background job fills page by page with vectors of the target model, through the
+ * embedding quota, while search keeps serving the current column. A trigger clears
+ * the shadow vector of any row whose live vector is rewritten during the migration,
+ * and each shadow write is guarded by the row's {@code xmin}, so a row is never left
+ * with a vector of outdated text. Once no row is left without a shadow vector, one
+ * transaction locks the tables, swaps the columns by renaming them, and the new model
+ * becomes active. Search filters on the model label, so vectors of two models are
+ * never compared.</p>
+ *
+ * <p>The shadow column is typed with the target model's dimension, so the swapped-in
+ * column keeps a fixed {@code vector(N)} type. The cutover also installs a guard
+ * trigger: until every replica has picked up the new model, a row written with a
+ * stale model label has its vector cleared instead, and the backfill re-embeds it.</p>
+ *
+ * <p>Migration state and per-table cursors live in Redis, so a restart resumes where
+ * it stopped and only one replica works at a time.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class EmbeddingMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingMigrationService.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final String F_STATUS = "status";
+    private static final String F_SOURCE_MODEL = "sourceModel";
+    private static final String F_TARGET_MODEL = "targetModel";
+    private static final String F_STARTED = "startedAt";
+    private static final String F_FINISHED = "finishedAt";
+    private static final String F_ERROR = "error";
+    private static final String F_CURSOR = "cursor:";
+    private static final String F_MIGRATED = "migrated:";
+
+    private static final String SHADOW_RESET_FUNCTION_SQL = """
+            CREATE OR REPLACE FUNCTION dendrite_shadow_reset() RETURNS trigger AS $$
+            BEGIN
+                NEW.embedding_next := NULL;
+                NEW.embedding_next_model := NULL;
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """;
+
+    private static final String STALE_LABEL_FUNCTION_SQL = """
+            CREATE OR REPLACE FUNCTION dendrite_stale_label_%1$s() RETURNS trigger AS $$
+            DECLARE
+                active text := (SELECT value FROM dendrite_settings WHERE name = '%2$s');
+            BEGIN
+                IF NEW.%1$s IS NOT NULL AND NEW.embedding_model IS DISTINCT FROM active THEN
+                    NEW.%1$s := NULL;
+                    NEW.embedding_model := NULL;
+                END IF;
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """;
+
+    /**
+     * A table with a vector column and the text its vector is computed from.
+     * The text matches what the regular write path embeds.
+     */
+    enum Source {
+        SKILLS("dendrite_skills", "embedding", """
+                SELECT id, xmin::text::bigint AS ver,
+                       skill_name || ': ' || COALESCE(evidence, '') AS text
+                FROM dendrite_skills
+                WHERE embedding IS NOT NULL AND embedding_next IS NULL AND id > ?
+                ORDER BY id
+                LIMIT ?
+                """),
+        PROFILES("dendrite_profiles", "embedding", """
+                SELECT p.id, p.xmin::text::bigint AS ver,
+                       COALESCE(p.summary_en, '') || ' ' || COALESCE((SELECT string_agg(s.skills_en, ', ')
+                                                                      FROM profile_skills_en s
+                                                                      WHERE s.talent_profile_id = p.id), '') AS text
+                FROM dendrite_profiles p
+                WHERE p.embedding IS NOT NULL AND p.embedding_next IS NULL AND p.id > ?
+                ORDER BY p.id
+                LIMIT ?
+                """),
+        TAGS("dendrite_evaluation_tags", "vector", """
+                SELECT id, xmin::text::bigint AS ver,
+                       raw_tag_name || ' ' || COALESCE(context, '') AS text
+                FROM dendrite_evaluation_tags
+                WHERE vector IS NOT NULL AND embedding_next IS NULL AND id > ?
+                ORDER BY id
+                LIMIT ?
+                """);
+
+        final String table;
+        final String vectorColumn;
+        final String pageSql;
+
+        Source(String table, String vectorColumn, String pageSql) {
+            this.table = table;
+            this.vectorColumn = vectorColumn;
+            this.pageSql = pageSql;
+        }
+
+        String remainingSql() {
+            return "SELECT COUNT(*) FROM " + table
+                    + " WHERE " + vectorColumn + " IS NOT NULL AND embedding_next IS NULL";
+        }
+
+        String labelSql() {
+            return "UPDATE " + table + " SET embedding_model = ?"
+                    + " WHERE " + vectorColumn + " IS NOT NULL AND embedding_model IS NULL";
+        }
+
+        List<String> prepareSql(int dimensions) {
+            return List.of(
+                    "ALTER TABLE " + table + " DROP COLUMN IF EXISTS embedding_next",
+                    "ALTER TABLE " + table + " DROP COLUMN IF EXISTS embedding_next_model",
+                    "ALTER TABLE " + table + " ADD COLUMN embedding_next vector(" + dimensions + ")",
+                    "ALTER TABLE " + table + " ADD COLUMN embedding_next_model varchar(255)",
+                    "DROP TRIGGER IF EXISTS dendrite_shadow_reset ON " + table,
+                    "CREATE TRIGGER dendrite_shadow_reset BEFORE UPDATE OF " + vectorColumn + " ON " + table
+                            + " FOR EACH ROW WHEN (OLD." + vectorColumn + " IS DISTINCT FROM NEW." + vectorColumn + ")"
+                            + " EXECUTE FUNCTION dendrite_shadow_reset()");
+        }
+
+        List<String> swapSql() {
+            return List.of(
+                    "DROP TRIGGER IF EXISTS dendrite_shadow_reset ON " + table,
+                    "DROP TRIGGER IF EXISTS dendrite_stale_label ON " + table,
+                    "ALTER TABLE " + table + " DROP COLUMN " + vectorColumn,
+                    "ALTER TABLE " + table + " DROP COLUMN embedding_model",
+                    "ALTER TABLE " + table + " RENAME COLUMN embedding_next TO " + vectorColumn,
+                    "ALTER TABLE " + table + " RENAME COLUMN embedding_next_model TO embedding_model",
+                    STALE_LABEL_FUNCTION_SQL.formatted(vectorColumn, EmbeddingVersion.SETTING_NAME),
+                    "CREATE TRIGGER dendrite_stale_label BEFORE INSERT OR UPDATE ON " + table
+                            + " FOR EACH ROW EXECUTE FUNCTION dendrite_stale_label_" + vectorColumn + "()");
+        }
+
+        List<String> dropShadowSql() {
+            return List.of(
+                    "DROP TRIGGER IF EXISTS dendrite_shadow_reset ON " + table,
+                    "ALTER TABLE " + table + " DROP COLUMN IF EXISTS embedding_next",
+                    "ALTER TABLE " + table + " DROP COLUMN IF EXISTS embedding_next_model");
+        }
+    }
+
+    public enum MigrationState {
+        RUNNING,      // 重新向量化中
+        CANCELLING,   // 等待清理影子列
+        CANCELLED,    // 已取消
+        COMPLETED     // 已切换
+    }
+
+    private final JdbcTemplate pageTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkVectorWriter bulkVectorWriter;
+    private final EmbeddingService embeddingService;
+    private final EmbeddingVersion embeddingVersion;
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lockTtl;
+    private final Duration cutoverLockTimeout;
+
+    public EmbeddingMigrationService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     BulkVectorWriter bulkVectorWriter,
+                                     EmbeddingService embeddingService,
+                                     EmbeddingVersion embeddingVersion,
+                                     StringRedisTemplate redisTemplate,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${dendrite.embedding-migration.batch-size:250}") int batchSize,
+                                     @Value("${dendrite.embedding-migration.max-batches-per-run:40}") int maxBatchesPerRun,
+                                     @Value("${dendrite.embedding-migration.lock-ttl:30m}") Duration lockTtl,
+                                     @Value("${dendrite.embedding-migration.cutover-lock-timeout:5s}") Duration cutoverLockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bulkVectorWriter = bulkVectorWriter;
+        this.embeddingService = embeddingService;
+        this.embeddingVersion = embeddingVersion;
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.min(Math.max(1, batchSize), Constants.MAX_TAG_BATCH_SIZE);
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lockTtl = lockTtl;
+        this.cutoverLockTimeout = cutoverLockTimeout;
+
+        this.pageTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.pageTemplate.setFetchSize(this.batchSize);
+    }
+
+    /**
+     * Labels vectors written before they carried a model with the configured model.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void labelUnversionedVectors() {
+        for (Source source : Source.values()) {
+            try {
+                int labelled = jdbcTemplate.update(source.labelSql(), embeddingVersion.configuredModel());
+                if (labelled > 0) {
+                    log.info("[Migration] Labelled {} {} vectors as {}", labelled, source.table,
+                            embeddingVersion.configuredModel());
+                }
+            } catch (RuntimeException e) {
+                log.warn("[Migration] Failed to label {} vectors: {}", source.table, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts re-embedding every stored vector with another model.
+     *
+     * @param targetModel the embedding model to switch to
+     * @return the migration status
+     * @throws DendriteException if a migration is in progress or the model cannot be used
+     */
+    public MigrationStatus start(String targetModel) {
+        if (targetModel == null || targetModel.isBlank()) {
+            throw new DendriteException(ErrorCode.INVALID_PARAMETER, "Target model is required");
+        }
+        String target = targetModel.trim();
+        String active = embeddingVersion.activeModel();
+        if (target.equals(active)) {
+            throw new DendriteException(ErrorCode.INVALID_PARAMETER, target + " is already the active model");
+        }
+        if (isRunning()) {
+            throw new DendriteException(ErrorCode.PROCESSING_ERROR, "An embedding migration is already in progress");
+        }
+
+        // Fail fast on an unknown model instead of after the schema change
+        int dimensions;
+        try {
+            dimensions = embeddingService.embedAll(List.of("dendrite"), target).get(0).length;
+        } catch (RuntimeException e) {
+            throw new DendriteException(ErrorCode.AI_CALL_FAILED, "Cannot embed with " + target + ": " + e.getMessage());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(SHADOW_RESET_FUNCTION_SQL);
+            for (Source source : Source.values()) {
+                source.prepareSql(dimensions).forEach(jdbcTemplate::execute);
+            }
+        });
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put(F_STATUS, MigrationState.RUNNING.name());
+        fields.put(F_SOURCE_MODEL, active);
+        fields.put(F_TARGET_MODEL, target);
+        fields.put(F_STARTED, LocalDateTime.now().toString());
+        for (Source source : Source.values()) {
+            fields.put(F_CURSOR + source.name(), "0");
+            fields.put(F_MIGRATED + source.name(), "0");
+        }
+        redisTemplate.delete(Constants.EMBEDDING_MIGRATION_KEY);
+        redisTemplate.opsForHash().putAll(Constants.EMBEDDING_MIGRATION_KEY, fields);
+
+        log.info("[Migration] Started re-embedding from {} to {} ({} dimensions)", active, target, dimensions);
+        return status();
+    }
+
+    /**
+     * Stops a running migration. Search is unaffected; the shadow columns are
+     * dropped by the next run.
+     *
+     * @return false if no migration was running
+     */
+    public boolean cancel() {
+        if (state() != MigrationState.RUNNING) {
+            return false;
+        }
+        redisTemplate.opsForHash().put(Constants.EMBEDDING_MIGRATION_KEY, F_STATUS, MigrationState.CANCELLING.name());
+        log.info("[Migration] Cancellation requested");
+        return true;
+    }
+
+    /**
+     * Whether vectors are currently being re-embedded.
+     */
+    public boolean isRunning() {
+        MigrationState state = state();
+        return state == MigrationState.RUNNING || state == MigrationState.CANCELLING;
+    }
+
+    /**
+     * Progress of the current or last migration.
+     */
+    public MigrationStatus status() {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(Constants.EMBEDDING_MIGRATION_KEY);
+        MigrationState state = stateOf(fields);
+
+        Map<String, SourceProgress> sources = new LinkedHashMap<>();
+        for (Source source : Source.values()) {
+            Long remaining = null;
+            if (state == MigrationState.RUNNING) {
+                remaining = jdbcTemplate.queryForObject(source.remainingSql(), Long.class);
+            }
+            sources.put(source.name().toLowerCase(), new SourceProgress(
+                    longField(fields, F_MIGRATED + source.name()), remaining, longField(fields, F_CURSOR + source.name())));
+        }
+        return new MigrationStatus(
+                embeddingVersion.activeModel(),
+                (String) fields.get(F_TARGET_MODEL),
+                state,
+                (String) fields.get(F_STARTED),
+                (String) fields.get(F_FINISHED),
+                (String) fields.get(F_ERROR),
+                sources);
+    }
+
+    /**
+     * Advances a running migration by up to {@code max-batches-per-run} pages,
+     * and cuts over once every vector has a shadow counterpart.
+     */
+    @Scheduled(fixedDelayString = "${dendrite.embedding-migration.interval-ms:10000}",
+            initialDelayString = "${dendrite.embedding-migration.initial-delay-ms:30000}")
+    public void run() {
+        if (!isRunning()) {
+            return;
+        }
+
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(Constants.EMBEDDING_MIGRATION_LOCK_KEY, token, lockTtl);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("[Migration] Another instance is running");
+            return;
+        }
+        try {
+            if (state() == MigrationState.CANCELLING) {
+                dropShadowColumns();
+                finish(MigrationState.CANCELLED, null);
+                log.info("[Migration] Cancelled, shadow columns dropped");
+                return;
+            }
+            String target = (String) redisTemplate.opsForHash().get(Constants.EMBEDDING_MIGRATION_KEY, F_TARGET_MODEL);
+            if (migrate(target)) {
+                cutover(target);
+            }
+        } catch (RuntimeException e) {
+            // Retried on the next run
+            log.error("[Migration] Run failed", e);
+            redisTemplate.opsForHash().put(Constants.EMBEDDING_MIGRATION_KEY, F_ERROR, String.valueOf(e.getMessage()));
+        } finally {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(Constants.EMBEDDING_MIGRATION_LOCK_KEY), token);
+        }
+    }
+
+    /**
+     * Re-embeds pages into the shadow columns.
+     *
+     * @return true if a scan from the start found no row left in any source
+     */
+    private boolean migrate(String target) {
+        int budget = maxBatchesPerRun;
+        boolean complete = true;
+
+        for (Source source : Source.values()) {
+            long cursor = longField(Constants.EMBEDDING_MIGRATION_KEY, F_CURSOR + source.name());
+            while (true) {
+                if (budget == 0 || state() != MigrationState.RUNNING) {
+                    return false;
+                }
+                List<Row> page = readPage(source, cursor);
+                if (page.isEmpty()) {
+                    if (cursor > 0) {
+                        // Rescan for rows that were skipped or rewritten behind the cursor
+                        complete = false;
+                    }
+                    saveCursor(source, 0);
+                    break;
+                }
+
+                int written = writePage(source, target, page);
+                redisTemplate.opsForHash().increment(Constants.EMBEDDING_MIGRATION_KEY, F_MIGRATED + source.name(), written);
+                budget--;
+
+                cursor = page.get(page.size() - 1).id();
+                saveCursor(source, cursor);
+            }
+        }
+        return complete;
+    }
+
+    private List<Row> readPage(Source source, long afterId) {
+        List<Row> rows = new ArrayList<>(batchSize);
+        pageTemplate.query(source.pageSql, rs -> {
+            rows.add(new Row(rs.getLong("id"), rs.getLong("ver"), rs.getString("text")));
+        }, afterId, batchSize);
+        return rows;
+    }
+
+    private int writePage(Source source, String target, List<Row> page) {
+        List<String> texts = page.stream().map(r -> r.text().isBlank() ? " " : r.text()).toList();
+        List<float[]> vectors;
+        try {
+            vectors = embeddingService.embedAll(texts, target);
+        } catch (RuntimeException e) {
+            // Skipped rows are picked up on the next pass
+            log.warn("[Migration] Embedding failed for {} {} rows: {}", page.size(), source.table, e.getMessage());
+            return 0;
+        }
+        return bulkVectorWriter.writeShadowVectors(source.table,
+                page.stream().map(Row::id).toList(), page.stream().map(Row::version).toList(), vectors, target);
+    }
+
+    /**
+     * Swaps the shadow columns in under table locks, then activates the target model.
+     * Writes that landed since the last pass abort the swap; the next run covers them.
+     */
+    private void cutover(String target) {
+        String previous = embeddingVersion.activeModel();
+        Boolean swapped = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '" + cutoverLockTimeout.toMillis() + "ms'");
+            for (Source source : Source.values()) {
+                jdbcTemplate.execute("LOCK TABLE " + source.table + " IN ACCESS EXCLUSIVE MODE");
+            }
+            for (Source source : Source.values()) {
+                Long count = jdbcTemplate.queryForObject(source.remainingSql(), Long.class);
+                if (count != null && count > 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+            }
+            for (Source source : Source.values()) {
+                source.swapSql().forEach(jdbcTemplate::execute);
+            }
+            embeddingVersion.persist(target);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(swapped)) {
+            log.info("[Migration] New vectors arrived during cutover, continuing");
+            return;
+        }
+
+        embeddingVersion.activate(target);
+        finish(MigrationState.COMPLETED, null);
+        eventPublisher.publishEvent(new EmbeddingModelActivatedEvent(previous, target));
+        log.info("[Migration] Cut over from {} to {}", previous, target);
+    }
+
+    private void dropShadowColumns() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Source source : Source.values()) {
+                source.dropShadowSql().forEach(jdbcTemplate::execute);
+            }
+        });
+    }
+
+    private void finish(MigrationState state, String error) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(F_STATUS, state.name());
+        fields.put(F_FINISHED, LocalDateTime.now().toString());
+        if (error != null) {
+            fields.put(F_ERROR, error);
+        }
+        redisTemplate.opsForHash().putAll(Constants.EMBEDDING_MIGRATION_KEY, fields);
+    }
+
+    private MigrationState state() {
+        Object value = redisTemplate.opsForHash().get(Constants.EMBEDDING_MIGRATION_KEY, F_STATUS);
+        return value != null ? MigrationState.valueOf(value.toString()) : null;
+    }
+
+    private void saveCursor(Source source, long cursor) {
+        redisTemplate.opsForHash().put(Constants.EMBEDDING_MIGRATION_KEY, F_CURSOR + source.name(), String.valueOf(cursor));
+    }
+
+    private long longField(String key, String field) {
+        Object value = redisTemplate.opsForHash().get(key, field);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private static MigrationState stateOf(Map<Object, Object> fields) {
+        Object value = fields.get(F_STATUS);
+        return value != null ? MigrationState.valueOf(value.toString()) : null;
+    }
+
+    private static long longField(Map<Object, Object> fields, String field) {
+        Object value = fields.get(field);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private record Row(long id, long version, String text) {}
+
+    public record SourceProgress(long migrated, Long remaining, long cursor) {}
+
+    public record MigrationStatus(
+            String activeModel,
+            String targetModel,
+            MigrationState state,
+            String startedAt,
+            String finishedAt,
+            String error,
+            Map<String, SourceProgress> sources
+    ) {}
+}
@@ -0,0 +1,99 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.common.QuotaManager;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Single entry point for text embeddings.
+ * All calls go through the embedding quota; query embeddings are also cached,
+ * since the same search text is embedded again by search, ask and hit tracking.
+ *
+ * <p>Vectors are produced by the {@link EmbeddingVersion#activeModel() active model}
+ * unless a model is given. Callers that store vectors should read
+ * {@link #activeModel()} once, embed with that model and store it as the label.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class EmbeddingService {
+
+    private final EmbeddingModel embeddingModel;
+    private final QuotaManager quotaManager;
+    private final EmbeddingVersion embeddingVersion;
+    private final Cache queryVectorCache;
+
+    public EmbeddingService(EmbeddingModel embeddingModel,
+                            QuotaManager quotaManager,
+                            EmbeddingVersion embeddingVersion,
+                            CacheManager cacheManager) {
+        this.embeddingModel = embeddingModel;
+        this.quotaManager = quotaManager;
+        this.embeddingVersion = embeddingVersion;
+        this.queryVectorCache = cacheManager.getCache(Constants.CACHE_QUERY_VECTORS);
+    }
+
+    /**
+     * The model new vectors are produced with.
+     */
+    public String activeModel() {
+        return embeddingVersion.activeModel();
+    }
+
+    /**
+     * Embeds a search query, reusing a cached vector for the same normalized text and model.
+     *
+     * @param queryText the query
+     * @return the query vector
+     */
+    public float[] embedQuery(String queryText) {
+        String model = activeModel();
+        return queryVectorCache.get(model + ":" + QueryExpansionService.normalize(queryText),
+                () -> embedAll(List.of(queryText), model).get(0));
+    }
+
+    /**
+     * Embeds a single text without caching.
+     *
+     * @param text the text
+     * @return the vector
+     */
+    public float[] embed(String text) {
+        return embedAll(List.of(text), activeModel()).get(0);
+    }
+
+    /**
+     * Embeds several texts in one request.
+     *
+     * @param texts the texts
+     * @return vectors in input order
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        return embedAll(texts, activeModel());
+    }
+
+    /**
+     * Embeds several texts in one request with a specific model.
+     *
+     * @param texts the texts
+     * @param model the embedding model
+     * @return vectors in input order
+     */
+    public List<float[]> embedAll(List<String> texts, String model) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        EmbeddingRequest request = new EmbeddingRequest(texts, EmbeddingOptions.builder().model(model).build());
+        EmbeddingResponse response = quotaManager.callEmbedding(() -> embeddingModel.call(request));
+        return response.getResults().stream().map(result -> result.getOutput()).toList();
+    }
+}
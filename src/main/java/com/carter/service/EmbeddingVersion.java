@@ -0,0 +1,134 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The embedding model whose vectors are currently served.
+ *
+ * <p>Starts as the configured model and is switched cluster-wide by the embedding
+ * migration through a Redis key, which every instance polls. The switch is also
+ * written to {@code dendrite_settings} in the cutover transaction, and the Redis key
+ * is restored from there when it goes missing, so a Redis flush can't silently revert
+ * search to the configured model. Every stored vector is labelled with the model that
+ * produced it, and searches only compare against rows labelled with the active model.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class EmbeddingVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingVersion.class);
+
+    static final String SETTING_NAME = "embedding.active-model";
+
+    private static final String SELECT_SQL = "SELECT value FROM dendrite_settings WHERE name = ?";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO dendrite_settings (name, value, updated_at) VALUES (?, ?, now())
+            ON CONFLICT (name) DO UPDATE SET value = EXCLUDED.value, updated_at = EXCLUDED.updated_at
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final String configuredModel;
+    private volatile String activeModel;
+
+    public EmbeddingVersion(StringRedisTemplate redisTemplate,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${spring.ai.google.genai.embedding.options.model:text-embedding-004}") String configuredModel) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredModel = configuredModel;
+        this.activeModel = configuredModel;
+        sync();
+    }
+
+    /**
+     * Model used for new vectors and for search.
+     */
+    public String activeModel() {
+        return activeModel;
+    }
+
+    /**
+     * Model of vectors stored before they were labelled.
+     */
+    public String configuredModel() {
+        return configuredModel;
+    }
+
+    /**
+     * Records the active model in Postgres. Called inside the cutover transaction,
+     * so the setting commits together with the swapped vectors.
+     */
+    void persist(String model) {
+        jdbcTemplate.update(UPSERT_SQL, SETTING_NAME, model);
+    }
+
+    /**
+     * Switches the active model for the whole cluster, after {@link #persist}.
+     */
+    void activate(String model) {
+        redisTemplate.opsForValue().set(Constants.EMBEDDING_ACTIVE_MODEL_KEY, model);
+        activeModel = model;
+        log.info("[Embedding] Active model is now {}", model);
+    }
+
+    @Scheduled(fixedDelayString = "${dendrite.embedding-migration.sync-ms:5000}")
+    public void sync() {
+        String model;
+        boolean redisAvailable = true;
+        try {
+            model = redisTemplate.opsForValue().get(Constants.EMBEDDING_ACTIVE_MODEL_KEY);
+        } catch (RuntimeException e) {
+            log.debug("[Embedding] Active model sync failed: {}", e.getMessage());
+            model = null;
+            redisAvailable = false;
+        }
+
+        if (model == null) {
+            model = loadPersisted();
+            if (model != null && redisAvailable) {
+                restore(model);
+            }
+        }
+        if (model != null && !model.equals(activeModel)) {
+            log.info("[Embedding] Active model changed: {} -> {}", activeModel, model);
+            activeModel = model;
+        }
+    }
+
+    /**
+     * The model recorded by the last cutover, or null if there was none (or the
+     * table isn't there yet on first start).
+     */
+    private String loadPersisted() {
+        try {
+            List<String> values = jdbcTemplate.queryForList(SELECT_SQL, String.class, SETTING_NAME);
+            return values.isEmpty() ? null : values.get(0);
+        } catch (RuntimeException e) {
+            log.debug("[Embedding] Persisted active model unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void restore(String model) {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(Constants.EMBEDDING_ACTIVE_MODEL_KEY, model))) {
+                log.warn("[Embedding] Active model key was missing from Redis, restored {} from Postgres", model);
+            }
+        } catch (RuntimeException e) {
+            log.debug("[Embedding] Failed to restore active model key: {}", e.getMessage());
+        }
+    }
+}
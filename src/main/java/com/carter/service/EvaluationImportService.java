@@ -0,0 +1,560 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.dto.EvaluationRequest;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.carter.service.TaskProgressService.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import of historical evaluations from NDJSON or CSV.
+ *
+ * <p>The request body is parsed record by record and validated with
+ * {@link EvaluationRequest#validate()}; valid records are spooled to a temporary
+ * file, so the upload finishes at disk speed and memory does not grow with the file.
+ * A background job then reads the spool, groups consecutive records by employee into
+ * batches for {@link GardenerService#processBatchEvaluations} (one chat call per
+ * batch) and keeps at most {@code dendrite.import.max-in-flight} batches running;
+ * the reader waits for a free slot, so the AI path is never flooded. The job and its
+ * batches run on dedicated pools ({@code importExecutor}, {@code importBatchExecutor}),
+ * since a job blocking on batches queued behind it in one pool could stall. Profiles of all
+ * touched employees are regenerated once at the end. The whole import is tracked as
+ * a single task in {@link TaskProgressService}.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class EvaluationImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EvaluationImportService.class);
+
+    private static final String TASK_LABEL = "import";
+    private static final String CONTENT_SEPARATOR = "\n---\n";
+    private static final int MAX_LINE_CHARS = Constants.MAX_CONTENT_LENGTH * 4;
+
+    /**
+     * Supported body formats.
+     */
+    public enum ImportFormat {
+        NDJSON,
+        CSV;
+
+        /**
+         * Picks the format from a request content type; anything but CSV is read as NDJSON.
+         */
+        public static ImportFormat fromContentType(String contentType) {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv") ? CSV : NDJSON;
+        }
+    }
+
+    private final GardenerService gardenerService;
+    private final ProfileGenerationCoordinator profileCoordinator;
+    private final TaskProgressService progressService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Executor importExecutor;
+    private final Executor batchExecutor;
+
+    private final int employeesPerBatch;
+    private final int maxBatchChars;
+    private final int maxInFlight;
+    private final Duration employeeSetTtl;
+
+    public EvaluationImportService(GardenerService gardenerService,
+                                   ProfileGenerationCoordinator profileCoordinator,
+                                   TaskProgressService progressService,
+                                   StringRedisTemplate redisTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Qualifier("importExecutor") Executor importExecutor,
+                                   @Qualifier("importBatchExecutor") Executor batchExecutor,
+                                   @Value("${dendrite.import.employees-per-batch:10}") int employeesPerBatch,
+                                   @Value("${dendrite.import.max-batch-chars:20000}") int maxBatchChars,
+                                   @Value("${dendrite.import.max-in-flight:3}") int maxInFlight,
+                                   @Value("${dendrite.import.employee-set-ttl:24h}") Duration employeeSetTtl) {
+        this.gardenerService = gardenerService;
+        this.profileCoordinator = profileCoordinator;
+        this.progressService = progressService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.importExecutor = importExecutor;
+        this.batchExecutor = batchExecutor;
+        this.employeesPerBatch = Math.max(1, employeesPerBatch);
+        this.maxBatchChars = Math.max(Constants.MAX_CONTENT_LENGTH, maxBatchChars);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.employeeSetTtl = employeeSetTtl;
+    }
+
+    /**
+     * Reads and validates an import body, then processes it in the background.
+     *
+     * @param body the request body
+     * @param format the body format
+     * @return the import task ID and the validation outcome
+     * @throws DendriteException if the body cannot be read or is not valid CSV
+     */
+    public ImportResult importEvaluations(InputStream body, ImportFormat format) {
+        Path spool;
+        try {
+            spool = Files.createTempFile("dendrite-import-", ".ndjson");
+        } catch (IOException e) {
+            throw new DendriteException(ErrorCode.INTERNAL_ERROR, "Cannot create import spool: " + e.getMessage());
+        }
+
+        Validation validation = new Validation();
+        try (Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+             BufferedWriter out = Files.newBufferedWriter(spool, StandardCharsets.UTF_8)) {
+            RecordReader records = format == ImportFormat.CSV ? new CsvRecordReader(reader) : new NdjsonRecordReader(reader);
+            EvaluationRequest record;
+            while ((record = next(records, validation)) != null) {
+                try {
+                    validate(record);
+                } catch (IllegalArgumentException e) {
+                    validation.reject(records.position(), e.getMessage());
+                    continue;
+                }
+                out.write(objectMapper.writeValueAsString(record));
+                out.newLine();
+                validation.accepted++;
+            }
+        } catch (IOException | IllegalStateException e) {
+            deleteQuietly(spool);
+            throw new DendriteException(ErrorCode.INVALID_PARAMETER, "Cannot read import body: " + e.getMessage());
+        }
+
+        if (validation.accepted == 0) {
+            deleteQuietly(spool);
+            return new ImportResult(null, 0, validation.rejected, validation.errors);
+        }
+
+        String taskId = progressService.createTask(TASK_LABEL);
+        long accepted = validation.accepted;
+        try {
+            importExecutor.execute(() -> run(taskId, spool, accepted));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(spool);
+            progressService.failTask(taskId, "导入任务过多，请稍后重试", "Too many imports running, retry later");
+            throw new DendriteException(ErrorCode.PROCESSING_ERROR, "Too many imports running, retry later");
+        }
+
+        log.info("[Import] {} accepted {} records ({} rejected)", taskId, accepted, validation.rejected);
+        return new ImportResult(taskId, accepted, validation.rejected, validation.errors);
+    }
+
+    // ==========================================
+    // Background Job
+    // ==========================================
+
+    private void run(String taskId, Path spool, long total) {
+        String employeesKey = Constants.IMPORT_KEY_PREFIX + taskId + ":employees";
+        Semaphore slots = new Semaphore(maxInFlight);
+        AtomicLong processed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        try {
+            progressService.updateProgress(taskId, TaskStatus.PROCESSING,
+                    "正在导入 " + total + " 条评价...", "Importing " + total + " evaluations...", 0);
+
+            try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                Batch batch = new Batch();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    EvaluationRequest record = objectMapper.readValue(line, EvaluationRequest.class);
+                    if (!batch.fits(record)) {
+                        submit(taskId, batch, employeesKey, slots, processed, failed, total);
+                        batch = new Batch();
+                    }
+                    batch.add(record);
+                }
+                if (!batch.isEmpty()) {
+                    submit(taskId, batch, employeesKey, slots, processed, failed, total);
+                }
+            }
+
+            // Wait for the last batches
+            slots.acquire(maxInFlight);
+            slots.release(maxInFlight);
+
+            int profiles = regenerateProfiles(taskId, employeesKey);
+            progressService.completeTask(taskId,
+                    String.format("导入完成：%d 条评价，%d 条失败，更新 %d 份画像", processed.get(), failed.get(), profiles),
+                    String.format("Import complete: %d evaluations, %d failed, %d profiles updated",
+                            processed.get(), failed.get(), profiles));
+            log.info("[Import] {} complete: {} processed, {} failed, {} profiles", taskId, processed.get(), failed.get(), profiles);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progressService.failTask(taskId, "导入被中断", "Import interrupted");
+        } catch (Exception e) {
+            log.error("[Import] {} failed", taskId, e);
+            progressService.failTask(taskId, "导入失败: " + e.getMessage(), "Import failed: " + e.getMessage());
+        } finally {
+            deleteQuietly(spool);
+            redisTemplate.delete(employeesKey);
+        }
+    }
+
+    /**
+     * Hands a batch to the batch executor once an in-flight slot is free.
+     */
+    private void submit(String taskId, Batch batch, String employeesKey, Semaphore slots,
+                        AtomicLong processed, AtomicLong failed, long total) throws InterruptedException {
+        Map<String, String> contents = batch.contents();
+        slots.acquire();
+        try {
+            batchExecutor.execute(() -> {
+                try {
+                    gardenerService.processBatchEvaluations(contents);
+                    redisTemplate.opsForSet().add(employeesKey, contents.keySet().toArray(String[]::new));
+                    redisTemplate.expire(employeesKey, employeeSetTtl);
+                    processed.addAndGet(batch.records);
+                } catch (RuntimeException e) {
+                    // The rest of the import goes on; the count shows up in the result
+                    log.warn("[Import] {} batch of {} records failed: {}", taskId, batch.records, e.getMessage());
+                    failed.addAndGet(batch.records);
+                } finally {
+                    slots.release();
+                }
+                long done = processed.get() + failed.get();
+                progressService.updateProgress(taskId, TaskStatus.PROCESSING,
+                        String.format("已处理 %d/%d 条评价", done, total),
+                        String.format("Processed %d/%d evaluations", done, total),
+                        (int) (done * 80 / total));
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private int regenerateProfiles(String taskId, String employeesKey) {
+        Long count = redisTemplate.opsForSet().size(employeesKey);
+        long total = count != null ? count : 0;
+        int done = 0;
+        try (Cursor<String> employees = redisTemplate.opsForSet().scan(employeesKey,
+                ScanOptions.scanOptions().count(100).build())) {
+            while (employees.hasNext()) {
+                String employee = employees.next();
+                try {
+                    profileCoordinator.generateProfile(employee);
+                    done++;
+                } catch (RuntimeException e) {
+                    log.warn("[Import] {} profile generation failed for {}: {}", taskId, employee, e.getMessage());
+                }
+                progressService.updateProgress(taskId, TaskStatus.PROCESSING,
+                        String.format("正在更新人才画像 %d/%d", done, total),
+                        String.format("Updating profiles %d/%d", done, total),
+                        80 + (int) (done * 19 / Math.max(1, total)));
+            }
+        }
+        return done;
+    }
+
+    // ==========================================
+    // Parsing
+    // ==========================================
+
+    private static EvaluationRequest next(RecordReader records, Validation validation) throws IOException {
+        while (true) {
+            try {
+                return records.next();
+            } catch (IllegalArgumentException e) {
+                validation.reject(records.position(), e.getMessage());
+            }
+        }
+    }
+
+    private static void validate(EvaluationRequest record) {
+        record.validate();
+        if (record.employee().length() > Constants.MAX_EMPLOYEE_NAME_LENGTH) {
+            throw new IllegalArgumentException("Employee name exceeds " + Constants.MAX_EMPLOYEE_NAME_LENGTH + " characters");
+        }
+        if (record.content().length() > Constants.MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Content exceeds " + Constants.MAX_CONTENT_LENGTH + " characters");
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("[Import] Failed to delete spool {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Yields one record at a time; a malformed record throws
+     * {@link IllegalArgumentException} and the next call continues after it.
+     */
+    private interface RecordReader {
+        EvaluationRequest next() throws IOException;
+
+        long position();
+    }
+
+    private final class NdjsonRecordReader implements RecordReader {
+
+        private final Reader reader;
+        private final StringBuilder line = new StringBuilder();
+        private long lineNumber;
+
+        NdjsonRecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public EvaluationRequest next() throws IOException {
+            while (true) {
+                boolean complete = readLine();
+                if (!complete && line.isEmpty()) {
+                    return null;
+                }
+                lineNumber++;
+                if (line.length() > MAX_LINE_CHARS) {
+                    throw new IllegalArgumentException("Line exceeds " + MAX_LINE_CHARS + " characters");
+                }
+                String text = line.toString().strip();
+                if (text.isEmpty()) {
+                    continue;
+                }
+                EvaluationRequest record;
+                try {
+                    record = objectMapper.readValue(text, EvaluationRequest.class);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Invalid JSON");
+                }
+                if (record == null) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                return record;
+            }
+        }
+
+        @Override
+        public long position() {
+            return lineNumber;
+        }
+
+        // Keeps at most MAX_LINE_CHARS + 1 characters of an oversized line
+        private boolean readLine() throws IOException {
+            line.setLength(0);
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\n') {
+                    return true;
+                }
+                if (line.length() <= MAX_LINE_CHARS) {
+                    line.append((char) c);
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the {@code employee} and {@code content}
+     * columns; quoted fields may contain commas, quotes and line breaks.
+     */
+    private static final class CsvRecordReader implements RecordReader {
+
+        private final Reader reader;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private int employeeColumn = -1;
+        private int contentColumn = -1;
+        private long rowNumber;
+
+        CsvRecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public EvaluationRequest next() throws IOException {
+            if (employeeColumn < 0) {
+                readHeader();
+            }
+            while (readRow()) {
+                rowNumber++;
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                if (fields.size() <= Math.max(employeeColumn, contentColumn)) {
+                    throw new IllegalArgumentException("Expected at least "
+                            + (Math.max(employeeColumn, contentColumn) + 1) + " columns");
+                }
+                return new EvaluationRequest(fields.get(employeeColumn).strip(), fields.get(contentColumn).strip());
+            }
+            return null;
+        }
+
+        @Override
+        public long position() {
+            return rowNumber;
+        }
+
+        private void readHeader() throws IOException {
+            if (!readRow()) {
+                throw new IllegalStateException("CSV body is empty");
+            }
+            rowNumber++;
+            for (int i = 0; i < fields.size(); i++) {
+                String name = fields.get(i).strip().replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+                if (name.equals("employee")) {
+                    employeeColumn = i;
+                } else if (name.equals("content")) {
+                    contentColumn = i;
+                }
+            }
+            if (employeeColumn < 0 || contentColumn < 0) {
+                throw new IllegalStateException("CSV header must contain 'employee' and 'content' columns");
+            }
+        }
+
+        /**
+         * Reads one row into {@link #fields}.
+         *
+         * @return false at end of input
+         */
+        private boolean readRow() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+            int c = reader.read();
+            while (true) {
+                if (c == -1) {
+                    if (quoted) {
+                        throw new IllegalStateException("Unterminated quoted field in row " + (rowNumber + 1));
+                    }
+                    if (!any) {
+                        return false;
+                    }
+                    fields.add(field.toString());
+                    return true;
+                }
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        int peek = reader.read();
+                        if (peek != '"') {
+                            quoted = false;
+                            c = peek;
+                            continue;
+                        }
+                    }
+                    append(c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return true;
+                } else if (c != '\r') {
+                    append(c);
+                }
+                c = reader.read();
+            }
+        }
+
+        // Oversized values are cut just past the limit and rejected by validation
+        private void append(int c) {
+            if (field.length() <= Constants.MAX_CONTENT_LENGTH) {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Consecutive records grouped by employee, bounded in employees and characters.
+     */
+    private final class Batch {
+
+        private final Map<String, StringBuilder> contents = new LinkedHashMap<>();
+        private int chars;
+        private int records;
+
+        boolean fits(EvaluationRequest record) {
+            if (contents.isEmpty()) {
+                return true;
+            }
+            boolean newEmployee = !contents.containsKey(record.employee());
+            return (!newEmployee || contents.size() < employeesPerBatch)
+                    && chars + record.content().length() + CONTENT_SEPARATOR.length() <= maxBatchChars;
+        }
+
+        void add(EvaluationRequest record) {
+            StringBuilder content = contents.get(record.employee());
+            if (content == null) {
+                contents.put(record.employee(), new StringBuilder(record.content()));
+            } else {
+                content.append(CONTENT_SEPARATOR).append(record.content());
+                chars += CONTENT_SEPARATOR.length();
+            }
+            chars += record.content().length();
+            records++;
+        }
+
+        boolean isEmpty() {
+            return contents.isEmpty();
+        }
+
+        Map<String, String> contents() {
+            Map<String, String> merged = new LinkedHashMap<>();
+            contents.forEach((employee, content) -> merged.put(employee, content.toString()));
+            return merged;
+        }
+    }
+
+    private static final class Validation {
+        long accepted;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(long position, String reason) {
+            rejected++;
+            if (errors.size() < Constants.MAX_IMPORT_ERRORS) {
+                errors.add("Record " + position + ": " + reason);
+            }
+        }
+    }
+
+    /**
+     * Outcome of reading an import body.
+     *
+     * @param taskId the import task, null if no record was accepted
+     * @param accepted records queued for processing
+     * @param rejected records that failed parsing or validation
+     * @param errors the first rejection reasons
+     */
+    public record ImportResult(String taskId, long accepted, long rejected, List<String> errors) {}
+}
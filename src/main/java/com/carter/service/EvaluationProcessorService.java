@@ -1,16 +1,15 @@
 package com.carter.service;
 
-import com.carter.common.QuotaManager;
 import com.carter.common.VectorUtils;
 import com.carter.entity.SkillRecord;
 import com.carter.entity.TalentProfile;
-import com.carter.repo.SkillRecordRepository;
+import com.carter.event.ProfileUpdatedEvent;
+import com.carter.exception.ProfileGenerationDeferredException;
+import com.carter.repo.BulkVectorWriter;
 import com.carter.service.TaskProgressService.TaskStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.ai.embedding.EmbeddingRequest;
-import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -32,27 +31,30 @@ public class EvaluationProcessorService {
     private static final Logger log = LoggerFactory.getLogger(EvaluationProcessorService.class);
 
     private final GardenerService gardenerService;
-    private final SummarizerService summarizerService;
+    private final ProfileGenerationCoordinator profileCoordinator;
     private final TaskProgressService progressService;
-    private final EmbeddingModel embeddingModel;
-    private final QuotaManager quotaManager;
-    private final SkillRecordRepository skillRepo;
+    private final EmbeddingService embeddingService;
+    private final BulkVectorWriter bulkVectorWriter;
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngestionDeduplicator deduplicator;
 
     public EvaluationProcessorService(GardenerService gardenerService,
-                                       SummarizerService summarizerService,
+                                       ProfileGenerationCoordinator profileCoordinator,
                                        TaskProgressService progressService,
-                                       EmbeddingModel embeddingModel,
-                                       QuotaManager quotaManager,
-                                       SkillRecordRepository skillRepo,
-                                       JdbcTemplate jdbcTemplate) {
+                                       EmbeddingService embeddingService,
+                                       BulkVectorWriter bulkVectorWriter,
+                                       JdbcTemplate jdbcTemplate,
+                                       ApplicationEventPublisher eventPublisher,
+                                       IngestionDeduplicator deduplicator) {
         this.gardenerService = gardenerService;
-        this.summarizerService = summarizerService;
+        this.profileCoordinator = profileCoordinator;
         this.progressService = progressService;
-        this.embeddingModel = embeddingModel;
-        this.quotaManager = quotaManager;
-        this.skillRepo = skillRepo;
+        this.embeddingService = embeddingService;
+        this.bulkVectorWriter = bulkVectorWriter;
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.deduplicator = deduplicator;
     }
 
     /**
@@ -69,12 +71,12 @@ public class EvaluationProcessorService {
         long startTime = System.currentTimeMillis();
 
         try {
-            // Step 1: Extract skills (30%) - SKIP EMBEDDING
+            // Step 1: Extract skills (30%) - SKIP EMBEDDING, NOT SAVED YET
             progressService.updateProgress(taskId, TaskStatus.PROCESSING,
                     "正在提取技能...", "Extracting skills...", 10);
             
-            // Pass true to skip embedding generation
-            List<SkillRecord> skills = gardenerService.processEvaluation(employeeName, content, true);
+            // Skills are written once in step 3, together with their vectors
+            List<SkillRecord> skills = gardenerService.extractSkills(employeeName, content, true);
             
             progressService.updateProgress(taskId, TaskStatus.PROCESSING,
                     "技能提取完成，共 " + skills.size() + " 项",
@@ -87,12 +89,27 @@ public class EvaluationProcessorService {
                     "正在生成人才画像...", "Generating talent profile...", 50);
             
             // Pass true to skip embedding generation
-            TalentProfile profile = summarizerService.generateProfile(employeeName, true);
-            
-            progressService.updateProgress(taskId, TaskStatus.PROCESSING,
-                    "人才画像生成完成", "Profile generated", 80);
+            TalentProfile profile;
+            try {
+                profile = profileCoordinator.generateProfile(employeeName, true, skills);
+            } catch (ProfileGenerationDeferredException e) {
+                // Another instance is summarizing this employee; the requeued run reads these skills once saved
+                profile = null;
+            } catch (RuntimeException e) {
+                // Keep the extracted skills; they are saved without vectors
+                bulkVectorWriter.writeSkills(skills);
+                throw e;
+            }
             
-            log.info("[Process] Step 2 complete: profile generated for {}", employeeName);
+            if (profile != null) {
+                progressService.updateProgress(taskId, TaskStatus.PROCESSING,
+                        "人才画像生成完成", "Profile generated", 80);
+                log.info("[Process] Step 2 complete: profile generated for {}", employeeName);
+            } else {
+                progressService.updateProgress(taskId, TaskStatus.PROCESSING,
+                        "人才画像已排队更新", "Profile update queued", 80);
+                log.info("[Process] Step 2 deferred: profile for {} queued behind another instance", employeeName);
+            }
 
             // Step 3: Global Batch Embedding (100%)
             progressService.updateProgress(taskId, TaskStatus.PROCESSING,
@@ -101,6 +118,7 @@ public class EvaluationProcessorService {
             generateAndSaveVectors(skills, profile);
 
             long duration = System.currentTimeMillis() - startTime;
+            deduplicator.complete(employeeName, content, taskId, skills.size());
             
             progressService.completeTask(taskId,
                     String.format("处理完成！提取 %d 项技能，耗时 %dms", skills.size(), duration),
@@ -114,6 +132,8 @@ public class EvaluationProcessorService {
 
         } catch (Exception e) {
             log.error("[Process] Failed to process evaluation for {}: {}", employeeName, e.getMessage(), e);
+            // Let a resubmission of the same text run again
+            deduplicator.release(employeeName, content, taskId);
             
             progressService.failTask(taskId,
                     "处理失败: " + e.getMessage(),
@@ -136,7 +156,7 @@ public class EvaluationProcessorService {
         
         // 2. Add profile text
         String profileText = "";
-        if (profile.getSummaryEn() != null) {
+        if (profile != null && profile.getSummaryEn() != null) {
             String tags = profile.getSkillsEn() != null ? String.join(", ", profile.getSkillsEn()) : "";
             profileText = profile.getSummaryEn() + " " + tags;
         }
@@ -146,45 +166,42 @@ public class EvaluationProcessorService {
             return;
         }
 
+        List<List<Double>> vectors = List.of();
+        String model = embeddingService.activeModel();
         try {
             // SINGLE API CALL for everything
             log.info("[Process] Generating vectors for {} items in one batch", allTexts.size());
-            quotaManager.acquireEmbeddingQuota();
-            
-            EmbeddingResponse response = embeddingModel.call(
-                new EmbeddingRequest(allTexts, null)
-            );
-            
-            List<List<Double>> vectors = response.getResults().stream()
-                    .map(emb -> VectorUtils.toDoubleList(emb.getOutput()))
+            vectors = embeddingService.embedAll(allTexts, model).stream()
+                    .map(VectorUtils::toDoubleList)
                     .toList();
-
-            // Distribute vectors back
-            // A. Skills
-            for (int i = 0; i < skills.size(); i++) {
-                if (i < vectors.size()) {
-                    skills.get(i).setEmbedding(vectors.get(i));
-                }
-            }
-            skillRepo.saveAll(skills); // Update with vectors
-
-            // B. Profile
-            int profileIndex = allTexts.size() - 1; // Last one
-            if (profileIndex < vectors.size() && !profileText.isEmpty()) {
-                List<Double> profileVector = vectors.get(profileIndex);
-                
-                // Fix: Properly formatted string for PGVector
-                String vectorStr = VectorUtils.toVectorString(profileVector);
-                
-                jdbcTemplate.update("UPDATE dendrite_profiles SET embedding = ?::vector WHERE id = ?", 
-                        vectorStr, profile.getId());
-                log.info("[Process] Profile vector updated");
-            }
-
         } catch (Exception e) {
             log.error("[Process] Failed to generate batch vectors", e);
             // Don't fail the whole process, just log error. 
-            // Data is saved without vectors, can be retried later.
+            // Data is saved without vectors; EmbeddingBackfillService fills them in later.
+        }
+
+        // Distribute vectors back
+        // A. Skills: each row written once, with its vector, via COPY
+        for (int i = 0; i < skills.size(); i++) {
+            if (i < vectors.size()) {
+                skills.get(i).setEmbedding(vectors.get(i));
+                skills.get(i).setEmbeddingModel(model);
+            }
+        }
+        bulkVectorWriter.writeSkills(skills);
+
+        // B. Profile
+        int profileIndex = allTexts.size() - 1; // Last one
+        if (profileIndex < vectors.size() && !profileText.isEmpty()) {
+            List<Double> profileVector = vectors.get(profileIndex);
+            
+            // Fix: Properly formatted string for PGVector
+            String vectorStr = VectorUtils.toVectorString(profileVector);
+            
+            jdbcTemplate.update("UPDATE dendrite_profiles SET embedding = ?::vector, embedding_model = ? WHERE id = ?",
+                    vectorStr, model, profile.getId());
+            eventPublisher.publishEvent(new ProfileUpdatedEvent(profile.getEmployeeName()));
+            log.info("[Process] Profile vector updated");
         }
     }
 
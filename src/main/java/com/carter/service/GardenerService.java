@@ -1,27 +1,30 @@
 package com.carter.service;
 
 import com.carter.common.Constants;
+import com.carter.common.QuotaManager;
 import com.carter.common.VectorUtils;
+import com.carter.dto.TagRequest;
 import com.carter.entity.ContributorProfile;
 import com.carter.entity.EvaluationTag;
 import com.carter.entity.SkillRecord;
 import com.carter.entity.enums.StandardCompetency;
 import com.carter.exception.DendriteException;
 import com.carter.exception.DendriteException.ErrorCode;
-import com.carter.repo.ContributorProfileRepository;
 import com.carter.repo.EvaluationTagRepository;
-import com.carter.repo.SkillRecordRepository;
+import com.carter.repo.BulkVectorWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.converter.BeanOutputConverter;
-import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.ai.embedding.EmbeddingRequest;
-import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -37,28 +40,38 @@ public class GardenerService {
 
     private static final Logger log = LoggerFactory.getLogger(GardenerService.class);
 
+    private static final String INSERT_TAG_SQL = """
+            INSERT INTO dendrite_evaluation_tags
+                (creator_employee, target_employee, raw_tag_name, context,
+                 standardized_category, vector, embedding_model, weight, created_at)
+            VALUES (?, ?, ?, ?, ?, ?::vector, ?, ?, ?)
+            """;
+
     private final ChatClient chatClient;
-    private final SkillRecordRepository skillRepository;
+    private final BulkVectorWriter bulkVectorWriter;
     private final EvaluationTagRepository tagRepo;
-    private final ContributorProfileRepository contributorRepo;
     private final RewardService rewardService;
-    private final EmbeddingModel embeddingModel;
-    private final com.carter.common.QuotaManager quotaManager;
+    private final QuotaManager quotaManager;
+    private final EmbeddingService embeddingService;
+    private final CompetencyClassifier competencyClassifier;
+    private final JdbcTemplate jdbcTemplate;
 
     public GardenerService(ChatClient.Builder builder,
-                           SkillRecordRepository skillRepository,
+                           BulkVectorWriter bulkVectorWriter,
                            EvaluationTagRepository tagRepo,
-                           ContributorProfileRepository contributorRepo,
                            RewardService rewardService,
-                           EmbeddingModel embeddingModel,
-                           com.carter.common.QuotaManager quotaManager) {
+                           QuotaManager quotaManager,
+                           EmbeddingService embeddingService,
+                           CompetencyClassifier competencyClassifier,
+                           JdbcTemplate jdbcTemplate) {
         this.chatClient = builder.build();
-        this.skillRepository = skillRepository;
+        this.bulkVectorWriter = bulkVectorWriter;
         this.tagRepo = tagRepo;
-        this.contributorRepo = contributorRepo;
         this.rewardService = rewardService;
-        this.embeddingModel = embeddingModel;
         this.quotaManager = quotaManager;
+        this.embeddingService = embeddingService;
+        this.competencyClassifier = competencyClassifier;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     // ==========================================
@@ -69,6 +82,7 @@ public class GardenerService {
     public record AiResponse(List<SkillExtractionResult> skills) {}
     public record BatchSkillResult(String employeeName, List<SkillExtractionResult> skills) {}
     public record BatchAiResponse(List<BatchSkillResult> results) {}
+    public record TagBatchResult(int saved, Map<StandardCompetency, Integer> categories) {}
 
     // ==========================================
     // Evaluation Processing
@@ -95,12 +109,25 @@ public class GardenerService {
      * @return list of extracted skill records
      */
     public List<SkillRecord> processEvaluation(String targetEmployee, String rawText, boolean skipEmbedding) {
+        return bulkVectorWriter.writeSkills(extractSkills(targetEmployee, rawText, skipEmbedding));
+    }
+
+    /**
+     * Extracts skills from an evaluation without saving them, so the caller can
+     * attach embeddings and write each row once through {@link BulkVectorWriter}.
+     *
+     * @param targetEmployee the employee being evaluated
+     * @param rawText the evaluation content
+     * @param skipEmbedding true to skip vector generation
+     * @return unsaved skill records
+     */
+    public List<SkillRecord> extractSkills(String targetEmployee, String rawText, boolean skipEmbedding) {
         log.info("Processing evaluation for employee: {} (skipEmbedding={})", targetEmployee, skipEmbedding);
 
         var converter = new BeanOutputConverter<>(AiResponse.class);
         String promptText = buildEvaluationPrompt(targetEmployee, rawText, converter.getFormat());
 
-        String response = chatClient.prompt(promptText).call().content();
+        String response = quotaManager.callChat(() -> chatClient.prompt(promptText).call().content());
         AiResponse aiData = converter.convert(response);
 
         if (aiData == null || aiData.skills() == null) {
@@ -112,7 +139,7 @@ public class GardenerService {
         List<SkillRecord> records = createSkillRecordsBatch(targetEmployee, aiData.skills(), skipEmbedding);
 
         log.info("Extracted {} skills for employee: {}", records.size(), targetEmployee);
-        return skillRepository.saveAll(records);
+        return records;
     }
 
     /**
@@ -142,7 +169,7 @@ public class GardenerService {
         var converter = new BeanOutputConverter<>(BatchAiResponse.class);
         String promptText = buildBatchPrompt(employeeEvaluations, converter.getFormat());
 
-        String response = chatClient.prompt(promptText).call().content();
+        String response = quotaManager.callChat(() -> chatClient.prompt(promptText).call().content());
         BatchAiResponse batchData = converter.convert(response);
 
         if (batchData == null || batchData.results() == null) {
@@ -163,11 +190,11 @@ public class GardenerService {
                     false // Batch processing currently does not support the skip optimization in this method yet
             );
 
-            allRecords.addAll(skillRepository.saveAll(records));
+            allRecords.addAll(records);
         }
 
         log.info("Batch extracted {} total skills", allRecords.size());
-        return allRecords;
+        return bulkVectorWriter.writeSkills(allRecords);
     }
 
     // ==========================================
@@ -176,7 +203,8 @@ public class GardenerService {
 
     /**
      * Processes a user-submitted evaluation tag.
-     * Classifies using AI and stores with contributor weight.
+     * Embeds the tag once and classifies it locally from that vector
+     * (see {@link CompetencyClassifier}), then stores it with contributor weight.
      *
      * @param fromUser the contributor submitting the tag
      * @param targetUser the employee being tagged
@@ -189,8 +217,9 @@ public class GardenerService {
         ContributorProfile contributor = getOrCreateContributor(fromUser);
         double weight = calculateWeight(contributor);
 
-        StandardCompetency category = classifyTag(rawTag, context);
-        List<Double> vector = generateVector(rawTag + " " + context);
+        String model = embeddingService.activeModel();
+        float[] vector = embeddingService.embedAll(List.of(rawTag + " " + context), model).get(0);
+        StandardCompetency category = competencyClassifier.classify(rawTag, context, model, vector);
 
         EvaluationTag tag = new EvaluationTag();
         tag.setCreatorEmployee(fromUser);
@@ -199,7 +228,8 @@ public class GardenerService {
         tag.setContext(context);
         tag.setWeight(weight);
         tag.setStandardizedCategory(category);
-        tag.setVector(vector);
+        tag.setVector(VectorUtils.toDoubleList(vector));
+        tag.setEmbeddingModel(model);
 
         tagRepo.save(tag);
         rewardService.addPoints(fromUser, Constants.EVALUATION_SUBMIT_REWARD, "Submitted tag: " + rawTag);
@@ -207,6 +237,62 @@ public class GardenerService {
         log.info("Tag saved with category: {}, weight: {}", category, weight);
     }
 
+    /**
+     * Processes a batch of user-submitted tags.
+     * All texts are embedded in one request and classified locally, rows are
+     * inserted in one JDBC batch and each contributor gets a single reward entry.
+     *
+     * @param requests the tags to store
+     * @return number saved and count per category
+     */
+    public TagBatchResult processUserTags(List<TagRequest> requests) {
+        if (requests.isEmpty()) {
+            return new TagBatchResult(0, Map.of());
+        }
+        if (requests.size() > Constants.MAX_TAG_BATCH_SIZE) {
+            throw new DendriteException(ErrorCode.INVALID_PARAMETER,
+                    "At most " + Constants.MAX_TAG_BATCH_SIZE + " tags per batch");
+        }
+        requests.forEach(TagRequest::validate);
+        log.info("Processing batch of {} tags", requests.size());
+
+        List<String> creators = new ArrayList<>(new LinkedHashSet<>(
+                requests.stream().map(TagRequest::fromUser).toList()));
+        Map<String, ContributorProfile> contributors = rewardService.ensureContributors(creators);
+
+        String model = embeddingService.activeModel();
+        List<float[]> vectors = embeddingService.embedAll(requests.stream()
+                .map(r -> r.rawTag() + " " + contextOf(r))
+                .toList(), model);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<StandardCompetency, Integer> categories = new EnumMap<>(StandardCompetency.class);
+        Map<String, Integer> tagsByCreator = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TagRequest request = requests.get(i);
+            String context = contextOf(request);
+            float[] vector = vectors.get(i);
+            StandardCompetency category = competencyClassifier.classify(request.rawTag(), context, model, vector);
+
+            rows.add(new Object[]{
+                    request.fromUser(), request.targetUser(), request.rawTag(), context, category.name(),
+                    VectorUtils.toVectorString(VectorUtils.toDoubleList(vector)), model,
+                    calculateWeight(contributors.get(request.fromUser())), now
+            });
+            categories.merge(category, 1, Integer::sum);
+            tagsByCreator.merge(request.fromUser(), 1, Integer::sum);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TAG_SQL, rows);
+
+        tagsByCreator.forEach((creator, count) -> rewardService.addPoints(creator,
+                count * Constants.EVALUATION_SUBMIT_REWARD, "Submitted " + count + " tags"));
+
+        log.info("Saved {} tags from {} contributors: {}", rows.size(), tagsByCreator.size(), categories);
+        return new TagBatchResult(rows.size(), categories);
+    }
+
     // ==========================================
     // Private Helpers
     // ==========================================
@@ -222,13 +308,14 @@ public class GardenerService {
         }
 
         List<List<Double>> embeddings = new ArrayList<>();
+        String model = embeddingService.activeModel();
         if (!skipEmbedding) {
             // Prepare texts for batch embedding
             List<String> texts = skills.stream()
                     .map(skill -> skill.skillName() + ": " + skill.evidence())
                     .toList();
             // Batch generate embeddings
-            embeddings = generateVectorsBatch(texts);
+            embeddings = generateVectorsBatch(texts, model);
         }
 
         // Create skill records
@@ -243,6 +330,7 @@ public class GardenerService {
             
             if (!skipEmbedding && i < embeddings.size()) {
                 record.setEmbedding(embeddings.get(i));
+                record.setEmbeddingModel(model);
             } else {
                 // If skipping, leave null or empty? 
                 // SkillRecord embedding might be nullable or need initialization.
@@ -259,22 +347,15 @@ public class GardenerService {
      * Generates embeddings in batch with rate limiting to avoid quota errors.
      * Uses batch embedding capability to process multiple texts in one API call.
      */
-    private List<List<Double>> generateVectorsBatch(List<String> texts) {
+    private List<List<Double>> generateVectorsBatch(List<String> texts, String model) {
         if (texts.isEmpty()) {
             return List.of();
         }
 
         try {
             // Acquire quota once for the entire batch
-            quotaManager.acquireEmbeddingQuota();
-            
-            // Call API with batch request
-            EmbeddingResponse response = embeddingModel.call(
-                new EmbeddingRequest(texts, null)
-            );
-            
-            return response.getResults().stream()
-                    .map(embedding -> VectorUtils.toDoubleList(embedding.getOutput()))
+            return embeddingService.embedAll(texts, model).stream()
+                    .map(VectorUtils::toDoubleList)
                     .toList();
             
         } catch (Exception e) {
@@ -283,48 +364,18 @@ public class GardenerService {
         }
     }
 
-    private List<Double> generateVector(String text) {
-        quotaManager.acquireEmbeddingQuota();
-        float[] vectorFloat = embeddingModel.embed(text);
-        return VectorUtils.toDoubleList(vectorFloat);
+    private ContributorProfile getOrCreateContributor(String employeeName) {
+        return rewardService.ensureContributor(employeeName);
     }
 
-    private ContributorProfile getOrCreateContributor(String employeeName) {
-        return contributorRepo.findByEmployeeName(employeeName)
-                .orElseGet(() -> {
-                    rewardService.addPoints(employeeName, 0, "Account initialized");
-                    return contributorRepo.findByEmployeeName(employeeName)
-                            .orElseThrow(() -> new DendriteException(ErrorCode.EMPLOYEE_NOT_FOUND, employeeName));
-                });
+    private static String contextOf(TagRequest request) {
+        return request.context() != null ? request.context() : "";
     }
 
     private double calculateWeight(ContributorProfile contributor) {
         return Constants.BASE_WEIGHT + (contributor.getLevel() - 1) * Constants.LEVEL_WEIGHT_INCREMENT;
     }
 
-    private StandardCompetency classifyTag(String rawTag, String context) {
-        String prompt = """
-                Classify this evaluation tag into a standard competency:
-                Tag: "%s"
-                Context: "%s"
-
-                Standard competency list:
-                %s
-
-                Return only the enum value, nothing else.
-                """.formatted(rawTag, context, Arrays.toString(StandardCompetency.values()));
-
-        String categoryStr = chatClient.prompt(prompt).call().content();
-
-        try {
-            String cleanCategory = categoryStr.replaceAll("[^a-zA-Z_]", "").toUpperCase();
-            return StandardCompetency.valueOf(cleanCategory);
-        } catch (Exception e) {
-            log.warn("Failed to parse category '{}', using default", categoryStr);
-            return StandardCompetency.HARD_SKILL_GENERAL;
-        }
-    }
-
     private String buildEvaluationPrompt(String employee, String content, String format) {
         return """
                 你是一位专业的人才分析师。请分析以下员工评价：
@@ -0,0 +1,412 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ingestion dedup stage in front of evaluation processing.
+ *
+ * <p>Exact duplicates: the normalized text (NFKC, lower case, collapsed whitespace) is
+ * hashed with SHA-256 per employee, and the first submission claims the hash in Redis
+ * atomically. Later copies are not processed and get the original task and its
+ * result instead. A failed run releases its claim so a retry is processed again.</p>
+ *
+ * <p>Near duplicates: each text gets a MinHash signature over character shingles,
+ * indexed per employee in Redis LSH buckets (banded signature hashes). Signatures
+ * that share a bucket are compared, and an estimated Jaccard similarity at or above
+ * {@code dendrite.dedup.near-duplicate-threshold} is flagged, or skipped like an exact
+ * duplicate when {@code near-duplicate-action} is {@code skip}.</p>
+ *
+ * <p>All entries expire after {@code dendrite.dedup.window}, except a claim still being
+ * processed: it only lives for {@code dendrite.dedup.processing-lease} until its run
+ * completes, and is taken over early once its task has expired, so a crashed instance
+ * can't block the text for the whole window.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class IngestionDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionDeduplicator.class);
+
+    private static final String EXACT_PREFIX = Constants.DEDUP_KEY_PREFIX + "exact:";
+    private static final String SIGNATURE_PREFIX = Constants.DEDUP_KEY_PREFIX + "sig:";
+    private static final String BAND_PREFIX = Constants.DEDUP_KEY_PREFIX + "lsh:";
+
+    private static final String F_TASK_ID = "taskId";
+    private static final String F_STATUS = "status";
+    private static final String F_SKILL_COUNT = "skillCount";
+
+    private static final int ROWS_PER_BAND = Constants.MINHASH_PERMUTATIONS / Constants.LSH_BANDS;
+
+    // KEYS[1] = exact key; ARGV = taskId, processing lease ms
+    private static final DefaultRedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('hsetnx', KEYS[1], 'taskId', ARGV[1]) == 0 then return 0 end
+            redis.call('hset', KEYS[1], 'status', 'PROCESSING')
+            redis.call('pexpire', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS[1] = exact key; ARGV = taskId, skill count, window ms
+    private static final DefaultRedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('hget', KEYS[1], 'taskId') ~= ARGV[1] then return 0 end
+            redis.call('hset', KEYS[1], 'status', 'COMPLETED', 'skillCount', ARGV[2])
+            redis.call('pexpire', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS[1] = exact key; ARGV[1] = taskId of the abandoned claim
+    private static final DefaultRedisScript<Long> ABANDON_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('hget', KEYS[1], 'taskId') ~= ARGV[1] then return 0 end
+            if redis.call('hget', KEYS[1], 'status') ~= 'PROCESSING' then return 0 end
+            return redis.call('del', KEYS[1])
+            """, Long.class);
+
+    // KEYS[1] = exact key, KEYS[2] = signature key; ARGV[1] = taskId
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('hget', KEYS[1], 'taskId') ~= ARGV[1] then return 0 end
+            redis.call('del', KEYS[1], KEYS[2])
+            return 1
+            """, Long.class);
+
+    // Per-permutation seeds, fixed so signatures stay comparable across restarts
+    private static final long[] SEEDS = new long[Constants.MINHASH_PERMUTATIONS];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SEEDS.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix64(seed);
+        }
+    }
+
+    /**
+     * What to do with a near-duplicate submission.
+     */
+    public enum NearDuplicateAction { FLAG, SKIP }
+
+    public enum Verdict { NEW, DUPLICATE, NEAR_DUPLICATE }
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final double threshold;
+    private final NearDuplicateAction nearDuplicateAction;
+    private final Duration window;
+    private final Duration processingLease;
+
+    public IngestionDeduplicator(StringRedisTemplate redisTemplate,
+                                 @Value("${dendrite.dedup.enabled:true}") boolean enabled,
+                                 @Value("${dendrite.dedup.near-duplicate-threshold:0.8}") double threshold,
+                                 @Value("${dendrite.dedup.near-duplicate-action:flag}") String nearDuplicateAction,
+                                 @Value("${dendrite.dedup.window:30d}") Duration window,
+                                 @Value("${dendrite.dedup.processing-lease:15m}") Duration processingLease) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.nearDuplicateAction = NearDuplicateAction.valueOf(nearDuplicateAction.toUpperCase(Locale.ROOT));
+        this.window = window;
+        this.processingLease = processingLease;
+    }
+
+    /**
+     * Decides whether a submission needs processing and claims it if so.
+     *
+     * @param employeeName the employee being evaluated
+     * @param content the evaluation text
+     * @param taskId the task that would process it
+     * @return the verdict; when {@link Admission#process()} is false the caller skips it
+     */
+    public Admission admit(String employeeName, String content, String taskId) {
+        if (!enabled) {
+            return Admission.fresh();
+        }
+        String normalized = normalize(content);
+        String exactKey = exactKey(employeeName, normalized);
+
+        // A second attempt covers a claim released or abandoned in between
+        for (int attempt = 0; ; attempt++) {
+            Long claimed = redisTemplate.execute(CLAIM_SCRIPT, List.of(exactKey), taskId,
+                    String.valueOf(processingLease.toMillis()));
+            if (Long.valueOf(1).equals(claimed)) {
+                break;
+            }
+            Map<Object, Object> original = redisTemplate.opsForHash().entries(exactKey);
+            if (attempt == 0 && isAbandoned(original)) {
+                redisTemplate.execute(ABANDON_SCRIPT, List.of(exactKey), (String) original.get(F_TASK_ID));
+                log.info("[Dedup] Taking over abandoned claim of {} for {}", original.get(F_TASK_ID), employeeName);
+                continue;
+            }
+            if (!original.isEmpty() || attempt > 0) {
+                log.info("[Dedup] Skipping exact duplicate for {}: same as {}", employeeName, original.get(F_TASK_ID));
+                return Admission.of(Verdict.DUPLICATE, false, original, 1.0);
+            }
+        }
+
+        int[] signature = signature(normalized);
+        if (signature == null) {
+            return Admission.fresh();
+        }
+
+        Match match = nearestMatch(employeeName, signature);
+        if (match != null && match.similarity() >= threshold) {
+            Map<Object, Object> original = Map.of(F_TASK_ID, match.taskId());
+            if (nearDuplicateAction == NearDuplicateAction.SKIP) {
+                release(employeeName, content, taskId);
+                log.info("[Dedup] Skipping near duplicate for {}: {} similar to {}",
+                        employeeName, String.format("%.2f", match.similarity()), match.taskId());
+                return Admission.of(Verdict.NEAR_DUPLICATE, false, original, match.similarity());
+            }
+            log.info("[Dedup] Flagged near duplicate for {}: {} similar to {}",
+                    employeeName, String.format("%.2f", match.similarity()), match.taskId());
+            index(employeeName, taskId, signature);
+            return Admission.of(Verdict.NEAR_DUPLICATE, true, original, match.similarity());
+        }
+
+        index(employeeName, taskId, signature);
+        return Admission.fresh();
+    }
+
+    /**
+     * Records the result of a processed submission, returned to later duplicates
+     * for the rest of the window.
+     */
+    public void complete(String employeeName, String content, String taskId, int skillCount) {
+        if (enabled) {
+            redisTemplate.execute(COMPLETE_SCRIPT, List.of(exactKey(employeeName, normalize(content))),
+                    taskId, String.valueOf(skillCount), String.valueOf(window.toMillis()));
+        }
+    }
+
+    /**
+     * Drops the claim of a failed submission so the same text can be processed again.
+     */
+    public void release(String employeeName, String content, String taskId) {
+        if (enabled) {
+            redisTemplate.execute(RELEASE_SCRIPT,
+                    List.of(exactKey(employeeName, normalize(content)), SIGNATURE_PREFIX + taskId), taskId);
+        }
+    }
+
+    /**
+     * A claim still PROCESSING whose task no longer exists: its instance died
+     * before completing or releasing it.
+     */
+    private boolean isAbandoned(Map<Object, Object> claim) {
+        Object ownerTask = claim.get(F_TASK_ID);
+        return ownerTask != null
+                && "PROCESSING".equals(claim.get(F_STATUS))
+                && !Boolean.TRUE.equals(redisTemplate.hasKey(Constants.TASK_KEY_PREFIX + ownerTask));
+    }
+
+    /**
+     * Finds the most similar indexed submission sharing at least one LSH bucket.
+     */
+    private Match nearestMatch(String employeeName, int[] signature) {
+        List<Object> buckets = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int band = 0; band < Constants.LSH_BANDS; band++) {
+                conn.sMembers(bandKey(employeeName, band, signature));
+            }
+            return null;
+        });
+
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Object bucket : buckets) {
+            if (bucket instanceof Set<?> members) {
+                members.forEach(member -> candidates.add(member.toString()));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        List<String> ids = List.copyOf(candidates);
+        List<String> encoded = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> SIGNATURE_PREFIX + id).toList());
+        Match best = null;
+        for (int i = 0; i < ids.size(); i++) {
+            String value = encoded != null ? encoded.get(i) : null;
+            if (value == null) {
+                // Released or expired; its bucket entries age out with the window
+                continue;
+            }
+            double similarity = similarity(signature, decode(value));
+            if (best == null || similarity > best.similarity()) {
+                best = new Match(ids.get(i), similarity);
+            }
+        }
+        return best;
+    }
+
+    private void index(String employeeName, String taskId, int[] signature) {
+        long ttlMs = window.toMillis();
+        String encoded = encode(signature);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.pSetEx(SIGNATURE_PREFIX + taskId, ttlMs, encoded);
+            for (int band = 0; band < Constants.LSH_BANDS; band++) {
+                String key = bandKey(employeeName, band, signature);
+                conn.sAdd(key, taskId);
+                conn.pExpire(key, ttlMs);
+            }
+            return null;
+        });
+    }
+
+    // ==========================================
+    // Hashing
+    // ==========================================
+
+    static String normalize(String content) {
+        return Normalizer.normalize(content, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    static String exactKey(String employeeName, String normalized) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(employeeName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalized.getBytes(StandardCharsets.UTF_8));
+            return EXACT_PREFIX + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * MinHash over overlapping character shingles: per permutation, the minimum of
+     * the shingle hashes mixed with that permutation's seed.
+     *
+     * @return the signature, or null for empty text
+     */
+    static int[] signature(String normalized) {
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        int[] mins = new int[Constants.MINHASH_PERMUTATIONS];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+
+        int shingles = Math.max(1, normalized.length() - Constants.SHINGLE_SIZE + 1);
+        for (int start = 0; start < shingles; start++) {
+            int end = Math.min(normalized.length(), start + Constants.SHINGLE_SIZE);
+            long shingleHash = fnv1a(normalized, start, end);
+            for (int i = 0; i < mins.length; i++) {
+                int h = (int) (mix64(shingleHash ^ SEEDS[i]) >>> 33);
+                if (h < mins[i]) {
+                    mins[i] = h;
+                }
+            }
+        }
+        return mins;
+    }
+
+    /**
+     * Fraction of equal signature positions, an unbiased estimate of Jaccard similarity.
+     */
+    static double similarity(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    static String bandKey(String employeeName, int band, int[] signature) {
+        int from = band * ROWS_PER_BAND;
+        int bandHash = Arrays.hashCode(Arrays.copyOfRange(signature, from, from + ROWS_PER_BAND));
+        return BAND_PREFIX + employeeName + ":" + band + ":" + Integer.toHexString(bandHash);
+    }
+
+    private static long fnv1a(String text, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    static String encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    static int[] decode(String value) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(value));
+        int[] signature = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(signature);
+        return signature;
+    }
+
+    private record Match(String taskId, double similarity) {}
+
+    /**
+     * Outcome of {@link #admit}.
+     *
+     * @param verdict whether the text was seen before
+     * @param process whether the caller should process it
+     * @param originalTaskId task of the earlier submission, if any
+     * @param originalStatus PROCESSING or COMPLETED, for exact duplicates
+     * @param originalSkillCount skills extracted by the earlier run, once completed
+     * @param similarity estimated Jaccard similarity to the earlier submission
+     */
+    public record Admission(
+            Verdict verdict,
+            boolean process,
+            String originalTaskId,
+            String originalStatus,
+            Integer originalSkillCount,
+            Double similarity
+    ) {
+        static Admission fresh() {
+            return new Admission(Verdict.NEW, true, null, null, null, null);
+        }
+
+        static Admission of(Verdict verdict, boolean process, Map<Object, Object> original, double similarity) {
+            Object skillCount = original.get(F_SKILL_COUNT);
+            return new Admission(verdict, process,
+                    (String) original.get(F_TASK_ID),
+                    (String) original.get(F_STATUS),
+                    skillCount != null ? Integer.valueOf(skillCount.toString()) : null,
+                    similarity);
+        }
+    }
+}
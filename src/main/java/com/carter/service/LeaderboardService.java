@@ -0,0 +1,333 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.entity.ContributorProfile;
+import com.carter.entity.RewardRecord;
+import com.carter.event.RewardsAppliedEvent;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.carter.repo.ContributorProfileRepository;
+import com.carter.repo.RewardRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Contributor leaderboards backed by Redis sorted sets.
+ *
+ * <p>One set holds all-time points and one set per ISO week / calendar month holds
+ * points earned in that period. Scores are incremented after each reward ledger
+ * flush, so rank, top-N and around-me reads are O(log n) regardless of how many
+ * contributors exist. Increments only go to sets that exist, so a set lost from
+ * Redis or a new period is never recreated partially; missing sets are rebuilt
+ * from Postgres at startup and then every {@code dendrite.leaderboard.rebuild-interval-ms}.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // KEYS[1] = board; ARGV[1] = ttl seconds (0 = none), then member/points pairs
+    private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('exists', KEYS[1]) == 0 then return 0 end
+            for i = 2, #ARGV, 2 do
+                redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            if tonumber(ARGV[1]) > 0 then redis.call('expire', KEYS[1], ARGV[1]) end
+            return 1
+            """, Long.class);
+
+    private static final String TOTAL_POINTS_SQL =
+            "SELECT employee_name, total_accumulated_points FROM dendrite_contributors "
+                    + "WHERE total_accumulated_points > 0";
+
+    private static final String PERIOD_POINTS_SQL = """
+            SELECT employee_name, SUM(points_change) AS earned
+            FROM dendrite_reward_records
+            WHERE points_change > 0 AND timestamp >= ?
+            GROUP BY employee_name
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ContributorProfileRepository contributorRepo;
+    private final RewardRecordRepository rewardRepo;
+
+    public LeaderboardService(StringRedisTemplate redisTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              ContributorProfileRepository contributorRepo,
+                              RewardRecordRepository rewardRepo) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.contributorRepo = contributorRepo;
+        this.rewardRepo = rewardRepo;
+    }
+
+    /**
+     * Leaderboard period.
+     */
+    public enum Period {
+        TOTAL(null),
+        WEEKLY(Duration.ofDays(7 * 5)),
+        MONTHLY(Duration.ofDays(31 * 13));
+
+        // How long a period's set is kept after it was last written
+        private final Duration retention;
+
+        Period(Duration retention) {
+            this.retention = retention;
+        }
+
+        public static Period parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new DendriteException(ErrorCode.INVALID_PARAMETER, "period must be total, weekly or monthly");
+            }
+        }
+
+        String key(LocalDate date) {
+            return switch (this) {
+                case TOTAL -> Constants.LEADERBOARD_KEY_PREFIX + "total";
+                case WEEKLY -> Constants.LEADERBOARD_KEY_PREFIX + "week:%d-W%02d".formatted(
+                        date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTHLY -> Constants.LEADERBOARD_KEY_PREFIX + "month:%d-%02d".formatted(date.getYear(), date.getMonthValue());
+            };
+        }
+
+        LocalDateTime start(LocalDate date) {
+            return switch (this) {
+                case TOTAL -> LocalDateTime.MIN;
+                case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+                case MONTHLY -> date.withDayOfMonth(1).atStartOfDay();
+            };
+        }
+    }
+
+    /**
+     * Adds freshly applied rewards to every current leaderboard that exists.
+     * A missing one is left to {@link #rebuildMissing}, which reads these rewards
+     * from Postgres.
+     */
+    @EventListener
+    public void onRewardsApplied(RewardsAppliedEvent event) {
+        if (event.earnedByEmployee().isEmpty()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<String> pairs = new ArrayList<>(event.earnedByEmployee().size() * 2);
+        event.earnedByEmployee().forEach((employee, points) -> {
+            pairs.add(employee);
+            pairs.add(String.valueOf(points));
+        });
+
+        for (Period period : Period.values()) {
+            String key = period.key(today);
+            List<String> args = new ArrayList<>(pairs.size() + 1);
+            args.add(String.valueOf(period.retention != null ? period.retention.toSeconds() : 0));
+            args.addAll(pairs);
+            try {
+                redisTemplate.execute(INCREMENT_SCRIPT, List.of(key), args.toArray());
+            } catch (RuntimeException e) {
+                // Postgres is the source of truth; drop the board so the next rebuild restores it
+                log.warn("[Leaderboard] Failed to update {}: {}", key, e.getMessage());
+                deleteQuietly(key);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds any current leaderboard that doesn't exist in Redis, e.g. after
+     * Redis lost it or a new week or month began. The set is built under a temporary
+     * key and renamed only if the board is still missing, so a concurrent rebuild on
+     * another instance can't overwrite increments applied in between.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${dendrite.leaderboard.rebuild-interval-ms:60000}",
+            fixedDelayString = "${dendrite.leaderboard.rebuild-interval-ms:60000}")
+    public void rebuildMissing() {
+        LocalDate today = LocalDate.now();
+        for (Period period : Period.values()) {
+            String key = period.key(today);
+            String staging = key + ":rebuild:" + UUID.randomUUID();
+            try {
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                    continue;
+                }
+                Set<TypedTuple<String>> scores = loadScores(period, today);
+                if (scores.isEmpty()) {
+                    continue; // Redis has no empty sets; retried until the period's first reward
+                }
+                redisTemplate.opsForZSet().add(staging, scores);
+                if (!Boolean.TRUE.equals(redisTemplate.renameIfAbsent(staging, key))) {
+                    redisTemplate.delete(staging);
+                    continue;
+                }
+                if (period.retention != null) {
+                    redisTemplate.expire(key, period.retention);
+                }
+                log.info("[Leaderboard] Rebuilt {} with {} contributors", key, scores.size());
+            } catch (RuntimeException e) {
+                log.warn("[Leaderboard] Failed to rebuild {}: {}", key, e.getMessage());
+                deleteQuietly(staging);
+            }
+        }
+    }
+
+    /**
+     * A page of the leaderboard, highest first.
+     */
+    public List<RankEntry> top(Period period, int offset, int limit) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        long start = Math.max(0, offset);
+        return toEntries(redisTemplate.opsForZSet()
+                .reverseRangeWithScores(period.key(LocalDate.now()), start, start + size - 1), start);
+    }
+
+    /**
+     * An employee's rank (1-based) and score, or null if unranked.
+     */
+    public RankEntry rank(Period period, String employeeName) {
+        String key = period.key(LocalDate.now());
+        Long rank = redisTemplate.opsForZSet().reverseRank(key, employeeName);
+        if (rank == null) {
+            return null;
+        }
+        Double score = redisTemplate.opsForZSet().score(key, employeeName);
+        return new RankEntry(rank + 1, employeeName, score != null ? score.longValue() : 0);
+    }
+
+    /**
+     * The employee plus up to {@code radius} neighbours on each side.
+     */
+    public List<RankEntry> around(Period period, String employeeName, int radius) {
+        RankEntry self = rank(period, employeeName);
+        if (self == null) {
+            return List.of();
+        }
+        int r = Math.clamp(radius, 0, MAX_PAGE_SIZE / 2);
+        long start = Math.max(0, self.rank() - 1 - r);
+        return toEntries(redisTemplate.opsForZSet()
+                .reverseRangeWithScores(period.key(LocalDate.now()), start, self.rank() - 1 + r), start);
+    }
+
+    /**
+     * Contributor profile with ranks on every board.
+     */
+    public ContributorStats contributorStats(String employeeName) {
+        ContributorProfile profile = contributorRepo.findByEmployeeName(employeeName)
+                .orElseThrow(() -> new DendriteException(ErrorCode.EMPLOYEE_NOT_FOUND, employeeName));
+
+        return new ContributorStats(
+                employeeName,
+                profile.getLevel(),
+                profile.getCurrentPoints(),
+                profile.getTotalAccumulatedPoints(),
+                profile.getSearchHitsCount(),
+                rankOrNull(Period.TOTAL, employeeName),
+                rankOrNull(Period.WEEKLY, employeeName),
+                rankOrNull(Period.MONTHLY, employeeName)
+        );
+    }
+
+    /**
+     * Reward history, newest first, using the record id as a keyset cursor.
+     *
+     * @param beforeId return records older than this id, or null for the first page
+     */
+    public HistoryPage history(String employeeName, Long beforeId, int size) {
+        PageRequest page = PageRequest.of(0, Math.clamp(size, 1, MAX_PAGE_SIZE));
+        List<RewardRecord> records = beforeId == null
+                ? rewardRepo.findByEmployeeNameOrderByIdDesc(employeeName, page)
+                : rewardRepo.findByEmployeeNameAndIdLessThanOrderByIdDesc(employeeName, beforeId, page);
+
+        Long nextCursor = records.size() == page.getPageSize() ? records.get(records.size() - 1).getId() : null;
+        return new HistoryPage(records, nextCursor);
+    }
+
+    private Long rankOrNull(Period period, String employeeName) {
+        RankEntry entry = rank(period, employeeName);
+        return entry != null ? entry.rank() : null;
+    }
+
+    private void deleteQuietly(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (RuntimeException e) {
+            log.debug("[Leaderboard] Failed to delete {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Set<TypedTuple<String>> loadScores(Period period, LocalDate today) {
+        List<Map<String, Object>> rows = period == Period.TOTAL
+                ? jdbcTemplate.queryForList(TOTAL_POINTS_SQL)
+                : jdbcTemplate.queryForList(PERIOD_POINTS_SQL, Timestamp.valueOf(period.start(today)));
+
+        Set<TypedTuple<String>> scores = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            Object value = row.containsKey("earned") ? row.get("earned") : row.get("total_accumulated_points");
+            scores.add(TypedTuple.of((String) row.get("employee_name"), ((Number) value).doubleValue()));
+        }
+        return scores;
+    }
+
+    private static List<RankEntry> toEntries(Set<TypedTuple<String>> tuples, long startIndex) {
+        List<RankEntry> entries = new ArrayList<>();
+        if (tuples == null) {
+            return entries;
+        }
+        long rank = startIndex + 1;
+        for (TypedTuple<String> tuple : tuples) {
+            entries.add(new RankEntry(rank++, tuple.getValue(),
+                    tuple.getScore() != null ? tuple.getScore().longValue() : 0));
+        }
+        return entries;
+    }
+
+    // ==========================================
+    // Result DTOs
+    // ==========================================
+
+    public record RankEntry(long rank, String employeeName, long points) {}
+
+    public record ContributorStats(
+            String employeeName,
+            Integer level,
+            Long currentPoints,
+            Long totalPoints,
+            Integer searchHits,
+            Long totalRank,
+            Long weeklyRank,
+            Long monthlyRank
+    ) {}
+
+    public record HistoryPage(List<RewardRecord> items, Long nextCursor) {}
+}
@@ -0,0 +1,301 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.entity.SkillRecord;
+import com.carter.entity.TalentProfile;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.carter.exception.ProfileGenerationDeferredException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+
+/**
+ * Per-employee single-flight for profile generation.
+ *
+ * <p>At most one {@link SummarizerService#generateProfile} runs per employee. A request
+ * that arrives while a run is in flight cannot simply share it, since the run may have
+ * read the employee's skills before the request's new data existed; instead it queues
+ * one follow-up run. Every request arriving while that follow-up is still queued joins
+ * it, so any burst of requests costs at most two LLM calls, and each caller gets the
+ * profile of a run that started after its request. The follow-up also receives the
+ * skills the finished run's callers have not written yet, so none are lost in the
+ * handover; skills a successful run was handed are dropped there, so only a chain of
+ * failed runs carries skills further.</p>
+ *
+ * <p>Across replicas, each run additionally holds a Redis lease on the employee, renewed
+ * while the run lasts. A replica finding it taken does not wait: it adds the employee to
+ * a Redis requeue set and fails with {@link ProfileGenerationDeferredException}. Every
+ * replica drains that set on a schedule, so the employee is regenerated, from the skills
+ * stored by then, once the other run has released the lease.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class ProfileGenerationCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileGenerationCoordinator.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RENEW_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final int REQUEUE_BATCH = 20;
+
+    private final SummarizerService summarizerService;
+    private final StringRedisTemplate redisTemplate;
+    private final TaskScheduler taskScheduler;
+    private final Executor taskExecutor;
+    private final Duration lockTtl;
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public ProfileGenerationCoordinator(SummarizerService summarizerService,
+                                        StringRedisTemplate redisTemplate,
+                                        TaskScheduler taskScheduler,
+                                        @Qualifier("taskExecutor") Executor taskExecutor,
+                                        @Value("${dendrite.profile-generation.lock-ttl:1m}") Duration lockTtl) {
+        this.summarizerService = summarizerService;
+        this.redisTemplate = redisTemplate;
+        this.taskScheduler = taskScheduler;
+        this.taskExecutor = taskExecutor;
+        this.lockTtl = lockTtl;
+    }
+
+    /**
+     * Generates or updates a profile, with its embedding.
+     *
+     * @see SummarizerService#generateProfile(String)
+     */
+    public TalentProfile generateProfile(String employeeName) {
+        return generateProfile(employeeName, false, List.of());
+    }
+
+    /**
+     * Generates or updates a profile from the stored skills plus skills not yet written.
+     * Blocks until a run covering this request has finished.
+     *
+     * @param employeeName the employee to summarize
+     * @param skipEmbedding whether the caller writes the profile vector itself; a
+     *                      coalesced run skips it only if every joined request does
+     * @param pendingSkills skills the caller writes after the profile
+     * @return the profile of the run this request joined
+     * @throws ProfileGenerationDeferredException if another instance is summarizing the employee
+     * @see SummarizerService#generateProfile(String, boolean, List)
+     */
+    public TalentProfile generateProfile(String employeeName, boolean skipEmbedding, List<SkillRecord> pendingSkills) {
+        Run[] joined = new Run[1];
+        Run[] previous = new Run[1];
+        boolean[] owner = new boolean[1];
+
+        flights.compute(employeeName, (name, flight) -> {
+            if (flight == null) {
+                flight = new Flight(new Run(skipEmbedding, pendingSkills));
+                joined[0] = flight.current;
+                owner[0] = true;
+            } else if (flight.next == null) {
+                flight.next = new Run(skipEmbedding, pendingSkills);
+                joined[0] = flight.next;
+                previous[0] = flight.current;
+                owner[0] = true;
+            } else {
+                flight.next.join(skipEmbedding, pendingSkills);
+                joined[0] = flight.next;
+                log.debug("[Profile] Coalesced request for {} into the queued run", name);
+            }
+            return flight;
+        });
+
+        if (owner[0]) {
+            if (previous[0] != null) {
+                // Its outcome belongs to its own callers
+                previous[0].result.handle((profile, e) -> null).join();
+            }
+            execute(employeeName, joined[0]);
+        }
+
+        try {
+            return joined[0].result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void execute(String employeeName, Run run) {
+        TalentProfile profile = null;
+        Throwable failure = null;
+        try {
+            profile = withLease(employeeName,
+                    () -> summarizerService.generateProfile(employeeName, run.skipEmbedding, run.skills()));
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        // Always hand over, or the queued run's owner would wait forever
+        handOver(employeeName, run, failure == null);
+        if (failure == null) {
+            run.result.complete(profile);
+        } else {
+            run.result.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Promotes the queued run, if any, before the finished run's callers are released,
+     * so requests arriving from then on queue behind it. The promoted run is handed the
+     * finished run's own pending skills, which its callers write only after it returns.
+     * Skills the finished run was handed itself are in its profile if it succeeded, and
+     * their callers were released before it started, so they had the whole run to store
+     * them; they are carried further only if it failed.
+     */
+    private void handOver(String employeeName, Run finished, boolean succeeded) {
+        flights.computeIfPresent(employeeName, (name, flight) -> {
+            if (flight.next == null) {
+                return null;
+            }
+            flight.current = flight.next;
+            flight.next = null;
+            flight.current.carried = List.copyOf(succeeded ? finished.pendingSkills : finished.skills());
+            return flight;
+        });
+    }
+
+    /**
+     * Regenerates employees deferred by this or another instance while their lease
+     * was taken. One still busy is simply queued again.
+     */
+    @Scheduled(fixedDelayString = "${dendrite.profile-generation.requeue-interval-ms:10000}")
+    public void runRequeued() {
+        List<String> employees;
+        try {
+            employees = redisTemplate.opsForSet().pop(Constants.PROFILE_REQUEUE_KEY, REQUEUE_BATCH);
+        } catch (RuntimeException e) {
+            log.warn("[Profile] Failed to read requeued employees: {}", e.getMessage());
+            return;
+        }
+        if (employees == null) {
+            return;
+        }
+        for (String employee : employees) {
+            taskExecutor.execute(() -> {
+                try {
+                    generateProfile(employee);
+                    log.info("[Profile] Regenerated requeued profile for {}", employee);
+                } catch (ProfileGenerationDeferredException e) {
+                    log.debug("[Profile] {} still busy, requeued", employee);
+                } catch (RuntimeException e) {
+                    log.warn("[Profile] Requeued generation failed for {}: {}", employee, e.getMessage());
+                }
+            });
+        }
+    }
+
+    private TalentProfile withLease(String employeeName, Supplier<TalentProfile> generation) {
+        String key = Constants.PROFILE_LOCK_PREFIX + employeeName;
+        String token = UUID.randomUUID().toString();
+
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, lockTtl))) {
+            try {
+                redisTemplate.opsForSet().add(Constants.PROFILE_REQUEUE_KEY, employeeName);
+            } catch (RuntimeException e) {
+                throw new DendriteException(ErrorCode.PROCESSING_ERROR,
+                        "Profile generation for " + employeeName + " is busy on another instance");
+            }
+            log.info("[Profile] {} is being summarized on another instance, queued to rerun", employeeName);
+            throw new ProfileGenerationDeferredException(employeeName);
+        }
+
+        // Renew well before expiry, so a long LLM call never lets another instance in
+        Duration renewEvery = lockTtl.dividedBy(3);
+        ScheduledFuture<?> renewal = taskScheduler.scheduleAtFixedRate(
+                () -> renew(key, token), Instant.now().plus(renewEvery), renewEvery);
+        try {
+            return generation.get();
+        } finally {
+            renewal.cancel(false);
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(key), token);
+        }
+    }
+
+    private void renew(String key, String token) {
+        try {
+            Long renewed = redisTemplate.execute(RENEW_LOCK_SCRIPT, List.of(key), token,
+                    String.valueOf(lockTtl.toMillis()));
+            if (!Long.valueOf(1).equals(renewed)) {
+                log.warn("[Profile] Lease {} was lost before the run finished", key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[Profile] Failed to renew lease {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * The running and the queued run of one employee.
+     * Only mutated inside {@link ConcurrentHashMap#compute}.
+     */
+    private static final class Flight {
+
+        Run current;
+        Run next;
+
+        Flight(Run current) {
+            this.current = current;
+        }
+    }
+
+    /**
+     * One summarization. Requests join it until it starts.
+     */
+    private static final class Run {
+
+        final CompletableFuture<TalentProfile> result = new CompletableFuture<>();
+        final List<SkillRecord> pendingSkills = new ArrayList<>();
+        List<SkillRecord> carried = List.of();
+        boolean skipEmbedding;
+
+        Run(boolean skipEmbedding, List<SkillRecord> pendingSkills) {
+            this.skipEmbedding = skipEmbedding;
+            this.pendingSkills.addAll(pendingSkills);
+        }
+
+        void join(boolean skipEmbedding, List<SkillRecord> pendingSkills) {
+            this.skipEmbedding &= skipEmbedding;
+            this.pendingSkills.addAll(pendingSkills);
+        }
+
+        List<SkillRecord> skills() {
+            List<SkillRecord> skills = new ArrayList<>(carried);
+            skills.addAll(pendingSkills);
+            return skills;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.common.PageCursor;
+import com.carter.dto.CursorPage;
+import com.carter.dto.ProfileView;
+import com.carter.entity.TalentProfile;
+import com.carter.event.EmbeddingModelActivatedEvent;
+import com.carter.event.ProfileUpdatedEvent;
+import com.carter.event.ProfileVectorsRefreshedEvent;
+import com.carter.repo.TalentProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cached read access to talent profiles.
+ * Evicts derived cache entries once a profile rewrite has committed.
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class ProfileService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileService.class);
+
+    private final TalentProfileRepository profileRepo;
+    private final Cache profileCache;
+    private final Cache searchResultsCache;
+
+    public ProfileService(TalentProfileRepository profileRepo, CacheManager cacheManager) {
+        this.profileRepo = profileRepo;
+        this.profileCache = cacheManager.getCache(Constants.CACHE_PROFILES);
+        this.searchResultsCache = cacheManager.getCache(Constants.CACHE_SEARCH_RESULTS);
+    }
+
+    /**
+     * Finds a profile by employee name. Misses are not cached.
+     *
+     * @param employeeName the employee name
+     * @return the profile view, if any
+     */
+    @Cacheable(cacheNames = Constants.CACHE_PROFILES, key = "#employeeName", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<ProfileView> findProfile(String employeeName) {
+        return profileRepo.findByEmployeeName(employeeName).map(ProfileView::from);
+    }
+
+    /**
+     * Lists profiles, most recently updated first, by keyset on {@code (lastUpdated, id)}.
+     * Every page costs the same regardless of depth.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @param size page size
+     * @param withTotal whether to include the planner's row estimate (no {@code count(*)})
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProfileView> listProfiles(String cursor, int size, boolean withTotal) {
+        PageRequest page = PageRequest.ofSize(Math.clamp(size, 1, Constants.MAX_PAGE_SIZE));
+
+        List<TalentProfile> profiles;
+        if (cursor == null || cursor.isBlank()) {
+            profiles = profileRepo.findNewest(page);
+        } else {
+            PageCursor.Key key = PageCursor.decode(cursor, 2);
+            profiles = profileRepo.findNewestBefore(key.time(0), key.longValue(1), page);
+        }
+
+        String nextCursor = null;
+        if (profiles.size() == page.getPageSize()) {
+            TalentProfile last = profiles.get(profiles.size() - 1);
+            nextCursor = PageCursor.encode(last.getLastUpdated(), last.getId());
+        }
+
+        Long total = null;
+        if (withTotal) {
+            long estimate = profileRepo.estimateCount();
+            // Never analyzed yet, so the table is new and small enough to count
+            total = estimate >= 0 ? estimate : profileRepo.count();
+        }
+        return new CursorPage<>(profiles.stream().map(ProfileView::from).toList(), nextCursor, total);
+    }
+
+    /**
+     * Drops the rewritten profile and all search results, which embed its old
+     * summary and ranking.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileUpdated(ProfileUpdatedEvent event) {
+        profileCache.evict(event.employeeName());
+        searchResultsCache.clear();
+        log.debug("[Cache] Evicted caches for updated profile: {}", event.employeeName());
+    }
+
+    /**
+     * Drops all search results, which were ranked with the old vectors. Cached
+     * profiles don't include the vector and stay valid.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileVectorsRefreshed(ProfileVectorsRefreshedEvent event) {
+        searchResultsCache.clear();
+        log.debug("[Cache] Cleared search results after {} profile vectors were refreshed", event.profiles());
+    }
+
+    /**
+     * Drops all search results, which were ranked with the previous model's vectors.
+     */
+    @EventListener
+    public void onEmbeddingModelActivated(EmbeddingModelActivatedEvent event) {
+        searchResultsCache.clear();
+        log.info("[Cache] Cleared search results after switching embeddings to {}", event.model());
+    }
+}
@@ -0,0 +1,232 @@
+package com.carter.service;
+
+import com.carter.cache.TieredCache;
+import com.carter.common.Constants;
+import com.carter.common.QuotaManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AI query expansion with a persistent, frequency-aware cache.
+ *
+ * <p>Expansions live in the {@code queryExpansion} tiered cache (bounded W-TinyLFU L1,
+ * Redis L2 that survives restarts). Query frequencies are counted locally and flushed
+ * to a Redis sorted set, and a background job re-expands the most frequent queries
+ * shortly before their entries expire, so hot queries never wait on the LLM.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class QueryExpansionService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryExpansionService.class);
+
+    private static final String EXPAND_PROMPT = """
+            你是搜索增强助手。用户的搜索词是："%s"
+
+            请提取核心意图，并添加3-5个相关的专业术语或同义词，
+            用于在人才库中进行向量搜索。
+
+            示例：
+            输入："会k8s"
+            输出：Kubernetes、容器编排、Docker、云原生、集群运维
+
+            输入："电脑坏了"
+            输出：IT支持、桌面运维、硬件维修、系统修复
+
+            只输出扩展后的关键词，用逗号分隔，不要其他内容。
+            """;
+
+    private final ChatClient chatClient;
+    private final QuotaManager quotaManager;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache expansionCache;
+    private final Duration entryTtl;
+
+    private final int topN;
+    private final int maxTrackedQueries;
+    private final Duration refreshAhead;
+
+    // Counts since the last flush; bounded so a flood of unique queries can't grow it
+    private final Map<String, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+
+    public QueryExpansionService(ChatClient.Builder builder,
+                                 QuotaManager quotaManager,
+                                 StringRedisTemplate redisTemplate,
+                                 CacheManager cacheManager,
+                                 @Value("${dendrite.query-expansion.top-n:50}") int topN,
+                                 @Value("${dendrite.query-expansion.max-tracked-queries:1000}") int maxTrackedQueries,
+                                 @Value("${dendrite.query-expansion.refresh-ahead:1h}") Duration refreshAhead) {
+        this.chatClient = builder.build();
+        this.quotaManager = quotaManager;
+        this.redisTemplate = redisTemplate;
+        this.expansionCache = cacheManager.getCache(Constants.CACHE_QUERY_EXPANSION);
+        this.entryTtl = expansionCache instanceof TieredCache tiered ? tiered.getTtl() : Duration.ofHours(24);
+        this.topN = topN;
+        this.maxTrackedQueries = Math.max(topN, maxTrackedQueries);
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * Expands a search query with related terms, from cache when possible.
+     *
+     * @param queryText the user's query
+     * @return comma-separated expansion terms
+     */
+    public String expand(String queryText) {
+        String key = normalize(queryText);
+        recordQuery(key);
+
+        ExpansionEntry entry = expansionCache.get(key, () -> expandNow(key));
+        log.debug("Query expansion: '{}' -> '{}'", queryText, entry.expansion());
+        return entry.expansion();
+    }
+
+    /**
+     * Returns the cached expansion for a query without calling the LLM.
+     *
+     * @param queryText the user's query
+     * @return the expansion, or null if none is cached
+     */
+    public String cachedExpansion(String queryText) {
+        ExpansionEntry entry = expansionCache.get(normalize(queryText), ExpansionEntry.class);
+        return entry != null ? entry.expansion() : null;
+    }
+
+    /**
+     * Normalizes a query for use as a cache key: trims, collapses whitespace and lower-cases.
+     */
+    public static String normalize(String queryText) {
+        return queryText.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Pushes locally counted query frequencies to Redis in one pipeline,
+     * then trims the frequency set to the tracked maximum.
+     */
+    @Scheduled(fixedDelayString = "${dendrite.query-expansion.flush-interval-ms:60000}")
+    public void flushFrequencies() {
+        if (pendingCounts.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> counts = new HashMap<>();
+        for (String query : pendingCounts.keySet()) {
+            LongAdder adder = pendingCounts.remove(query);
+            if (adder != null) {
+                counts.put(query, adder.sum());
+            }
+        }
+
+        double now = System.currentTimeMillis();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                counts.forEach((query, count) -> {
+                    conn.zIncrBy(Constants.QUERY_FREQ_KEY, count, query);
+                    conn.zAdd(Constants.QUERY_SEEN_KEY, now, query);
+                });
+                conn.zRemRange(Constants.QUERY_FREQ_KEY, 0, -(maxTrackedQueries + 1));
+                return null;
+            });
+            log.debug("Flushed {} query frequencies", counts.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush query frequencies: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-expands the most frequent recent queries whose cached entry is missing
+     * or due to expire within {@code refresh-ahead}.
+     */
+    @Scheduled(fixedDelayString = "${dendrite.query-expansion.refresh-interval-ms:600000}",
+            initialDelayString = "${dendrite.query-expansion.refresh-interval-ms:600000}")
+    public void refreshHotQueries() {
+        Set<String> hotQueries;
+        try {
+            pruneStaleQueries();
+            hotQueries = redisTemplate.opsForZSet().reverseRange(Constants.QUERY_FREQ_KEY, 0, topN - 1);
+        } catch (RuntimeException e) {
+            log.warn("Skipping query expansion refresh, Redis unavailable: {}", e.getMessage());
+            return;
+        }
+        if (hotQueries == null || hotQueries.isEmpty()) {
+            return;
+        }
+
+        long refreshBefore = System.currentTimeMillis() - entryTtl.minus(refreshAhead).toMillis();
+        int refreshed = 0;
+        for (String query : hotQueries) {
+            ExpansionEntry entry = expansionCache.get(query, ExpansionEntry.class);
+            if (entry != null && entry.expandedAt() > refreshBefore) {
+                continue;
+            }
+            try {
+                expansionCache.put(query, expandNow(query));
+                refreshed++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh expansion for '{}': {}", query, e.getMessage());
+            }
+        }
+
+        if (refreshed > 0) {
+            log.info("Refreshed {} hot query expansions", refreshed);
+        }
+    }
+
+    private void recordQuery(String key) {
+        LongAdder adder = pendingCounts.get(key);
+        if (adder == null) {
+            if (pendingCounts.size() >= maxTrackedQueries) {
+                return;
+            }
+            adder = pendingCounts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * Forgets queries not seen for a full entry TTL, so once-popular queries
+     * stop being refreshed after traffic moves on.
+     */
+    private void pruneStaleQueries() {
+        long cutoff = System.currentTimeMillis() - entryTtl.toMillis();
+        Set<String> stale = redisTemplate.opsForZSet().rangeByScore(Constants.QUERY_SEEN_KEY, 0, cutoff);
+        if (stale != null && !stale.isEmpty()) {
+            Object[] members = stale.toArray();
+            redisTemplate.opsForZSet().remove(Constants.QUERY_FREQ_KEY, members);
+            redisTemplate.opsForZSet().remove(Constants.QUERY_SEEN_KEY, members);
+        }
+    }
+
+    private ExpansionEntry expandNow(String query) {
+        String prompt = EXPAND_PROMPT.formatted(query);
+        String expansion = quotaManager.callChat(() -> chatClient.prompt(prompt).call().content());
+        return new ExpansionEntry(expansion != null && !expansion.isBlank() ? expansion.trim() : query,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Cached expansion with the time it was produced.
+     */
+    public record ExpansionEntry(String expansion, long expandedAt) implements Serializable {}
+}
@@ -0,0 +1,484 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.event.RewardsAppliedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind ledger for contributor points.
+ *
+ * <p>Rewards are appended to a per-stripe journal file and buffered in memory, then
+ * flushed on a schedule. Each flush aggregates the buffered entries per employee,
+ * applies them as {@code points = points + ?} upserts and batch-inserts the
+ * {@code RewardRecord} rows, all in one transaction. Contributor rows are no longer
+ * read-modify-written, so concurrent rewards cannot conflict on the version lock.
+ * The flush locks the affected contributor rows first, so a record whose points
+ * cross a level boundary still gets the "(等级提升至 LvN)" suffix on its reason.</p>
+ *
+ * <p>Journal segments are rotated at every flush and deleted once applied. The
+ * transaction also records the applied segment names, so segments found on disk at
+ * startup are replayed exactly once.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class RewardLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(RewardLedger.class);
+
+    private static final int STRIPES = 16;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("stripe-(\\d+)-\\d+-\\d+\\.log");
+
+    private static final String UPSERT_CONTRIBUTOR_SQL = """
+            INSERT INTO dendrite_contributors
+                (employee_name, current_points, total_accumulated_points, level,
+                 total_tags_submitted, search_hits_count, version)
+            VALUES (?, ?, ?, LEAST(?, ? / ? + 1), 0, ?, 0)
+            ON CONFLICT (employee_name) DO UPDATE SET
+                current_points = COALESCE(dendrite_contributors.current_points, 0) + EXCLUDED.current_points,
+                total_accumulated_points = COALESCE(dendrite_contributors.total_accumulated_points, 0)
+                                           + EXCLUDED.total_accumulated_points,
+                level = GREATEST(COALESCE(dendrite_contributors.level, 1),
+                                 LEAST(?, (COALESCE(dendrite_contributors.total_accumulated_points, 0)
+                                           + EXCLUDED.total_accumulated_points) / ? + 1)),
+                search_hits_count = COALESCE(dendrite_contributors.search_hits_count, 0)
+                                    + EXCLUDED.search_hits_count,
+                version = COALESCE(dendrite_contributors.version, 0) + 1
+            """;
+
+    private static final String LOCK_STANDINGS_SQL = """
+            SELECT employee_name, total_accumulated_points, level FROM dendrite_contributors
+            WHERE employee_name IN (%s) ORDER BY employee_name FOR UPDATE
+            """;
+
+    private static final String INSERT_RECORD_SQL = """
+            INSERT INTO dendrite_reward_records (employee_name, points_change, reason, timestamp)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String MARK_SEGMENT_SQL =
+            "INSERT INTO dendrite_reward_ledger_segments (segment_name, applied_at) VALUES (?, ?)";
+
+    private static final String APPLIED_SEGMENTS_SQL =
+            "SELECT segment_name FROM dendrite_reward_ledger_segments WHERE segment_name IN (%s)";
+
+    private static final String FORGET_SEGMENTS_SQL =
+            "DELETE FROM dendrite_reward_ledger_segments WHERE segment_name IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path journalDir;
+    private final boolean fsync;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long bootTime = System.currentTimeMillis();
+    private final AtomicLong segmentSeq = new AtomicLong();
+
+    public RewardLedger(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${dendrite.rewards.journal-dir:./data/reward-journal}") Path journalDir,
+                        @Value("${dendrite.rewards.journal-fsync:true}") boolean fsync) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.journalDir = journalDir;
+        this.fsync = fsync;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(i);
+        }
+    }
+
+    /**
+     * Replays journal segments left by a previous run that were not applied.
+     */
+    @PostConstruct
+    void recover() throws IOException {
+        Files.createDirectories(journalDir);
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(p -> SEGMENT_NAME.matcher(p.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        Set<String> applied = appliedSegments(segments);
+        int replayed = 0;
+        for (Path segment : segments) {
+            String name = segment.getFileName().toString();
+            if (applied.contains(name)) {
+                Files.deleteIfExists(segment);
+                continue;
+            }
+
+            Matcher matcher = SEGMENT_NAME.matcher(name);
+            matcher.matches();
+            Stripe stripe = stripes[Integer.parseInt(matcher.group(1)) % STRIPES];
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    stripe.entries.add(entry);
+                    replayed++;
+                }
+            }
+            stripe.pendingSegments.add(segment);
+        }
+        forgetSegments(applied);
+
+        if (replayed > 0) {
+            log.info("[Ledger] Replaying {} journaled rewards from {} segments", replayed, segments.size());
+        }
+    }
+
+    /**
+     * Journals a reward and buffers it for the next flush.
+     *
+     * @param employeeName the employee receiving points
+     * @param points points (may be negative)
+     * @param reason reason shown in the reward history
+     * @param searchHit whether this counts as a search assist
+     */
+    public void record(String employeeName, int points, String reason, boolean searchHit) {
+        Entry entry = new Entry(System.currentTimeMillis(), employeeName, points, searchHit, reason);
+        Stripe stripe = stripes[Math.floorMod(employeeName.hashCode(), STRIPES)];
+
+        synchronized (stripe) {
+            try {
+                stripe.append(entry);
+            } catch (IOException e) {
+                // Keep the reward; it is only lost if we also crash before the next flush
+                log.error("[Ledger] Failed to journal reward for {}: {}", employeeName, e.getMessage());
+            }
+            stripe.entries.add(entry);
+        }
+    }
+
+    /**
+     * Number of rewards not yet written to the database.
+     */
+    public int pendingEntries() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.entries.size();
+            }
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${dendrite.rewards.flush-interval-ms:2000}")
+    public void flush() {
+        for (Stripe stripe : stripes) {
+            flushStripe(stripe);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.closeWriter();
+            }
+        }
+    }
+
+    private void flushStripe(Stripe stripe) {
+        List<Entry> entries;
+        List<Path> segments;
+        synchronized (stripe) {
+            if (stripe.entries.isEmpty()) {
+                return;
+            }
+            stripe.rotate();
+            entries = stripe.entries;
+            segments = List.copyOf(stripe.pendingSegments);
+            stripe.entries = new ArrayList<>();
+        }
+
+        Map<String, Delta> deltas = aggregate(entries);
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas, entries, segments));
+        } catch (RuntimeException e) {
+            synchronized (stripe) {
+                entries.addAll(stripe.entries);
+                stripe.entries = entries;
+            }
+            log.warn("[Ledger] Flush of {} rewards failed, will retry: {}", entries.size(), e.getMessage());
+            return;
+        }
+
+        synchronized (stripe) {
+            stripe.pendingSegments.removeAll(segments);
+        }
+        Set<String> names = new HashSet<>();
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+                names.add(segment.getFileName().toString());
+            } catch (IOException e) {
+                log.warn("[Ledger] Could not delete applied segment {}: {}", segment, e.getMessage());
+            }
+        }
+        forgetSegments(names);
+
+        Map<String, Long> earned = new LinkedHashMap<>();
+        deltas.forEach((employee, d) -> {
+            if (d.earned > 0) {
+                earned.put(employee, d.earned);
+            }
+        });
+        if (!earned.isEmpty()) {
+            eventPublisher.publishEvent(new RewardsAppliedEvent(earned));
+        }
+        log.debug("[Ledger] Flushed {} rewards for {} employees", entries.size(), deltas.size());
+    }
+
+    private void apply(Map<String, Delta> deltas, List<Entry> entries, List<Path> segments) {
+        Map<String, Standing> standings = lockStandings(deltas.keySet());
+
+        List<Object[]> upserts = new ArrayList<>(deltas.size());
+        deltas.forEach((employee, d) -> upserts.add(new Object[]{
+                employee, d.points, d.earned, Constants.MAX_LEVEL, d.earned, Constants.POINTS_PER_LEVEL,
+                d.searchHits, Constants.MAX_LEVEL, Constants.POINTS_PER_LEVEL
+        }));
+        jdbcTemplate.batchUpdate(UPSERT_CONTRIBUTOR_SQL, upserts);
+
+        List<Object[]> records = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            Standing standing = standings.computeIfAbsent(e.employeeName(), k -> new Standing());
+            records.add(new Object[]{e.employeeName(), e.points(), standing.reasonFor(e),
+                    new Timestamp(e.timestamp())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_RECORD_SQL, records);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> marks = segments.stream()
+                .map(s -> new Object[]{s.getFileName().toString(), now})
+                .toList();
+        jdbcTemplate.batchUpdate(MARK_SEGMENT_SQL, marks);
+    }
+
+    /**
+     * Reads and row-locks the current totals of the given employees, so the level-ups
+     * computed for this flush cannot interleave with another instance's flush.
+     * Employees without a row yet start at level 1.
+     */
+    private Map<String, Standing> lockStandings(Set<String> employees) {
+        Map<String, Standing> standings = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(employees.size(), "?"));
+        jdbcTemplate.query(LOCK_STANDINGS_SQL.formatted(placeholders), (RowCallbackHandler) rs -> {
+            Standing standing = new Standing();
+            standing.totalPoints = rs.getLong("total_accumulated_points");
+            standing.level = Math.max(1, rs.getInt("level"));
+            standings.put(rs.getString("employee_name"), standing);
+        }, employees.toArray());
+        return standings;
+    }
+
+    private static Map<String, Delta> aggregate(List<Entry> entries) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (Entry e : entries) {
+            Delta d = deltas.computeIfAbsent(e.employeeName(), k -> new Delta());
+            d.points += e.points();
+            if (e.points() > 0) {
+                d.earned += e.points();
+            }
+            if (e.searchHit()) {
+                d.searchHits++;
+            }
+        }
+        return deltas;
+    }
+
+    private Set<String> appliedSegments(List<Path> segments) {
+        List<String> names = segments.stream().map(p -> p.getFileName().toString()).toList();
+        String placeholders = String.join(",", Collections.nCopies(names.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                APPLIED_SEGMENTS_SQL.formatted(placeholders), String.class, names.toArray()));
+    }
+
+    private void forgetSegments(Set<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        try {
+            String placeholders = String.join(",", Collections.nCopies(names.size(), "?"));
+            jdbcTemplate.update(FORGET_SEGMENTS_SQL.formatted(placeholders), names.toArray());
+        } catch (RuntimeException e) {
+            log.debug("[Ledger] Could not clear segment marks: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Net change for one employee within a flush.
+     */
+    private static final class Delta {
+        private long points;
+        private long earned;
+        private int searchHits;
+    }
+
+    /**
+     * Running total and level of one employee while a flush walks its entries.
+     */
+    private static final class Standing {
+        private long totalPoints;
+        private int level = 1;
+
+        /**
+         * Applies the entry and returns its reason, marked if the entry levelled the employee up.
+         */
+        String reasonFor(Entry e) {
+            if (e.points() <= 0) {
+                return e.reason();
+            }
+            totalPoints += e.points();
+            int reached = (int) Math.min(Constants.MAX_LEVEL, totalPoints / Constants.POINTS_PER_LEVEL + 1);
+            if (reached <= level) {
+                return e.reason();
+            }
+            level = reached;
+            return e.reason() + " (等级提升至 Lv" + reached + ")";
+        }
+    }
+
+    /**
+     * One journaled reward. Stored as a tab-separated line with tabs, newlines
+     * and backslashes escaped in the text fields.
+     */
+    private record Entry(long timestamp, String employeeName, int points, boolean searchHit, String reason) {
+
+        String toLine() {
+            return timestamp + "\t" + escape(employeeName) + "\t" + points + "\t"
+                    + (searchHit ? 1 : 0) + "\t" + escape(reason) + "\n";
+        }
+
+        static Entry parse(String line) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length != 5) {
+                return null; // Torn write at crash time
+            }
+            try {
+                return new Entry(Long.parseLong(parts[0]), unescape(parts[1]), Integer.parseInt(parts[2]),
+                        "1".equals(parts[3]), unescape(parts[4]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String escape(String s) {
+            return s == null ? "" : s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+        }
+
+        private static String unescape(String s) {
+            StringBuilder out = new StringBuilder(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '\\' && i + 1 < s.length()) {
+                    char n = s.charAt(++i);
+                    out.append(n == 't' ? '\t' : n == 'n' ? '\n' : n);
+                } else {
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Buffered entries and journal files for a slice of employees.
+     * All fields are guarded by the stripe's monitor.
+     */
+    private final class Stripe {
+        private final int index;
+        private List<Entry> entries = new ArrayList<>();
+        private final List<Path> pendingSegments = new ArrayList<>();
+        private Path currentSegment;
+        private FileChannel channel;
+        private BufferedWriter writer;
+
+        Stripe(int index) {
+            this.index = index;
+        }
+
+        void append(Entry entry) throws IOException {
+            if (writer == null) {
+                currentSegment = journalDir.resolve("stripe-%02d-%d-%d.log"
+                        .formatted(index, bootTime, segmentSeq.incrementAndGet()));
+                channel = FileChannel.open(currentSegment,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            }
+            writer.write(entry.toLine());
+            writer.flush();
+            if (fsync) {
+                channel.force(false);
+            }
+        }
+
+        /**
+         * Closes the current segment and queues it for deletion after the next successful flush.
+         */
+        void rotate() {
+            if (currentSegment != null) {
+                closeWriter();
+                pendingSegments.add(currentSegment);
+                currentSegment = null;
+            }
+        }
+
+        void closeWriter() {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // Lines were flushed on write; the segment is still replayable
+                    log.warn("[Ledger] Failed to close journal segment {}: {}", currentSegment, e.getMessage());
+                } finally {
+                    writer = null;
+                    channel = null;
+                }
+            }
+        }
+    }
+}
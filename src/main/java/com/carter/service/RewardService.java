@@ -2,12 +2,16 @@ package com.carter.service;
 
 
 import com.carter.entity.ContributorProfile;
-import com.carter.entity.RewardRecord;
 import com.carter.repo.ContributorProfileRepository;
-import com.carter.repo.RewardRecordRepository;
-import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * @author Carter
  * @date 2025/12/17
@@ -16,62 +20,78 @@ import org.springframework.stereotype.Service;
 @Service
 public class RewardService {
 
+    private static final String ENSURE_CONTRIBUTOR_SQL = """
+            INSERT INTO dendrite_contributors
+                (employee_name, current_points, total_accumulated_points, level,
+                 total_tags_submitted, search_hits_count, version)
+            VALUES (?, 0, 0, 1, 0, 0, 0)
+            ON CONFLICT (employee_name) DO NOTHING
+            """;
+
     private final ContributorProfileRepository contributorRepo;
-    private final RewardRecordRepository rewardRepo;
+    private final RewardLedger rewardLedger;
+    private final JdbcTemplate jdbcTemplate;
 
-    public RewardService(ContributorProfileRepository contributorRepo, RewardRecordRepository rewardRepo) {
+    public RewardService(ContributorProfileRepository contributorRepo,
+                         RewardLedger rewardLedger,
+                         JdbcTemplate jdbcTemplate) {
         this.contributorRepo = contributorRepo;
-        this.rewardRepo = rewardRepo;
+        this.rewardLedger = rewardLedger;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
      * 核心方法：给员工加分
+     * 写入奖励账本，定时批量落库 (分数、等级、流水)
      * @param employeeName 员工姓名
      * @param points 分数 (可以是负数)
      * @param reason 原因
      */
-    @Transactional
     public void addPoints(String employeeName, int points, String reason) {
-        // 1. 找到或新建伯乐档案
-        ContributorProfile profile = contributorRepo.findByEmployeeName(employeeName)
-                .orElseGet(() -> createNewContributor(employeeName));
-
-        // 2. 更新分数
-        profile.setCurrentPoints(profile.getCurrentPoints() + points);
-        if (points > 0) {
-            profile.setTotalAccumulatedPoints(profile.getTotalAccumulatedPoints() + points);
-        }
-
-        // 3. 检查升级 (每 100 分升 1 级，最高 5 级)
-        int newLevel = (int) (profile.getTotalAccumulatedPoints() / 100) + 1;
-        if (newLevel > 5) newLevel = 5;
-        if (newLevel > profile.getLevel()) {
-            // 这里可以发一个"升级通知"事件
-            profile.setLevel(newLevel);
-            // 额外奖励升级积分
-            reason += " (等级提升至 Lv" + newLevel + ")";
-        }
-
-        contributorRepo.save(profile);
+        rewardLedger.record(employeeName, points, reason, false);
+    }
 
-        // 4. 记流水
-        RewardRecord record = new RewardRecord();
-        record.setEmployeeName(employeeName);
-        record.setPointsChange(points);
-        record.setReason(reason);
-        rewardRepo.save(record);
+    /**
+     * 发放搜索助攻积分，同时累计助攻次数
+     * @param pointsByEmployee 员工姓名 -> 分数
+     * @param reason 原因
+     */
+    public void addSearchAssistPoints(Map<String, Integer> pointsByEmployee, String reason) {
+        pointsByEmployee.forEach((employeeName, points) ->
+                rewardLedger.record(employeeName, points, reason, true));
     }
 
     /**
-     * 辅助方法：初始化新用户
+     * 查找伯乐档案，不存在则初始化 (并发安全，不依赖账本落库)
+     * @param employeeName 员工姓名
+     * @return 伯乐档案
      */
-    private ContributorProfile createNewContributor(String name) {
-        ContributorProfile p = new ContributorProfile();
-        p.setEmployeeName(name);
-        p.setLevel(1);
-        p.setCurrentPoints(0L);
-        p.setTotalAccumulatedPoints(0L);
-        return contributorRepo.save(p); // 先保存以获取ID
+    public ContributorProfile ensureContributor(String employeeName) {
+        return contributorRepo.findByEmployeeName(employeeName).orElseGet(() -> {
+            jdbcTemplate.update(ENSURE_CONTRIBUTOR_SQL, employeeName);
+            return contributorRepo.findByEmployeeName(employeeName).orElseThrow();
+        });
     }
 
+    /**
+     * 批量查找伯乐档案，缺失的一次性批量初始化
+     * @param employeeNames 员工姓名
+     * @return 员工姓名 -> 伯乐档案
+     */
+    public Map<String, ContributorProfile> ensureContributors(Collection<String> employeeNames) {
+        Map<String, ContributorProfile> profiles = contributorRepo.findByEmployeeNameIn(employeeNames).stream()
+                .collect(Collectors.toMap(ContributorProfile::getEmployeeName, Function.identity()));
+        List<Object[]> missing = employeeNames.stream()
+                .filter(name -> !profiles.containsKey(name))
+                .map(name -> new Object[]{name})
+                .toList();
+        if (missing.isEmpty()) {
+            return profiles;
+        }
+
+        jdbcTemplate.batchUpdate(ENSURE_CONTRIBUTOR_SQL, missing);
+        contributorRepo.findByEmployeeNameIn(missing.stream().map(row -> (String) row[0]).toList())
+                .forEach(profile -> profiles.put(profile.getEmployeeName(), profile));
+        return profiles;
+    }
 }
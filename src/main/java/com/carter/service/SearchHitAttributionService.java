@@ -0,0 +1,83 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.entity.enums.InteractionType;
+import com.carter.event.SearchHitEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rewards taggers when a search hit is attributed to their tags.
+ *
+ * <p>Runs off the request thread. Tag matching is done in Postgres with the
+ * pgvector distance operator, using the query vector already cached by search,
+ * and the resulting rewards go to the write-behind {@link RewardLedger}. Each matched
+ * tag also gets a SEARCH_HIT interaction, which raises its weight.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class SearchHitAttributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchHitAttributionService.class);
+
+    // The selected employee's tags within the distance threshold, compared only with vectors of the same model
+    private static final String MATCHING_TAGS_SQL = """
+            SELECT id, creator_employee
+            FROM dendrite_evaluation_tags
+            WHERE target_employee = ?
+              AND creator_employee IS NOT NULL
+              AND vector IS NOT NULL
+              AND embedding_model = ?
+              AND vector_dims(vector) = ?
+              AND vector <=> ?::vector < ?
+            """;
+
+    private final EmbeddingService embeddingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final RewardService rewardService;
+    private final TagInteractionRecorder interactionRecorder;
+
+    public SearchHitAttributionService(EmbeddingService embeddingService,
+                                       JdbcTemplate jdbcTemplate,
+                                       RewardService rewardService,
+                                       TagInteractionRecorder interactionRecorder) {
+        this.embeddingService = embeddingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rewardService = rewardService;
+        this.interactionRecorder = interactionRecorder;
+    }
+
+    @Async("taskExecutor")
+    @EventListener
+    public void onSearchHit(SearchHitEvent event) {
+        try {
+            float[] queryVector = embeddingService.embedQuery(event.query());
+
+            Map<String, Integer> points = new LinkedHashMap<>();
+            jdbcTemplate.query(MATCHING_TAGS_SQL, rs -> {
+                points.merge(rs.getString("creator_employee"), Constants.SEARCH_HIT_REWARD, Integer::sum);
+                interactionRecorder.record(rs.getLong("id"), InteractionType.SEARCH_HIT, null, event.query());
+            }, event.selectedEmployeeName(), embeddingService.activeModel(), queryVector.length,
+                    queryVector, 1 - Constants.SIMILARITY_THRESHOLD);
+
+            if (points.isEmpty()) {
+                return;
+            }
+
+            rewardService.addSearchAssistPoints(points,
+                    "Search assist: Your tag helped find " + event.selectedEmployeeName());
+            log.info("Rewarded {} taggers for search assist on {}", points.size(), event.selectedEmployeeName());
+        } catch (Exception e) {
+            log.error("Search hit attribution failed for {}", event.selectedEmployeeName(), e);
+        }
+    }
+}
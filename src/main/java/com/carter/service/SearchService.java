@@ -1,23 +1,43 @@
 package com.carter.service;
 
+import com.carter.cache.SemanticResultCache;
 import com.carter.common.Constants;
-import com.carter.common.VectorUtils;
+import com.carter.common.PageCursor;
+import com.carter.common.QuotaManager;
+import com.carter.dto.CursorPage;
 import com.carter.dto.SearchResultDto;
-import com.carter.entity.EvaluationTag;
-import com.carter.repo.EvaluationTagRepository;
+import com.carter.event.SearchHitEvent;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for semantic search and AI-powered recommendations.
@@ -31,36 +51,86 @@ public class SearchService {
 
     private static final Logger log = LoggerFactory.getLogger(SearchService.class);
 
+    // Only vectors of the query's model are comparable; the dimension check keeps a
+    // query embedded just before a model cutover from failing against the new column
     private static final String SEARCH_SQL = """
-            SELECT employee_name, professional_summary,
+            SELECT employee_name, summary_zh, last_updated,
                    1 - (embedding <=> ?::vector) as similarity
             FROM dendrite_profiles
+            WHERE embedding IS NOT NULL
+              AND embedding_model = ?
+              AND vector_dims(embedding) = ?
             ORDER BY similarity DESC
             LIMIT ?
             """;
 
-    private final EmbeddingModel embeddingModel;
+    // Keyset on (distance, id): a page resumes right after the previous page's last row
+    // Ordered by the distance expression itself, as an ANN index requires; the keyset
+    // is a distance bound plus an id tie-break, not a row comparison on a subquery column
+    private static final String SEARCH_PAGE_SQL = """
+            SELECT id, employee_name, summary_zh, last_updated, embedding <=> ?::vector AS distance
+            FROM dendrite_profiles
+            WHERE embedding IS NOT NULL
+              AND embedding_model = ?
+              AND embedding <=> ?::vector >= ?
+              AND (embedding <=> ?::vector > ? OR id > ?)
+            ORDER BY embedding <=> ?::vector, id
+            LIMIT ?
+            """;
+
+    private static final String SEMANTIC_ASK = "ask";
+    private static final String SEMANTIC_SEARCH = "search:";
+
+    private final EmbeddingService embeddingService;
     private final JdbcTemplate jdbcTemplate;
     private final ChatClient chatClient;
-    private final EvaluationTagRepository tagRepo;
-    private final RewardService rewardService;
-    private final com.carter.common.QuotaManager quotaManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuotaManager quotaManager;
+    private final Cache searchResultsCache;
+    private final Cache recommendationCache;
+    private final String chatModel;
+    private final QueryExpansionService queryExpansionService;
+    private final SemanticResultCache semanticCache;
+    private final CandidateReranker reranker;
+    private final Executor expansionExecutor;
+    private final boolean speculativeSearch;
+    private final long expansionBudgetMs;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration hitDedupWindow;
 
-    private final Map<String, String> queryExpansionCache = new ConcurrentHashMap<>();
     private volatile boolean enableQueryExpansion = true;
 
-    public SearchService(EmbeddingModel embeddingModel,
+    public SearchService(EmbeddingService embeddingService,
                          JdbcTemplate jdbcTemplate,
                          ChatClient.Builder builder,
-                         EvaluationTagRepository tagRepo,
-                         RewardService rewardService,
-                         com.carter.common.QuotaManager quotaManager) {
-        this.embeddingModel = embeddingModel;
+                         ApplicationEventPublisher eventPublisher,
+                         QuotaManager quotaManager,
+                         CacheManager cacheManager,
+                         QueryExpansionService queryExpansionService,
+                         SemanticResultCache semanticCache,
+                         CandidateReranker reranker,
+                         @Qualifier("expansionExecutor") Executor expansionExecutor,
+                         StringRedisTemplate redisTemplate,
+                         @Value("${dendrite.search.speculative.enabled:true}") boolean speculativeSearch,
+                         @Value("${dendrite.search.expansion-budget-ms:1500}") long expansionBudgetMs,
+                         @Value("${dendrite.search.hit-dedup-window:1h}") Duration hitDedupWindow,
+                         @Value("${spring.ai.google.genai.chat.options.model:unknown}") String chatModel) {
+        this.embeddingService = embeddingService;
         this.jdbcTemplate = jdbcTemplate;
         this.chatClient = builder.build();
-        this.tagRepo = tagRepo;
-        this.rewardService = rewardService;
+        this.eventPublisher = eventPublisher;
         this.quotaManager = quotaManager;
+        this.searchResultsCache = cacheManager.getCache(Constants.CACHE_SEARCH_RESULTS);
+        this.recommendationCache = cacheManager.getCache(Constants.CACHE_RECOMMENDATIONS);
+        this.chatModel = chatModel;
+        this.queryExpansionService = queryExpansionService;
+        this.semanticCache = semanticCache;
+        this.reranker = reranker;
+        this.expansionExecutor = expansionExecutor;
+        this.speculativeSearch = speculativeSearch;
+        this.expansionBudgetMs = expansionBudgetMs;
+        this.redisTemplate = redisTemplate;
+        this.hitDedupWindow = hitDedupWindow;
     }
 
     /**
@@ -76,80 +146,149 @@ public class SearchService {
 
     /**
      * Searches for similar talent profiles using vector similarity.
+     * Results are cached until the TTL expires or any profile is rewritten,
+     * and near-duplicate queries are served from the semantic cache.
      *
      * @param queryText the search query
      * @param limit maximum number of results
      * @return list of matching profiles with similarity scores
      */
     public List<SearchResultDto> searchSimilarProfiles(String queryText, int limit) {
-        quotaManager.acquireEmbeddingQuota();
-        float[] queryVector = embeddingModel.embed(queryText);
+        return searchResultsCache.get(limit + ":" + queryText.trim(),
+                () -> searchSimilarProfilesUncached(queryText, limit));
+    }
 
-        List<Map<String, Object>> rawResults = jdbcTemplate.queryForList(SEARCH_SQL, queryVector, limit);
+    @SuppressWarnings("unchecked")
+    private List<SearchResultDto> searchSimilarProfilesUncached(String queryText, int limit) {
+        float[] queryVector = embeddingService.embedQuery(queryText);
+
+        List<SearchResultDto> cached = semanticCache.find(SEMANTIC_SEARCH + limit, queryVector, List.class);
+        if (cached != null) {
+            return cached;
+        }
 
-        return rawResults.stream()
+        long epoch = semanticCache.currentEpoch();
+        List<SearchResultDto> results = findCandidates(queryVector, limit);
+        semanticCache.put(SEMANTIC_SEARCH + limit, queryVector, results, epoch);
+        return results;
+    }
+
+    /**
+     * Pages through all profiles by vector similarity, nearest first. The cursor is
+     * bound to the query and the embedding model, so it cannot be replayed against
+     * another query or across a model switch.
+     *
+     * <p>Each page resumes after the previous page's last (distance, id). Without an
+     * ANN index on {@code embedding} every page is a scan with a top-N sort; with an
+     * HNSW index the ORDER BY is served by the index, and deep pages need pgvector's
+     * {@code hnsw.iterative_scan} so the distance bound doesn't filter the whole
+     * candidate list away.</p>
+     *
+     * @param queryText the search query
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @param size page size
+     */
+    public CursorPage<SearchResultDto> searchPage(String queryText, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, Constants.MAX_PAGE_SIZE);
+        String model = embeddingService.activeModel();
+        String queryKey = sha256(model + '\0' + QueryExpansionService.normalize(queryText)).substring(0, 16);
+
+        // Cosine distance is never negative, so (-1, 0) sorts before every row
+        double afterDistance = -1;
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor.Key key = PageCursor.decode(cursor, 3);
+            if (!key.string(0).equals(queryKey)) {
+                throw new DendriteException(ErrorCode.INVALID_PARAMETER, "Cursor belongs to another query");
+            }
+            afterDistance = key.doubleValue(1);
+            afterId = key.longValue(2);
+        }
+
+        float[] queryVector = embeddingService.embedQuery(queryText);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SEARCH_PAGE_SQL, queryVector, model,
+                queryVector, afterDistance, queryVector, afterDistance, afterId, queryVector, pageSize);
+
+        List<SearchResultDto> results = rows.stream()
                 .map(row -> new SearchResultDto(
                         (String) row.get("employee_name"),
-                        (String) row.get("professional_summary"),
-                        ((Number) row.get("similarity")).doubleValue()
+                        (String) row.get("summary_zh"),
+                        1 - ((Number) row.get("distance")).doubleValue(),
+                        row.get("last_updated") instanceof Timestamp ts ? ts.toLocalDateTime() : null
                 ))
                 .toList();
+
+        String nextCursor = null;
+        if (rows.size() == pageSize) {
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            nextCursor = PageCursor.encode(queryKey, ((Number) last.get("distance")).doubleValue(),
+                    ((Number) last.get("id")).longValue());
+        }
+        return new CursorPage<>(results, nextCursor, null);
     }
 
     /**
      * Performs semantic search with AI-powered recommendations.
      * Optionally expands the query using AI before searching.
+     * A recommendation made for a near-identical question is reused without
+     * expansion, search or LLM calls, and an exact repeat whose candidates are
+     * unchanged is answered from the recommendation cache.
+     *
+     * <p>In speculative mode the raw query is searched while expansion is in flight.
+     * If expansion finishes within {@code dendrite.search.expansion-budget-ms} the two
+     * candidate sets are merged, otherwise the raw-query candidates are used alone.</p>
      *
      * @param queryText the user's search query
      * @return AI-generated recommendation text
      */
     public String searchAndRecommend(String queryText) {
-        String expandedQuery = getExpandedQuery(queryText);
+        float[] rawVector = embeddingService.embedQuery(queryText);
+        String cached = semanticCache.find(SEMANTIC_ASK, rawVector, String.class);
+        if (cached != null) {
+            return cached;
+        }
 
-        quotaManager.acquireEmbeddingQuota();
-        float[] queryVector = embeddingModel.embed(expandedQuery);
-        List<Map<String, Object>> candidates = jdbcTemplate.queryForList(
-                SEARCH_SQL, queryVector, Constants.DEFAULT_SEARCH_LIMIT);
+        long epoch = semanticCache.currentEpoch();
+        List<SearchResultDto> candidates = retrieveCandidates(queryText, rawVector);
 
         if (candidates.isEmpty()) {
             return "Sorry, no matching talent found in the knowledge base.";
         }
 
-        return generateRecommendation(queryText, candidates);
+        List<SearchResultDto> retrieved = candidates;
+        String recommendation = recommendationCache.get(recommendationKey(queryText, retrieved), () -> {
+            String expansion = enableQueryExpansion ? queryExpansionService.cachedExpansion(queryText) : null;
+            return generateRecommendation(queryText, reranker.rerank(queryText, expansion, retrieved));
+        });
+        semanticCache.put(SEMANTIC_ASK, rawVector, recommendation, epoch);
+        return recommendation;
     }
 
     /**
      * Tracks when a search result is selected, rewarding contributing taggers.
+     * Attribution runs asynchronously; this only publishes the event. A caller
+     * selecting the same employee for the same (normalized) query again within
+     * {@code dendrite.search.hit-dedup-window} is ignored, so hits can't be
+     * replayed to farm rewards.
      *
      * @param query the original search query
      * @param selectedEmployeeName the selected employee
+     * @param caller the client address that selected it, as resolved behind trusted proxies
+     * @return false if the hit was a repeat and ignored
      */
-    public void trackSearchHit(String query, String selectedEmployeeName) {
-        List<EvaluationTag> tags = tagRepo.findByTargetEmployee(selectedEmployeeName);
-        if (tags.isEmpty()) {
-            return;
-        }
-
-        quotaManager.acquireEmbeddingQuota();
-        float[] queryVector = embeddingModel.embed(query);
-
-        for (EvaluationTag tag : tags) {
-            List<Double> tagVector = tag.getVector();
-            if (tagVector == null || tagVector.isEmpty()) {
-                continue;
-            }
-
-            double similarity = VectorUtils.cosineSimilarity(queryVector, tagVector);
-
-            if (similarity > Constants.SIMILARITY_THRESHOLD) {
-                rewardService.addPoints(
-                        tag.getCreatorEmployee(),
-                        Constants.SEARCH_HIT_REWARD,
-                        "Search assist: Your tag helped find " + selectedEmployeeName
-                );
-                log.info("Rewarded {} for search assist", tag.getCreatorEmployee());
+    public boolean trackSearchHit(String query, String selectedEmployeeName, String caller) {
+        String key = Constants.SEARCH_HIT_DEDUP_PREFIX
+                + sha256(QueryExpansionService.normalize(query) + '\0' + selectedEmployeeName + '\0' + caller);
+        try {
+            if (Boolean.FALSE.equals(redisTemplate.opsForValue().setIfAbsent(key, "1", hitDedupWindow))) {
+                log.debug("Ignoring repeated search hit on {} by {}", selectedEmployeeName, caller);
+                return false;
             }
+        } catch (RuntimeException e) {
+            log.warn("Search hit dedup unavailable, recording anyway: {}", e.getMessage());
         }
+        eventPublisher.publishEvent(new SearchHitEvent(query, selectedEmployeeName));
+        return true;
     }
 
     // ==========================================
@@ -215,49 +354,122 @@ public class SearchService {
     // Private Helpers
     // ==========================================
 
-    private String getExpandedQuery(String queryText) {
+    private List<SearchResultDto> retrieveCandidates(String queryText, float[] rawVector) {
+        int limit = Constants.DEFAULT_SEARCH_LIMIT;
         if (!enableQueryExpansion) {
             log.debug("Economy mode: using original query");
-            return queryText;
+            return findCandidates(rawVector, limit);
+        }
+        if (!speculativeSearch) {
+            return findCandidates(expandedQueryVector(queryText, rawVector), limit);
         }
 
-        String expanded = queryExpansionCache.computeIfAbsent(queryText, this::expandQuery);
-        log.debug("Query expansion: '{}' -> '{}'", queryText, expanded);
+        // Only the expansion text is fetched speculatively. The expanded query is embedded
+        // and searched only if the text arrives within the budget, so a late expansion
+        // costs no embedding call or vector scan; it just warms the expansion cache.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expansionBudgetMs);
+        CompletableFuture<String> expansion;
+        try {
+            expansion = CompletableFuture.supplyAsync(() -> queryExpansionService.expand(queryText), expansionExecutor);
+        } catch (RejectedExecutionException e) {
+            log.debug("Expansion pool saturated, using raw-query candidates");
+            return findCandidates(rawVector, limit);
+        }
+
+        List<SearchResultDto> rawCandidates = findCandidates(rawVector, limit);
+        String expandedQuery;
+        try {
+            expandedQuery = expansion.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Expansion missed {}ms budget, using raw-query candidates", expansionBudgetMs);
+            return rawCandidates;
+        } catch (ExecutionException e) {
+            log.warn("Expansion failed, using raw-query candidates: {}", e.getCause().getMessage());
+            return rawCandidates;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return rawCandidates;
+        }
 
-        if (queryExpansionCache.size() > Constants.QUERY_CACHE_MAX_SIZE) {
-            queryExpansionCache.clear();
-            log.debug("Query cache cleared (exceeded max size)");
+        if (expandedQuery.equals(queryText)) {
+            return rawCandidates;
+        }
+        try {
+            return mergeCandidates(rawCandidates,
+                    findCandidates(embeddingService.embedQuery(expandedQuery), limit), limit);
+        } catch (RuntimeException e) {
+            log.warn("Expanded-query search failed, using raw-query candidates: {}", e.getMessage());
+            return rawCandidates;
         }
+    }
 
-        return expanded;
+    private float[] expandedQueryVector(String queryText, float[] rawVector) {
+        String expandedQuery = queryExpansionService.expand(queryText);
+        return expandedQuery.equals(queryText) ? rawVector : embeddingService.embedQuery(expandedQuery);
     }
 
-    private String expandQuery(String originalQuery) {
-        String prompt = """
-                你是搜索增强助手。用户的搜索词是："%s"
+    private List<SearchResultDto> findCandidates(float[] queryVector, int limit) {
+        return jdbcTemplate.queryForList(SEARCH_SQL, queryVector, embeddingService.activeModel(),
+                        queryVector.length, limit).stream()
+                .map(row -> new SearchResultDto(
+                        (String) row.get("employee_name"),
+                        (String) row.get("summary_zh"),
+                        ((Number) row.get("similarity")).doubleValue(),
+                        row.get("last_updated") instanceof Timestamp ts ? ts.toLocalDateTime() : null
+                ))
+                .toList();
+    }
 
-                请提取核心意图，并添加3-5个相关的专业术语或同义词，
-                用于在人才库中进行向量搜索。
+    /**
+     * Unions two candidate lists, keeping each employee's best similarity.
+     */
+    private List<SearchResultDto> mergeCandidates(List<SearchResultDto> first,
+                                                  List<SearchResultDto> second,
+                                                  int limit) {
+        Map<String, SearchResultDto> byEmployee = new LinkedHashMap<>();
+        for (List<SearchResultDto> candidates : List.of(first, second)) {
+            for (SearchResultDto candidate : candidates) {
+                byEmployee.merge(candidate.employeeName(), candidate,
+                        (a, b) -> a.similarity() >= b.similarity() ? a : b);
+            }
+        }
 
-                示例：
-                输入："会k8s"
-                输出：Kubernetes、容器编排、Docker、云原生、集群运维
+        return byEmployee.values().stream()
+                .sorted(Comparator.comparingDouble(SearchResultDto::similarity).reversed())
+                .limit(limit)
+                .toList();
+    }
 
-                输入："电脑坏了"
-                输出：IT支持、桌面运维、硬件维修、系统修复
+    /**
+     * Key for a recommendation: the chat model plus a hash of the normalized query
+     * and each candidate's name and lastUpdated. Any rewrite of a candidate profile
+     * changes lastUpdated, so stale answers are never matched again.
+     */
+    private String recommendationKey(String queryText, List<SearchResultDto> candidates) {
+        StringBuilder material = new StringBuilder(QueryExpansionService.normalize(queryText));
+        candidates.stream()
+                .sorted(Comparator.comparing(SearchResultDto::employeeName))
+                .forEach(c -> material.append('\n').append(c.employeeName()).append('@').append(c.lastUpdated()));
 
-                只输出扩展后的关键词，用逗号分隔，不要其他内容。
-                """.formatted(originalQuery);
+        return chatModel + ":" + sha256(material.toString());
+    }
 
-        return chatClient.prompt(prompt).call().content();
+    private static String sha256(String material) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(material.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    private String generateRecommendation(String queryText, List<Map<String, Object>> candidates) {
+    private String generateRecommendation(String queryText, List<SearchResultDto> candidates) {
         StringBuilder context = new StringBuilder();
-        for (Map<String, Object> candidate : candidates) {
+        for (SearchResultDto candidate : candidates) {
             context.append(String.format("- 姓名：%s，简介：%s\n",
-                    candidate.get("employee_name"),
-                    candidate.get("professional_summary")));
+                    candidate.employeeName(),
+                    candidate.professionalSummary()));
         }
 
         String prompt = """
@@ -275,7 +487,7 @@ public class SearchService {
                 直接给出推荐结果。
                 """.formatted(queryText, context);
 
-        return chatClient.prompt(prompt).call().content();
+        return quotaManager.callChat(() -> chatClient.prompt(prompt).call().content());
     }
 
     private BatchSearchResult getResult(CompletableFuture<BatchSearchResult> future) {
@@ -1,7 +1,9 @@
 package com.carter.service;
 
+import com.carter.common.QuotaManager;
 import com.carter.entity.SkillRecord;
 import com.carter.entity.TalentProfile;
+import com.carter.event.ProfileUpdatedEvent;
 import com.carter.exception.DendriteException;
 import com.carter.exception.DendriteException.ErrorCode;
 import com.carter.repo.SkillRecordRepository;
@@ -10,13 +12,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.converter.BeanOutputConverter;
-import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -32,27 +36,30 @@ public class SummarizerService {
     private static final Logger log = LoggerFactory.getLogger(SummarizerService.class);
 
     private static final String UPDATE_VECTOR_SQL =
-            "UPDATE dendrite_profiles SET embedding = ?::vector WHERE id = ?";
+            "UPDATE dendrite_profiles SET embedding = ?::vector, embedding_model = ? WHERE id = ?";
 
     private final ChatClient chatClient;
-    private final EmbeddingModel embeddingModel;
+    private final EmbeddingService embeddingService;
     private final SkillRecordRepository skillRepo;
     private final TalentProfileRepository profileRepo;
     private final JdbcTemplate jdbcTemplate;
-    private final com.carter.common.QuotaManager quotaManager;
+    private final QuotaManager quotaManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SummarizerService(ChatClient.Builder builder,
-                             EmbeddingModel embeddingModel,
+                             EmbeddingService embeddingService,
                              SkillRecordRepository skillRepo,
                              TalentProfileRepository profileRepo,
                              JdbcTemplate jdbcTemplate,
-                             com.carter.common.QuotaManager quotaManager) {
+                             QuotaManager quotaManager,
+                             ApplicationEventPublisher eventPublisher) {
         this.chatClient = builder.build();
-        this.embeddingModel = embeddingModel;
+        this.embeddingService = embeddingService;
         this.skillRepo = skillRepo;
         this.profileRepo = profileRepo;
         this.jdbcTemplate = jdbcTemplate;
         this.quotaManager = quotaManager;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -83,9 +90,25 @@ public class SummarizerService {
      */
     @Transactional
     public TalentProfile generateProfile(String employeeName, boolean skipEmbedding) {
+        return generateProfile(employeeName, skipEmbedding, List.of());
+    }
+
+    /**
+     * Generates profile from the stored skills plus skills not yet written,
+     * so a new evaluation's skills can be saved once, together with their vectors.
+     * Callers go through {@link ProfileGenerationCoordinator}, which keeps runs for
+     * the same employee from overlapping.
+     */
+    @Transactional
+    public TalentProfile generateProfile(String employeeName, boolean skipEmbedding, List<SkillRecord> pendingSkills) {
         log.info("Generating profile for employee: {} (skipEmbedding={})", employeeName, skipEmbedding);
 
-        List<SkillRecord> records = skillRepo.findByEmployeeName(employeeName);
+        List<SkillRecord> records = new ArrayList<>(skillRepo.findByEmployeeName(employeeName));
+        // Pending skills written in the meantime are already among the stored ones
+        Set<Long> storedIds = records.stream().map(SkillRecord::getId).collect(Collectors.toSet());
+        pendingSkills.stream()
+                .filter(skill -> skill.getId() == null || !storedIds.contains(skill.getId()))
+                .forEach(records::add);
         if (records.isEmpty()) {
             throw new DendriteException(ErrorCode.EMPLOYEE_NO_DATA, employeeName);
         }
@@ -97,6 +120,9 @@ public class SummarizerService {
             updateProfileVector(profile, aiResult);
         }
 
+        // Delivered after commit, so caches never reload the old row
+        eventPublisher.publishEvent(new ProfileUpdatedEvent(employeeName));
+
         log.info("Profile generated for {}: {} skills extracted", employeeName,
                 aiResult != null && aiResult.tagsZh() != null ? aiResult.tagsZh().size() : 0);
 
@@ -134,7 +160,7 @@ public class SummarizerService {
                 %s
                 """.formatted(employeeName, rawEvidence, converter.getFormat());
 
-        String response = chatClient.prompt(prompt).call().content();
+        String response = quotaManager.callChat(() -> chatClient.prompt(prompt).call().content());
         return converter.convert(response);
     }
 
@@ -164,10 +190,10 @@ public class SummarizerService {
         // Use English summary for vector (better for semantic search)
         String textForVector = aiResult.summaryEn() + " " + String.join(", ", aiResult.tagsEn());
         
-        // Rate limit protection
-        quotaManager.acquireEmbeddingQuota();
-        float[] vector = embeddingModel.embed(textForVector);
-        jdbcTemplate.update(UPDATE_VECTOR_SQL, vector, profile.getId());
+        // Rate limited through the embedding quota
+        String model = embeddingService.activeModel();
+        float[] vector = embeddingService.embedAll(List.of(textForVector), model).get(0);
+        jdbcTemplate.update(UPDATE_VECTOR_SQL, vector, model, profile.getId());
 
         log.debug("Vector updated for profile: {}", profile.getId());
     }
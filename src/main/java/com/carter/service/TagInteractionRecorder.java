@@ -0,0 +1,256 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.entity.enums.InteractionType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous writer for {@code TagInteraction} events.
+ *
+ * <p>{@link #record} only claims a slot in a bounded ring buffer with one CAS, so
+ * callers on the request path never block or touch the database. A scheduled flush
+ * drains the ring, inserts the interactions in JDBC batches and applies the summed
+ * {@link InteractionType#getWeightDelta() weight deltas} to each tag, in one
+ * transaction. When the ring is full, new events are dropped and counted.</p>
+ *
+ * <p>Interactions submitted by users go through {@link #recordFromUser}, which admits
+ * one view and one vote per (tag, client address) within {@code dendrite.interactions.dedup-window}.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Component
+public class TagInteractionRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(TagInteractionRecorder.class);
+
+    // Interactions for tags deleted since they were recorded are skipped rather than failing the batch
+    private static final String INSERT_INTERACTION_SQL = """
+            INSERT INTO dendrite_tag_interactions (tag_id, type, trigger_user, related_query, timestamp)
+            SELECT ?, ?, ?, ?, ?
+            WHERE EXISTS (SELECT 1 FROM dendrite_evaluation_tags WHERE id = ?)
+            """;
+
+    private static final String UPDATE_WEIGHT_SQL = """
+            UPDATE dendrite_evaluation_tags
+            SET weight = GREATEST(?, COALESCE(weight, 0) + ?)
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final int batchSize;
+    private final Duration dedupWindow;
+
+    // Multi-producer, single-consumer ring. Producers claim a sequence with CAS on tail,
+    // then publish into the slot; the consumer advances head after clearing a slot.
+    private final AtomicReferenceArray<Interaction> ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private long reportedDrops;
+
+    public TagInteractionRecorder(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  StringRedisTemplate redisTemplate,
+                                  @Value("${dendrite.interactions.buffer-size:65536}") int bufferSize,
+                                  @Value("${dendrite.interactions.batch-size:500}") int batchSize,
+                                  @Value("${dendrite.interactions.dedup-window:24h}") Duration dedupWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.dedupWindow = dedupWindow;
+        int capacity = Integer.highestOneBit(Math.max(1, bufferSize - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Queues an interaction. Never blocks.
+     *
+     * @param tagId the tag that was interacted with
+     * @param type interaction type
+     * @param triggerUser who triggered it, or null
+     * @param relatedQuery the search query for SEARCH_HIT, or null
+     * @return false if the buffer was full and the event was dropped
+     */
+    public boolean record(long tagId, InteractionType type, String triggerUser, String relatedQuery) {
+        Interaction interaction = new Interaction(tagId, type, truncate(triggerUser), truncate(relatedQuery),
+                System.currentTimeMillis());
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head > mask) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        ring.set((int) seq & mask, interaction);
+        return true;
+    }
+
+    /**
+     * Queues an interaction submitted by a client, unless the client already viewed
+     * (for {@code VIEWED}) or voted on (for {@code UPVOTE}/{@code DOWNVOTE}) the tag
+     * within the dedup window. Up- and downvotes share a slot, so a client can't vote
+     * a tag both ways. If Redis is unreachable the interaction is recorded anyway.
+     *
+     * <p>The dedup is keyed on the client address, not on the self-reported user,
+     * which any caller could vary freely; users behind one address share a slot.</p>
+     *
+     * @param tagId the tag that was interacted with
+     * @param type VIEWED, UPVOTE or DOWNVOTE
+     * @param user the reported user, stored with the interaction; may be null
+     * @param client the client address, as resolved behind trusted proxies
+     * @return what happened to the interaction
+     */
+    public RecordOutcome recordFromUser(long tagId, InteractionType type, String user, String client) {
+        String kind = type == InteractionType.VIEWED ? "view" : "vote";
+        String key = Constants.INTERACTION_DEDUP_PREFIX + kind + ":" + tagId + ":" + client;
+        String triggerUser = user != null ? user : client;
+
+        boolean claimed;
+        try {
+            claimed = !Boolean.FALSE.equals(redisTemplate.opsForValue().setIfAbsent(key, type.name(), dedupWindow));
+        } catch (RuntimeException e) {
+            log.warn("Interaction dedup unavailable, recording anyway: {}", e.getMessage());
+            return record(tagId, type, triggerUser, null) ? RecordOutcome.RECORDED : RecordOutcome.DROPPED;
+        }
+        if (!claimed) {
+            return RecordOutcome.DUPLICATE;
+        }
+
+        if (!record(tagId, type, triggerUser, null)) {
+            // Let the user retry once there is room
+            try {
+                redisTemplate.delete(key);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release interaction dedup key {}: {}", key, e.getMessage());
+            }
+            return RecordOutcome.DROPPED;
+        }
+        return RecordOutcome.RECORDED;
+    }
+
+    /**
+     * Writes buffered interactions and applies their weight deltas.
+     */
+    @Scheduled(fixedDelayString = "${dendrite.interactions.flush-interval-ms:1000}")
+    public void flush() {
+        if (!drainLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Interaction> batch;
+            while (!(batch = drain()).isEmpty()) {
+                try {
+                    write(batch);
+                    written.add(batch.size());
+                } catch (RuntimeException e) {
+                    // Dropped: interactions are best-effort signals, not a ledger
+                    log.error("Failed to write {} tag interactions", batch.size(), e);
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+
+        long drops = dropped.sum();
+        if (drops > reportedDrops) {
+            log.warn("Tag interaction buffer full, dropped {} events", drops - reportedDrops);
+            reportedDrops = drops;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Buffered and lifetime counters.
+     */
+    public InteractionStats stats() {
+        return new InteractionStats(tail.get() - head, ring.length(), written.sum(), dropped.sum());
+    }
+
+    private List<Interaction> drain() {
+        List<Interaction> batch = new ArrayList<>(Math.min(batchSize, (int) (tail.get() - head)));
+        long seq = head;
+        while (batch.size() < batchSize && seq < tail.get()) {
+            int index = (int) seq & mask;
+            Interaction interaction = ring.get(index);
+            if (interaction == null) {
+                break; // Claimed but not yet published; picked up next time
+            }
+            ring.set(index, null);
+            batch.add(interaction);
+            seq++;
+            head = seq;
+        }
+        return batch;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > Constants.MAX_INTERACTION_TEXT_LENGTH
+                ? value.substring(0, Constants.MAX_INTERACTION_TEXT_LENGTH)
+                : value;
+    }
+
+    private void write(List<Interaction> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        Map<Long, Double> deltas = new LinkedHashMap<>();
+        for (Interaction i : batch) {
+            rows.add(new Object[]{i.tagId(), i.type().name(), i.triggerUser(), i.relatedQuery(),
+                    new Timestamp(i.timestamp()), i.tagId()});
+            deltas.merge(i.tagId(), i.type().getWeightDelta(), Double::sum);
+        }
+
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((tagId, delta) -> updates.add(new Object[]{Constants.MIN_TAG_WEIGHT, delta, tagId}));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_INTERACTION_SQL, rows);
+            jdbcTemplate.batchUpdate(UPDATE_WEIGHT_SQL, updates);
+        });
+        log.debug("Wrote {} tag interactions, updated {} tag weights", rows.size(), updates.size());
+    }
+
+    private record Interaction(long tagId, InteractionType type, String triggerUser,
+                               String relatedQuery, long timestamp) {}
+
+    /**
+     * Result of {@link #recordFromUser}.
+     */
+    public enum RecordOutcome { RECORDED, DUPLICATE, DROPPED }
+
+    /**
+     * Interaction buffer statistics.
+     */
+    public record InteractionStats(long buffered, int capacity, long written, long dropped) {}
+}
@@ -0,0 +1,201 @@
+package com.carter.service;
+
+import com.carter.event.TaskProgressEvent;
+import com.carter.service.TaskProgressService.TaskProgress;
+import com.carter.service.TaskProgressService.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes task progress to browsers over Server-Sent Events.
+ *
+ * <p>One SSE connection (a subscription) can follow any number of tasks, and more
+ * tasks can be added to it later without reconnecting. Every subscription gets the
+ * current state of a task as soon as it starts following it, then one
+ * {@code progress} event per change. Finished tasks are unfollowed automatically.
+ * Changes made on other replicas arrive through {@link TaskProgressService}'s Redis
+ * channel, so a stream can be served by any replica.</p>
+ *
+ * @author Carter
+ * @since 1.0.0
+ */
+@Service
+public class TaskProgressBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskProgressBroadcaster.class);
+
+    private static final String EVENT_SUBSCRIBED = "subscribed";
+    private static final String EVENT_PROGRESS = "progress";
+
+    private final TaskProgressService progressService;
+    private final long timeoutMs;
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscription>> subscribersByTask = new ConcurrentHashMap<>();
+
+    public TaskProgressBroadcaster(TaskProgressService progressService,
+                                   @Value("${dendrite.tasks.sse-timeout-ms:1800000}") long timeoutMs) {
+        this.progressService = progressService;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Opens a subscription following the given tasks.
+     * The first event carries the subscription ID used by {@link #follow}.
+     *
+     * @param taskIds tasks to follow, may be empty
+     * @return the SSE emitter
+     */
+    public SseEmitter subscribe(Collection<String> taskIds) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(UUID.randomUUID().toString(), emitter);
+        subscriptions.put(subscription.id, subscription);
+
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+
+        send(subscription, EVENT_SUBSCRIBED, Map.of("subscriptionId", subscription.id));
+        follow(subscription, taskIds);
+        log.debug("SSE subscription {} opened for {} tasks", subscription.id, taskIds.size());
+        return emitter;
+    }
+
+    /**
+     * Adds tasks to an open subscription.
+     *
+     * @param subscriptionId the subscription ID
+     * @param taskIds tasks to follow
+     * @return false if the subscription no longer exists
+     */
+    public boolean follow(String subscriptionId, Collection<String> taskIds) {
+        Subscription subscription = subscriptions.get(subscriptionId);
+        if (subscription == null) {
+            return false;
+        }
+        follow(subscription, taskIds);
+        return true;
+    }
+
+    /**
+     * Number of open subscriptions and followed tasks.
+     */
+    public BroadcastStats stats() {
+        return new BroadcastStats(subscriptions.size(), subscribersByTask.size());
+    }
+
+    @EventListener
+    public void onProgress(TaskProgressEvent event) {
+        TaskProgress progress = event.progress();
+        boolean finished = isFinished(progress);
+
+        Set<Subscription> subscribers = finished
+                ? subscribersByTask.remove(progress.taskId())
+                : subscribersByTask.get(progress.taskId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscription subscription : subscribers) {
+            if (finished) {
+                subscription.taskIds.remove(progress.taskId());
+            }
+            send(subscription, EVENT_PROGRESS, progress);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects closed clients.
+     */
+    @Scheduled(fixedDelayString = "${dendrite.tasks.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions.values()) {
+            synchronized (subscription) {
+                try {
+                    subscription.emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscription);
+                }
+            }
+        }
+    }
+
+    private void follow(Subscription subscription, Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        for (String taskId : taskIds) {
+            subscription.taskIds.add(taskId);
+            subscribersByTask.computeIfAbsent(taskId, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+
+        // Read after registering, so a change racing with this snapshot is not missed
+        for (TaskProgress current : progressService.getProgresses(taskIds)) {
+            send(subscription, EVENT_PROGRESS, current);
+            if (isFinished(current)) {
+                unfollow(subscription, current.taskId());
+            }
+        }
+    }
+
+    private void send(Subscription subscription, String name, Object data) {
+        // SseEmitter is not safe for concurrent sends
+        synchronized (subscription) {
+            try {
+                subscription.emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE subscription {} closed: {}", subscription.id, e.getMessage());
+                remove(subscription);
+            }
+        }
+    }
+
+    private void unfollow(Subscription subscription, String taskId) {
+        subscription.taskIds.remove(taskId);
+        subscribersByTask.computeIfPresent(taskId, (k, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void remove(Subscription subscription) {
+        if (subscriptions.remove(subscription.id) == null) {
+            return;
+        }
+        for (String taskId : List.copyOf(subscription.taskIds)) {
+            unfollow(subscription, taskId);
+        }
+    }
+
+    private static boolean isFinished(TaskProgress progress) {
+        return progress.status() == TaskStatus.COMPLETED || progress.status() == TaskStatus.FAILED;
+    }
+
+    private static final class Subscription {
+        final String id;
+        final SseEmitter emitter;
+        final Set<String> taskIds = ConcurrentHashMap.newKeySet();
+
+        Subscription(String id, SseEmitter emitter) {
+            this.id = id;
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * SSE broadcaster statistics.
+     */
+    public record BroadcastStats(int subscriptions, int followedTasks) {}
+}
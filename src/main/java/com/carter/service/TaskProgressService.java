@@ -1,28 +1,85 @@
 package com.carter.service;
 
+import com.carter.common.Constants;
+import com.carter.event.TaskProgressEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
 
 /**
  * Service for tracking evaluation task progress.
- * Enables real-time progress display in frontend.
+ * Enables real-time progress display in frontend: every change is published
+ * as a {@link TaskProgressEvent} and pushed to SSE subscribers.
+ *
+ * <p>Progress is stored in one Redis hash per task, so any replica can serve it.
+ * Running tasks expire after {@code dendrite.tasks.active-ttl} without an update,
+ * finished tasks after {@code dendrite.tasks.finished-ttl}. Task IDs come from a
+ * Redis counter and are unique across replicas. Changes are broadcast on a Redis
+ * channel and re-published locally as events on every replica.</p>
  *
  * @author Carter
  * @since 1.0.0
  */
 @Service
-public class TaskProgressService {
+public class TaskProgressService implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskProgressService.class);
+
+    private static final String F_EMPLOYEE = "employeeName";
+    private static final String F_STATUS = "status";
+    private static final String F_STEP_ZH = "stepZh";
+    private static final String F_STEP_EN = "stepEn";
+    private static final String F_PERCENT = "percent";
+    private static final String F_START = "startTime";
+    private static final String F_END = "endTime";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Duration activeTtl;
+    private final Duration finishedTtl;
 
-    private final Map<String, TaskProgress> taskProgressMap = new ConcurrentHashMap<>();
+    public TaskProgressService(StringRedisTemplate redisTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               ObjectMapper objectMapper,
+                               RedisMessageListenerContainer listenerContainer,
+                               @Value("${dendrite.tasks.active-ttl:1h}") Duration activeTtl,
+                               @Value("${dendrite.tasks.finished-ttl:5m}") Duration finishedTtl) {
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.activeTtl = activeTtl;
+        this.finishedTtl = finishedTtl;
+        listenerContainer.addMessageListener(this, new ChannelTopic(Constants.TASK_CHANNEL));
+    }
 
     /**
      * Creates a new task and returns its ID.
      */
     public String createTask(String employeeName) {
-        String taskId = "task_" + System.currentTimeMillis();
+        Long seq = redisTemplate.opsForValue().increment(Constants.TASK_SEQ_KEY);
+        String taskId = "task_" + seq;
         TaskProgress progress = new TaskProgress(
                 taskId,
                 employeeName,
@@ -33,7 +90,7 @@ public class TaskProgressService {
                 LocalDateTime.now(),
                 null
         );
-        taskProgressMap.put(taskId, progress);
+        save(progress);
         return taskId;
     }
 
@@ -41,9 +98,9 @@ public class TaskProgressService {
      * Updates task progress.
      */
     public void updateProgress(String taskId, TaskStatus status, String stepZh, String stepEn, int percent) {
-        TaskProgress existing = taskProgressMap.get(taskId);
+        TaskProgress existing = getProgress(taskId);
         if (existing != null) {
-            taskProgressMap.put(taskId, new TaskProgress(
+            save(new TaskProgress(
                     taskId,
                     existing.employeeName(),
                     status,
@@ -60,9 +117,9 @@ public class TaskProgressService {
      * Marks task as completed.
      */
     public void completeTask(String taskId, String resultZh, String resultEn) {
-        TaskProgress existing = taskProgressMap.get(taskId);
+        TaskProgress existing = getProgress(taskId);
         if (existing != null) {
-            taskProgressMap.put(taskId, new TaskProgress(
+            save(new TaskProgress(
                     taskId,
                     existing.employeeName(),
                     TaskStatus.COMPLETED,
@@ -79,9 +136,9 @@ public class TaskProgressService {
      * Marks task as failed.
      */
     public void failTask(String taskId, String errorZh, String errorEn) {
-        TaskProgress existing = taskProgressMap.get(taskId);
+        TaskProgress existing = getProgress(taskId);
         if (existing != null) {
-            taskProgressMap.put(taskId, new TaskProgress(
+            save(new TaskProgress(
                     taskId,
                     existing.employeeName(),
                     TaskStatus.FAILED,
@@ -98,18 +155,105 @@ public class TaskProgressService {
      * Gets current task progress.
      */
     public TaskProgress getProgress(String taskId) {
-        return taskProgressMap.get(taskId);
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(key(taskId));
+        return fromHash(taskId, fields);
     }
 
     /**
-     * Cleans up old completed tasks (older than 5 minutes).
+     * Gets the progress of many tasks in one pipelined round trip.
+     *
+     * @param taskIds task IDs
+     * @return progress of the tasks that exist, in input order
      */
-    public void cleanupOldTasks() {
-        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(5);
-        taskProgressMap.entrySet().removeIf(entry -> {
-            TaskProgress p = entry.getValue();
-            return p.endTime() != null && p.endTime().isBefore(cutoff);
+    public List<TaskProgress> getProgresses(Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = List.copyOf(taskIds);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            ids.forEach(id -> conn.hGetAll(key(id)));
+            return null;
         });
+
+        List<TaskProgress> progresses = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> fields = (Map<Object, Object>) results.get(i);
+            TaskProgress progress = fromHash(ids.get(i), fields);
+            if (progress != null) {
+                progresses.add(progress);
+            }
+        }
+        return progresses;
+    }
+
+    /**
+     * Re-publishes progress changes from any replica as local events.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            TaskProgress progress = objectMapper.readValue(message.getBody(), TaskProgress.class);
+            eventPublisher.publishEvent(new TaskProgressEvent(progress));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed task progress message: {}",
+                    new String(message.getBody(), StandardCharsets.UTF_8), e);
+        }
+    }
+
+    private void save(TaskProgress progress) {
+        Map<String, String> fields = toHash(progress);
+        String key = key(progress.taskId());
+        Duration ttl = progress.endTime() != null ? finishedTtl : activeTtl;
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(progress);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize task progress", e);
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.hMSet(key, fields);
+            conn.expire(key, ttl.toSeconds());
+            conn.publish(Constants.TASK_CHANNEL, payload);
+            return null;
+        });
+    }
+
+    private static String key(String taskId) {
+        return Constants.TASK_KEY_PREFIX + taskId;
+    }
+
+    private static Map<String, String> toHash(TaskProgress progress) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(F_EMPLOYEE, progress.employeeName());
+        fields.put(F_STATUS, progress.status().name());
+        fields.put(F_STEP_ZH, Objects.toString(progress.stepZh(), ""));
+        fields.put(F_STEP_EN, Objects.toString(progress.stepEn(), ""));
+        fields.put(F_PERCENT, String.valueOf(progress.percent()));
+        fields.put(F_START, progress.startTime().toString());
+        fields.put(F_END, progress.endTime() != null ? progress.endTime().toString() : "");
+        return fields;
+    }
+
+    private static TaskProgress fromHash(String taskId, Map<Object, Object> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        String end = (String) fields.get(F_END);
+        return new TaskProgress(
+                taskId,
+                (String) fields.get(F_EMPLOYEE),
+                TaskStatus.valueOf((String) fields.get(F_STATUS)),
+                (String) fields.get(F_STEP_ZH),
+                (String) fields.get(F_STEP_EN),
+                Integer.parseInt((String) fields.get(F_PERCENT)),
+                LocalDateTime.parse((String) fields.get(F_START)),
+                end == null || end.isEmpty() ? null : LocalDateTime.parse(end)
+        );
     }
 
     // ==========================================
@@ -134,4 +278,3 @@ public class TaskProgressService {
             LocalDateTime endTime
     ) {}
 }
-
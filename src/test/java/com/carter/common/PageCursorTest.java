@@ -0,0 +1,89 @@
+package com.carter.common;
+
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsTimestampAndId() {
+        LocalDateTime updated = LocalDateTime.of(2025, 12, 17, 9, 30, 15, 123_456_000);
+
+        PageCursor.Key key = PageCursor.decode(PageCursor.encode(updated, 42L), 2);
+
+        assertThat(key.time(0)).isEqualTo(updated);
+        assertThat(key.longValue(1)).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsQueryKeyDistanceAndId() {
+        PageCursor.Key key = PageCursor.decode(PageCursor.encode("7f3a21", 0.1875, 9_000_000_001L), 3);
+
+        assertThat(key.string(0)).isEqualTo("7f3a21");
+        assertThat(key.doubleValue(1)).isEqualTo(0.1875);
+        assertThat(key.longValue(2)).isEqualTo(9_000_000_001L);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = PageCursor.encode("??>>~~", LocalDateTime.of(2025, 1, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void lastPartKeepsSeparators() {
+        PageCursor.Key key = PageCursor.decode(PageCursor.encode(1L, "a|b"), 2);
+
+        assertThat(key.string(1)).isEqualTo("a|b");
+    }
+
+    @Test
+    void rejectsTokenThatIsNotBase64() {
+        assertInvalid(() -> PageCursor.decode("not a cursor!", 2));
+    }
+
+    @Test
+    void rejectsTokenWithTooFewParts() {
+        assertInvalid(() -> PageCursor.decode(PageCursor.encode(42L), 2));
+    }
+
+    @Test
+    void rejectsTamperedNumericPart() {
+        PageCursor.Key key = PageCursor.decode(forge("2025-12-17T09:30|42; DROP TABLE"), 2);
+
+        assertInvalid(() -> key.longValue(1));
+    }
+
+    @Test
+    void rejectsTamperedTimestamp() {
+        PageCursor.Key key = PageCursor.decode(forge("yesterday|42"), 2);
+
+        assertInvalid(() -> key.time(0));
+    }
+
+    @Test
+    void rejectsTamperedDistance() {
+        PageCursor.Key key = PageCursor.decode(forge("7f3a21|close|42"), 3);
+
+        assertInvalid(() -> key.doubleValue(1));
+    }
+
+    private static String forge(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(Runnable decode) {
+        assertThatThrownBy(decode::run)
+                .isInstanceOf(DendriteException.class)
+                .satisfies(e -> assertThat(((DendriteException) e).getErrorCode()).isEqualTo(ErrorCode.INVALID_PARAMETER));
+    }
+}
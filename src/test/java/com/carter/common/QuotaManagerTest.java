@@ -0,0 +1,31 @@
+package com.carter.common;
+
+import com.google.genai.errors.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuotaManagerTest {
+
+    @Test
+    void providerStatusIsCheckedBeforeTheMessage() {
+        assertThat(QuotaManager.isThrottled(new ApiException(429, "RESOURCE_EXHAUSTED", "Quota exceeded"))).isTrue();
+        assertThat(QuotaManager.isThrottled(new RuntimeException("retry failed",
+                new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS)))).isTrue();
+
+        // A 400 mentioning 429 in its text is not throttling
+        assertThat(QuotaManager.isThrottled(new ApiException(400, "INVALID_ARGUMENT", "Input has 429 tokens too many"))).isFalse();
+    }
+
+    @Test
+    void messageFallbackMatchesOnlyAStandalone429() {
+        assertThat(QuotaManager.isThrottled(new RuntimeException("HTTP 429 - quota exceeded"))).isTrue();
+        assertThat(QuotaManager.isThrottled(new IllegalStateException("wrapped",
+                new RuntimeException("Too Many Requests")))).isTrue();
+
+        assertThat(QuotaManager.isThrottled(new RuntimeException("request 84291a failed"))).isFalse();
+        assertThat(QuotaManager.isThrottled(new RuntimeException("embedding took 1429ms"))).isFalse();
+    }
+}
@@ -0,0 +1,75 @@
+package com.carter.config;
+
+import com.carter.dto.ProfileView;
+import com.carter.dto.SearchResultDto;
+import com.carter.entity.enums.StandardCompetency;
+import com.carter.service.QueryExpansionService.ExpansionEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisConfigTest {
+
+    private final GenericJackson2JsonRedisSerializer serializer = RedisConfig.jsonSerializer();
+
+    @Test
+    void profileViewRoundTrips() {
+        ProfileView view = new ProfileView(7L, "zhang.wei", "摘要", "summary",
+                List.copyOf(List.of("Java", "SQL")), List.of(),
+                LocalDateTime.of(2025, 12, 16, 9, 30, 15, 123_000_000));
+
+        assertThat(roundTrip(view)).isEqualTo(view);
+    }
+
+    @Test
+    void searchResultsRoundTrip() {
+        List<SearchResultDto> results = Stream.of(
+                new SearchResultDto("zhang.wei", "Backend engineer", 0.87, LocalDateTime.of(2025, 12, 16, 9, 30)),
+                new SearchResultDto("li.na", "Data engineer", 0.81, null)).toList();
+
+        assertThat(roundTrip(results)).isEqualTo(results);
+    }
+
+    @Test
+    void vectorsRoundTripAsFloatArrays() {
+        float[] vector = {0.1f, -0.25f, 3e-7f};
+
+        assertThat(roundTrip(vector)).isInstanceOf(float[].class).isEqualTo(vector);
+    }
+
+    @Test
+    void competencyCentroidsRoundTripAsEnumMap() {
+        Map<StandardCompetency, float[]> centroids = new EnumMap<>(StandardCompetency.class);
+        centroids.put(StandardCompetency.PROBLEM_SOLVING, new float[]{0.5f, 0.5f});
+
+        Object read = roundTrip(centroids);
+
+        assertThat(read).isInstanceOf(EnumMap.class);
+        assertThat(((Map<?, ?>) read).get(StandardCompetency.PROBLEM_SOLVING)).isEqualTo(new float[]{0.5f, 0.5f});
+    }
+
+    @Test
+    void expansionEntryAndStringsRoundTrip() {
+        ExpansionEntry entry = new ExpansionEntry("java backend microservices", 1_734_400_000_000L);
+
+        assertThat(roundTrip(entry)).isEqualTo(entry);
+        assertThat(roundTrip("Focus on mentoring")).isEqualTo("Focus on mentoring");
+    }
+
+    @Test
+    void cachedNullRoundTrips() {
+        assertThat(roundTrip(NullValue.INSTANCE)).isSameAs(NullValue.INSTANCE);
+    }
+
+    private Object roundTrip(Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+}
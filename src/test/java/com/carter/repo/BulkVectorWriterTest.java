@@ -0,0 +1,142 @@
+package com.carter.repo;
+
+import com.carter.repo.BulkVectorWriter.ChunkedCopyStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BulkVectorWriterTest {
+
+    private CopyIn copy;
+    private ChunkedCopyStream out;
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        copy = mock(CopyIn.class);
+        doAnswer(inv -> {
+            sent.write(inv.<byte[]>getArgument(0), inv.getArgument(1), inv.getArgument(2));
+            return null;
+        }).when(copy).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        out = new ChunkedCopyStream(copy);
+    }
+
+    @Test
+    void headerMatchesCopyBinarySignature() throws Exception {
+        out.writeHeader();
+        out.flushChunk();
+
+        ByteBuffer expected = ByteBuffer.allocate(19)
+                .put("PGCOPY\n".getBytes(StandardCharsets.US_ASCII))
+                .put((byte) 0xFF).put((byte) '\r').put((byte) '\n').put((byte) 0)
+                .putInt(0)   // flags
+                .putInt(0);  // header extension length
+        assertThat(sent.toByteArray()).isEqualTo(expected.array());
+    }
+
+    @Test
+    void vectorUsesPgvectorBinaryLayout() throws Exception {
+        out.writeVector(new float[]{1.5f, -2f, 0.25f});
+        out.flushChunk();
+
+        // vector_recv: int16 dimensions, int16 unused, then big-endian float4 values
+        ByteBuffer expected = ByteBuffer.allocate(4 + 4 + 12)
+                .putInt(16)
+                .putShort((short) 3)
+                .putShort((short) 0)
+                .putFloat(1.5f).putFloat(-2f).putFloat(0.25f);
+        assertThat(sent.toByteArray()).isEqualTo(expected.array());
+    }
+
+    @Test
+    void doubleListVectorEncodesLikeFloatArray() throws Exception {
+        out.writeVector(new float[]{0.1f, 0.2f, 0.3f});
+        out.flushChunk();
+        byte[] fromFloats = sent.toByteArray();
+        sent.reset();
+
+        out.writeVector(List.of(0.1, 0.2, 0.3));
+        out.flushChunk();
+
+        assertThat(sent.toByteArray()).isEqualTo(fromFloats);
+    }
+
+    @Test
+    void missingValuesAreSqlNull() throws Exception {
+        out.writeVector((float[]) null);
+        out.writeVector(new float[0]);
+        out.writeVector((List<Double>) null);
+        out.writeText(null);
+        out.writeInt8(null);
+        out.writeTimestamp(null);
+        out.flushChunk();
+
+        ByteBuffer expected = ByteBuffer.allocate(24);
+        for (int i = 0; i < 6; i++) {
+            expected.putInt(-1);
+        }
+        assertThat(sent.toByteArray()).isEqualTo(expected.array());
+    }
+
+    @Test
+    void textLengthIsInUtf8Bytes() throws Exception {
+        out.writeText("张伟");
+        out.flushChunk();
+
+        byte[] utf8 = "张伟".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer expected = ByteBuffer.allocate(4 + utf8.length).putInt(utf8.length).put(utf8);
+        assertThat(sent.toByteArray()).isEqualTo(expected.array());
+    }
+
+    @Test
+    void int8IsLengthPrefixed() throws Exception {
+        out.writeInt8(9_000_000_001L);
+        out.flushChunk();
+
+        assertThat(sent.toByteArray()).isEqualTo(ByteBuffer.allocate(12).putInt(8).putLong(9_000_000_001L).array());
+    }
+
+    @Test
+    void timestampIsMicrosecondsSincePostgresEpoch() throws Exception {
+        out.writeTimestamp(LocalDateTime.of(2000, 1, 1, 0, 0, 0, 1_000));
+        out.writeTimestamp(LocalDateTime.of(1999, 12, 31, 23, 59, 59));
+        out.flushChunk();
+
+        ByteBuffer expected = ByteBuffer.allocate(24)
+                .putInt(8).putLong(1)
+                .putInt(8).putLong(-1_000_000);
+        assertThat(sent.toByteArray()).isEqualTo(expected.array());
+    }
+
+    @Test
+    void largeStreamIsSentInChunksWithoutLosingBytes() throws Exception {
+        String evidence = "x".repeat(100);
+        ByteBuffer expected = ByteBuffer.allocate(2000 * (2 + 4 + evidence.length()) + 2);
+
+        for (int i = 0; i < 2000; i++) {
+            out.writeShort(1);
+            out.writeText(evidence);
+            expected.putShort((short) 1).putInt(evidence.length()).put(evidence.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeShort(-1);
+        out.flushChunk();
+        expected.putShort((short) -1);
+
+        verify(copy, atLeast(3)).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        assertThat(sent.toByteArray()).isEqualTo(expected.array());
+    }
+}
@@ -0,0 +1,197 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.exception.DendriteException;
+import com.carter.exception.DendriteException.ErrorCode;
+import com.carter.service.EvaluationImportService.ImportFormat;
+import com.carter.service.EvaluationImportService.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EvaluationImportServiceTest {
+
+    private static final String VALID = "Shipped the billing adapter in two days";
+
+    // Evaluations handed to the AI path, by employee
+    private final Map<String, String> processed = new LinkedHashMap<>();
+
+    private EvaluationImportService importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        GardenerService gardenerService = mock(GardenerService.class);
+        when(gardenerService.processBatchEvaluations(anyMap())).thenAnswer(inv -> {
+            processed.putAll(inv.<Map<String, String>>getArgument(0));
+            return List.of();
+        });
+
+        TaskProgressService progressService = mock(TaskProgressService.class);
+        when(progressService.createTask(anyString())).thenReturn("task-1");
+
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        SetOperations<String, String> setOps = mock(SetOperations.class);
+        when(redis.opsForSet()).thenReturn(setOps);
+        when(setOps.scan(anyString(), any(ScanOptions.class))).thenReturn(mock(Cursor.class));
+
+        // Both pools run inline, so the background job has finished when importEvaluations returns
+        importService = new EvaluationImportService(gardenerService, mock(ProfileGenerationCoordinator.class),
+                progressService, redis, new ObjectMapper(), Runnable::run, Runnable::run,
+                10, 20_000, 3, Duration.ofHours(24));
+    }
+
+    // ==========================================
+    // CSV
+    // ==========================================
+
+    @Test
+    void csvQuotedFieldKeepsCommasQuotesAndLineBreaks() {
+        String csv = "employee,content\r\n"
+                + "zhang.wei,\"Led the \"\"billing\"\" migration,\r\nthen documented it\"\r\n";
+
+        ImportResult result = importCsv(csv);
+
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.rejected()).isZero();
+        assertThat(processed).containsEntry("zhang.wei", "Led the \"billing\" migration,\r\nthen documented it");
+    }
+
+    @Test
+    void csvColumnsAreFoundByHeaderName() {
+        String csv = "\uFEFFContent,team,Employee\n"
+                + VALID + ",payments,zhang.wei\n"
+                + "\n"
+                + "\"" + VALID + ", again\",payments,li.na";
+
+        ImportResult result = importCsv(csv);
+
+        assertThat(result.accepted()).isEqualTo(2);
+        assertThat(processed).containsEntry("zhang.wei", VALID).containsEntry("li.na", VALID + ", again");
+    }
+
+    @Test
+    void csvShortRowIsRejectedAndReadingContinues() {
+        String csv = "employee,content\n"
+                + "zhang.wei\n"
+                + "li.na," + VALID + "\n";
+
+        ImportResult result = importCsv(csv);
+
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly("Record 2: Expected at least 2 columns");
+        assertThat(processed).containsOnlyKeys("li.na");
+    }
+
+    @Test
+    void csvOversizedValueIsRejectedAndReadingContinues() {
+        String csv = "employee,content\n"
+                + "zhang.wei,\"" + "x".repeat(Constants.MAX_CONTENT_LENGTH * 3) + "\"\n"
+                + "li.na," + VALID + "\n";
+
+        ImportResult result = importCsv(csv);
+
+        assertThat(result.accepted()).isEqualTo(1);
+        assertThat(result.errors())
+                .containsExactly("Record 2: Content exceeds " + Constants.MAX_CONTENT_LENGTH + " characters");
+        assertThat(processed).containsOnlyKeys("li.na");
+    }
+
+    @Test
+    void csvUnterminatedQuoteFailsTheImport() {
+        String csv = "employee,content\nzhang.wei,\"" + VALID + "\n";
+
+        assertInvalidBody(() -> importCsv(csv));
+    }
+
+    @Test
+    void csvWithoutRequiredHeaderFailsTheImport() {
+        assertInvalidBody(() -> importCsv("name,text\nzhang.wei," + VALID + "\n"));
+    }
+
+    // ==========================================
+    // NDJSON
+    // ==========================================
+
+    @Test
+    void ndjsonRejectsBadLinesAndKeepsReading() {
+        String ndjson = json("zhang.wei", VALID) + "\n"
+                + "   \n"
+                + "{not json\n"
+                + json("li.na", "x".repeat(Constants.MAX_CONTENT_LENGTH * 4)) + "\n"
+                + "null\n"
+                + json("wang.fang", "too short") + "\r\n"
+                + json("li.na", VALID);  // no trailing newline
+
+        ImportResult result = importNdjson(ndjson);
+
+        assertThat(result.accepted()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(result.errors()).containsExactly(
+                "Record 3: Invalid JSON",
+                "Record 4: Line exceeds " + Constants.MAX_CONTENT_LENGTH * 4 + " characters",
+                "Record 5: Expected a JSON object",
+                "Record 6: Content must be at least 10 characters");
+        assertThat(processed).containsOnlyKeys("zhang.wei", "li.na");
+        assertThat(processed.get("li.na")).isEqualTo(VALID);
+    }
+
+    @Test
+    void ndjsonContentOverLimitIsRejected() {
+        String ndjson = json("zhang.wei", "x".repeat(Constants.MAX_CONTENT_LENGTH + 1)) + "\n";
+
+        ImportResult result = importNdjson(ndjson);
+
+        assertThat(result.taskId()).isNull();
+        assertThat(result.errors())
+                .containsExactly("Record 1: Content exceeds " + Constants.MAX_CONTENT_LENGTH + " characters");
+    }
+
+    @Test
+    void formatFollowsContentType() {
+        assertThat(ImportFormat.fromContentType("text/csv; charset=utf-8")).isEqualTo(ImportFormat.CSV);
+        assertThat(ImportFormat.fromContentType("application/x-ndjson")).isEqualTo(ImportFormat.NDJSON);
+        assertThat(ImportFormat.fromContentType(null)).isEqualTo(ImportFormat.NDJSON);
+    }
+
+    private ImportResult importCsv(String body) {
+        return importService.importEvaluations(stream(body), ImportFormat.CSV);
+    }
+
+    private ImportResult importNdjson(String body) {
+        return importService.importEvaluations(stream(body), ImportFormat.NDJSON);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String json(String employee, String content) {
+        return "{\"employee\":\"" + employee + "\",\"content\":\"" + content + "\"}";
+    }
+
+    private static void assertInvalidBody(Runnable importBody) {
+        assertThatThrownBy(importBody::run)
+                .isInstanceOf(DendriteException.class)
+                .satisfies(e -> assertThat(((DendriteException) e).getErrorCode()).isEqualTo(ErrorCode.INVALID_PARAMETER));
+    }
+}
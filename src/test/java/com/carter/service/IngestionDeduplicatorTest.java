@@ -0,0 +1,249 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.service.IngestionDeduplicator.Admission;
+import com.carter.service.IngestionDeduplicator.Verdict;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngestionDeduplicatorTest {
+
+    private static final String EVALUATION = """
+            Zhang Wei led the migration of the billing service from the monolith to Kubernetes.
+            He wrote the rollout plan, paired with the SRE team on the Helm charts and kept the
+            old path running behind a feature flag until error rates matched. When the payment
+            provider changed its webhook format mid-project he shipped the adapter in two days
+            and documented every edge case for the on-call rotation.
+            """;
+
+    private static final String EDITED = EVALUATION
+            .replace("in two days", "within 48 hours")
+            .replace("Kubernetes", "Kubernetes (EKS)");
+
+    private static final String UNRELATED = """
+            Li Na is the most patient mentor on the design team. She reviews every junior's
+            mockups the same afternoon, explains typography choices with real examples and
+            organised the accessibility audit of the mobile app last quarter.
+            """;
+
+    private StringRedisTemplate redis;
+    private HashOperations<String, Object, Object> hashOps;
+    private IngestionDeduplicator deduplicator;
+
+    // Fake state of the claim hash, driven by the scripts the deduplicator runs
+    private final Map<String, Map<Object, Object>> claims = new HashMap<>();
+    private final List<String> scriptCalls = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        when(redis.<Object, Object>opsForHash()).thenReturn(hashOps);
+        when(hashOps.entries(anyString())).thenAnswer(inv -> claims.getOrDefault(inv.<String>getArgument(0), Map.of()));
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of());
+        when(redis.hasKey(anyString())).thenReturn(false);
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(inv -> {
+            String lua = inv.<RedisScript<?>>getArgument(0).getScriptAsString();
+            List<String> keys = inv.getArgument(1);
+            String taskId = (String) inv.getArgument(2);
+            Map<Object, Object> claim = claims.get(keys.get(0));
+            boolean owned = claim != null && taskId.equals(claim.get("taskId"));
+
+            if (lua.contains("hsetnx")) {
+                scriptCalls.add("claim");
+                if (claim != null) {
+                    return 0L;
+                }
+                claims.put(keys.get(0), new HashMap<>(Map.of("taskId", taskId, "status", "PROCESSING")));
+                return 1L;
+            }
+            if (lua.contains("'COMPLETED'")) {
+                scriptCalls.add("complete");
+                if (owned) {
+                    claim.put("status", "COMPLETED");
+                    claim.put("skillCount", inv.getArgument(3));
+                }
+                return owned ? 1L : 0L;
+            }
+            scriptCalls.add(lua.contains("'PROCESSING'") ? "abandon" : "release");
+            if (owned) {
+                claims.remove(keys.get(0));
+            }
+            return owned ? 1L : 0L;
+        });
+
+        deduplicator = new IngestionDeduplicator(redis, true, 0.8, "flag",
+                Duration.ofDays(30), Duration.ofMinutes(15));
+    }
+
+    // ==========================================
+    // MinHash / LSH
+    // ==========================================
+
+    @Test
+    void normalizationIgnoresCaseAndWhitespace() {
+        String shouted = "  " + EVALUATION.toUpperCase().replace(" ", "   \t") + "\n\n";
+
+        assertThat(IngestionDeduplicator.normalize(shouted)).isEqualTo(IngestionDeduplicator.normalize(EVALUATION));
+        assertThat(IngestionDeduplicator.exactKey("zhang.wei", IngestionDeduplicator.normalize(shouted)))
+                .isEqualTo(IngestionDeduplicator.exactKey("zhang.wei", IngestionDeduplicator.normalize(EVALUATION)));
+    }
+
+    @Test
+    void exactKeyIsPerEmployee() {
+        String normalized = IngestionDeduplicator.normalize(EVALUATION);
+
+        assertThat(IngestionDeduplicator.exactKey("zhang.wei", normalized))
+                .isNotEqualTo(IngestionDeduplicator.exactKey("li.na", normalized));
+    }
+
+    @Test
+    void identicalTextsHaveIdenticalSignatures() {
+        int[] a = signature(EVALUATION);
+        int[] b = signature(EVALUATION);
+
+        assertThat(a).hasSize(Constants.MINHASH_PERMUTATIONS).isEqualTo(b);
+        assertThat(IngestionDeduplicator.similarity(a, b)).isEqualTo(1.0);
+    }
+
+    @Test
+    void smallEditStaysAboveThreshold() {
+        double similarity = IngestionDeduplicator.similarity(signature(EVALUATION), signature(EDITED));
+
+        assertThat(similarity).isGreaterThanOrEqualTo(0.8).isLessThan(1.0);
+    }
+
+    @Test
+    void unrelatedTextsAreDissimilar() {
+        assertThat(IngestionDeduplicator.similarity(signature(EVALUATION), signature(UNRELATED))).isLessThan(0.3);
+    }
+
+    @Test
+    void nearDuplicatesShareAnLshBucket() {
+        int[] original = signature(EVALUATION);
+        int[] edited = signature(EDITED);
+        int[] unrelated = signature(UNRELATED);
+
+        assertThat(IntStream.range(0, Constants.LSH_BANDS)
+                .anyMatch(band -> bucket(band, original).equals(bucket(band, edited)))).isTrue();
+        assertThat(IntStream.range(0, Constants.LSH_BANDS)
+                .noneMatch(band -> bucket(band, original).equals(bucket(band, unrelated)))).isTrue();
+    }
+
+    @Test
+    void signatureSurvivesEncoding() {
+        int[] signature = signature(EVALUATION);
+
+        assertThat(IngestionDeduplicator.decode(IngestionDeduplicator.encode(signature))).isEqualTo(signature);
+    }
+
+    @Test
+    void emptyTextHasNoSignature() {
+        assertThat(IngestionDeduplicator.signature("")).isNull();
+    }
+
+    // ==========================================
+    // Claim / release
+    // ==========================================
+
+    @Test
+    void firstSubmissionClaimsAndIsProcessed() {
+        Admission admission = deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+
+        assertThat(admission.verdict()).isEqualTo(Verdict.NEW);
+        assertThat(admission.process()).isTrue();
+        assertThat(scriptCalls).containsExactly("claim");
+    }
+
+    @Test
+    void repeatWhileProcessingIsSkipped() {
+        when(redis.hasKey(Constants.TASK_KEY_PREFIX + "task-1")).thenReturn(true);
+        deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+
+        Admission repeat = deduplicator.admit("zhang.wei", "  " + EVALUATION.toUpperCase(), "task-2");
+
+        assertThat(repeat.verdict()).isEqualTo(Verdict.DUPLICATE);
+        assertThat(repeat.process()).isFalse();
+        assertThat(repeat.originalTaskId()).isEqualTo("task-1");
+        assertThat(repeat.originalStatus()).isEqualTo("PROCESSING");
+    }
+
+    @Test
+    void repeatAfterCompletionGetsOriginalResult() {
+        deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+        deduplicator.complete("zhang.wei", EVALUATION, "task-1", 7);
+
+        Admission repeat = deduplicator.admit("zhang.wei", EVALUATION, "task-2");
+
+        assertThat(repeat.process()).isFalse();
+        assertThat(repeat.originalStatus()).isEqualTo("COMPLETED");
+        assertThat(repeat.originalSkillCount()).isEqualTo(7);
+    }
+
+    @Test
+    void releasedClaimCanBeProcessedAgain() {
+        deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+        deduplicator.release("zhang.wei", EVALUATION, "task-1");
+
+        Admission retry = deduplicator.admit("zhang.wei", EVALUATION, "task-2");
+
+        assertThat(retry.verdict()).isEqualTo(Verdict.NEW);
+        assertThat(retry.process()).isTrue();
+    }
+
+    @Test
+    void releaseByAnotherTaskKeepsTheClaim() {
+        when(redis.hasKey(anyString())).thenReturn(true);
+        deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+        deduplicator.release("zhang.wei", EVALUATION, "task-2");
+
+        assertThat(deduplicator.admit("zhang.wei", EVALUATION, "task-3").process()).isFalse();
+    }
+
+    @Test
+    void claimOfExpiredTaskIsTakenOver() {
+        // task-1's instance died: its claim is still PROCESSING but the task hash is gone
+        deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+
+        Admission takeover = deduplicator.admit("zhang.wei", EVALUATION, "task-2");
+
+        assertThat(takeover.process()).isTrue();
+        assertThat(scriptCalls).containsExactly("claim", "claim", "abandon", "claim");
+    }
+
+    @Test
+    void completedClaimIsNeverTakenOver() {
+        deduplicator.admit("zhang.wei", EVALUATION, "task-1");
+        deduplicator.complete("zhang.wei", EVALUATION, "task-1", 3);
+
+        assertThat(deduplicator.admit("zhang.wei", EVALUATION, "task-2").process()).isFalse();
+        assertThat(scriptCalls).doesNotContain("abandon");
+    }
+
+    private static int[] signature(String text) {
+        return IngestionDeduplicator.signature(IngestionDeduplicator.normalize(text));
+    }
+
+    private static String bucket(int band, int[] signature) {
+        return IngestionDeduplicator.bandKey("zhang.wei", band, signature);
+    }
+}
@@ -0,0 +1,240 @@
+package com.carter.service;
+
+import com.carter.event.RewardsAppliedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RewardLedgerTest {
+
+    @TempDir
+    Path journalDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+
+    // What the fake database has committed
+    private final List<Object[]> upserts = new ArrayList<>();
+    private final List<Object[]> records = new ArrayList<>();
+    private final Set<String> appliedSegments = new HashSet<>();
+    private final Map<String, long[]> standings = new HashMap<>();  // total points, level
+    private boolean failWrites;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            List<Object[]> rows = inv.getArgument(1);
+            if (failWrites) {
+                throw new IllegalStateException("connection reset");
+            }
+            if (sql.contains("dendrite_contributors")) {
+                upserts.addAll(rows);
+            } else if (sql.contains("dendrite_reward_records")) {
+                records.addAll(rows);
+            } else {
+                rows.forEach(row -> appliedSegments.add((String) row[0]));
+            }
+            return new int[rows.size()];
+        });
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenAnswer(inv -> {
+            List<String> names = new ArrayList<>();
+            for (Object name : (Object[]) inv.getRawArguments()[2]) {
+                if (appliedSegments.contains((String) name)) {
+                    names.add((String) name);
+                }
+            }
+            return names;
+        });
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (Object name : (Object[]) inv.getRawArguments()[2]) {
+                long[] standing = standings.get((String) name);
+                if (standing != null) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getString("employee_name")).thenReturn((String) name);
+                    when(rs.getLong("total_accumulated_points")).thenReturn(standing[0]);
+                    when(rs.getInt("level")).thenReturn((int) standing[1]);
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void flushAggregatesPerEmployee() {
+        RewardLedger ledger = ledger();
+        ledger.record("zhang.wei", 10, "tag adopted", false);
+        ledger.record("zhang.wei", 5, "search hit", true);
+        ledger.record("zhang.wei", -3, "tag rejected", false);
+
+        ledger.flush();
+
+        assertThat(upserts).hasSize(1);
+        Object[] upsert = upserts.get(0);
+        assertThat(upsert[0]).isEqualTo("zhang.wei");
+        assertThat(upsert[1]).isEqualTo(12L);  // net points
+        assertThat(upsert[2]).isEqualTo(15L);  // earned, negatives excluded
+        assertThat(upsert[6]).isEqualTo(1);    // search hits
+        assertThat(records).hasSize(3);
+        assertThat(ledger.pendingEntries()).isZero();
+        verify(eventPublisher).publishEvent(new RewardsAppliedEvent(Map.of("zhang.wei", 15L)));
+    }
+
+    @Test
+    void recordCrossingALevelKeepsTheLevelUpSuffix() {
+        standings.put("li.na", new long[]{190, 2});
+        RewardLedger ledger = ledger();
+        ledger.record("zhang.wei", 60, "tag adopted", false);
+        ledger.record("zhang.wei", 50, "search hit", true);
+        ledger.record("zhang.wei", 20, "tag adopted", false);
+        ledger.record("li.na", 15, "tag adopted", false);
+
+        ledger.flush();
+
+        assertThat(records).extracting(r -> r[2]).containsExactlyInAnyOrder(
+                "tag adopted",
+                "search hit (等级提升至 Lv2)",
+                "tag adopted",
+                "tag adopted (等级提升至 Lv3)");
+    }
+
+    @Test
+    void appliedSegmentsAreMarkedAndDeleted() throws IOException {
+        RewardLedger ledger = ledger();
+        ledger.record("zhang.wei", 10, "tag adopted", false);
+        assertThat(segments()).hasSize(1);
+
+        ledger.flush();
+
+        assertThat(appliedSegments).hasSize(1);
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    void unflushedJournalIsReplayedAfterCrash() throws IOException {
+        RewardLedger crashed = ledger();
+        crashed.record("zhang.wei", 10, "tag adopted", false);
+        crashed.record("li.na", 7, "search hit", true);
+        // No flush: the process dies with the rewards only in the journal
+
+        RewardLedger restarted = ledger();
+        restarted.recover();
+        assertThat(restarted.pendingEntries()).isEqualTo(2);
+
+        restarted.flush();
+
+        assertThat(records).extracting(r -> r[0]).containsExactlyInAnyOrder("zhang.wei", "li.na");
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    void segmentCommittedBeforeCrashIsNotReplayed() throws IOException {
+        RewardLedger crashed = ledger();
+        crashed.record("zhang.wei", 10, "tag adopted", false);
+        String segment = segments().get(0).getFileName().toString();
+        // The flush committed, but the process died before deleting the file
+        appliedSegments.add(segment);
+
+        RewardLedger restarted = ledger();
+        restarted.recover();
+
+        assertThat(restarted.pendingEntries()).isZero();
+        assertThat(segments()).isEmpty();
+        restarted.flush();
+        assertThat(upserts).isEmpty();
+    }
+
+    @Test
+    void failedFlushIsRetriedAndAppliedOnce() throws IOException {
+        RewardLedger ledger = ledger();
+        ledger.record("zhang.wei", 10, "tag adopted", false);
+
+        failWrites = true;
+        ledger.flush();
+        ledger.record("zhang.wei", 4, "search hit", true);
+
+        assertThat(ledger.pendingEntries()).isEqualTo(2);
+        assertThat(segments()).hasSize(2);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        failWrites = false;
+        ledger.flush();
+        ledger.flush();
+
+        assertThat(records).hasSize(2);
+        assertThat(upserts).hasSize(1);
+        assertThat(upserts.get(0)[1]).isEqualTo(14L);
+        assertThat(appliedSegments).hasSize(2);
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    void journalPreservesSpecialCharacters() throws IOException {
+        String reason = "line one\nline\ttwo \\ done";
+        ledger().record("zhang.wei", 1, reason, false);
+
+        RewardLedger restarted = ledger();
+        restarted.recover();
+        restarted.flush();
+
+        assertThat(records.get(0)[2]).isEqualTo(reason);
+    }
+
+    @Test
+    void tornLastLineIsSkipped() throws IOException {
+        ledger().record("zhang.wei", 10, "tag adopted", false);
+        Files.writeString(segments().get(0), "1734400000000\tli.na\t5", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        RewardLedger restarted = ledger();
+        restarted.recover();
+
+        assertThat(restarted.pendingEntries()).isEqualTo(1);
+    }
+
+    private RewardLedger ledger() {
+        return new RewardLedger(jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                eventPublisher, journalDir, false);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.toList();
+        }
+    }
+}
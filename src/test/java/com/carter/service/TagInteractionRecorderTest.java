@@ -0,0 +1,196 @@
+package com.carter.service;
+
+import com.carter.common.Constants;
+import com.carter.entity.enums.InteractionType;
+import com.carter.service.TagInteractionRecorder.InteractionStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TagInteractionRecorderTest {
+
+    private final List<Object[]> inserted = new ArrayList<>();
+    private final List<Object[]> weightUpdates = new ArrayList<>();
+    private int insertBatches;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            if (inv.<String>getArgument(0).contains("INSERT")) {
+                inserted.addAll(rows);
+                insertBatches++;
+            } else {
+                weightUpdates.addAll(rows);
+            }
+            return new int[rows.size()];
+        });
+        transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(recorder(5, 100).stats().capacity()).isEqualTo(8);
+        assertThat(recorder(8, 100).stats().capacity()).isEqualTo(8);
+        assertThat(recorder(2, 100).stats().capacity()).isEqualTo(2);
+        assertThat(recorder(1, 100).stats().capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void fullRingDropsAndCounts() {
+        TagInteractionRecorder recorder = recorder(4, 100);
+        for (int i = 0; i < 4; i++) {
+            assertThat(recorder.record(i, InteractionType.VIEWED, null, null)).isTrue();
+        }
+
+        assertThat(recorder.record(99, InteractionType.VIEWED, null, null)).isFalse();
+        assertThat(recorder.record(100, InteractionType.VIEWED, null, null)).isFalse();
+
+        InteractionStats stats = recorder.stats();
+        assertThat(stats.buffered()).isEqualTo(4);
+        assertThat(stats.dropped()).isEqualTo(2);
+        assertThat(stats.written()).isZero();
+    }
+
+    @Test
+    void flushFreesSlotsForNewEvents() {
+        TagInteractionRecorder recorder = recorder(4, 100);
+        for (int i = 0; i < 4; i++) {
+            recorder.record(i, InteractionType.VIEWED, null, null);
+        }
+        recorder.flush();
+
+        assertThat(recorder.record(4, InteractionType.VIEWED, null, null)).isTrue();
+        assertThat(recorder.stats().buffered()).isEqualTo(1);
+        assertThat(recorder.stats().written()).isEqualTo(4);
+    }
+
+    @Test
+    void wrapsAroundWithoutLosingOrReorderingEvents() {
+        TagInteractionRecorder recorder = recorder(4, 100);
+        List<Long> expected = new ArrayList<>();
+        long tagId = 0;
+
+        // Uneven rounds so the head and tail wrap past the end of the ring at different slots
+        for (int round = 0; round < 10; round++) {
+            int count = 1 + round % 4;
+            for (int i = 0; i < count; i++) {
+                assertThat(recorder.record(tagId, InteractionType.VIEWED, null, null)).isTrue();
+                expected.add(tagId++);
+            }
+            recorder.flush();
+        }
+
+        assertThat(inserted).extracting(row -> (Long) row[0]).containsExactlyElementsOf(expected);
+        assertThat(recorder.stats().written()).isEqualTo(expected.size());
+        assertThat(recorder.stats().buffered()).isZero();
+        assertThat(recorder.stats().dropped()).isZero();
+    }
+
+    @Test
+    void flushWritesInBatches() {
+        TagInteractionRecorder recorder = recorder(16, 3);
+        for (int i = 0; i < 7; i++) {
+            recorder.record(i, InteractionType.VIEWED, null, null);
+        }
+
+        recorder.flush();
+
+        assertThat(insertBatches).isEqualTo(3);
+        assertThat(inserted).hasSize(7);
+    }
+
+    @Test
+    void weightDeltasAreSummedPerTag() {
+        TagInteractionRecorder recorder = recorder(16, 100);
+        recorder.record(1, InteractionType.UPVOTE, "a", null);
+        recorder.record(1, InteractionType.UPVOTE, "b", null);
+        recorder.record(1, InteractionType.DOWNVOTE, "c", null);
+        recorder.record(2, InteractionType.VIEWED, "a", null);
+
+        recorder.flush();
+
+        assertThat(weightUpdates).hasSize(2);
+        assertThat(weightUpdates.get(0)[0]).isEqualTo(Constants.MIN_TAG_WEIGHT);
+        assertThat((Double) weightUpdates.get(0)[1]).isCloseTo(
+                2 * InteractionType.UPVOTE.getWeightDelta() + InteractionType.DOWNVOTE.getWeightDelta(),
+                offset(1e-9));
+        assertThat(weightUpdates.get(0)[2]).isEqualTo(1L);
+        assertThat(weightUpdates.get(1)[2]).isEqualTo(2L);
+    }
+
+    @Test
+    void longTextIsTruncatedToColumnSize() {
+        TagInteractionRecorder recorder = recorder(4, 100);
+        String query = "q".repeat(Constants.MAX_INTERACTION_TEXT_LENGTH + 50);
+        String user = "u".repeat(Constants.MAX_INTERACTION_TEXT_LENGTH + 1);
+
+        recorder.record(1, InteractionType.SEARCH_HIT, user, query);
+        recorder.flush();
+
+        assertThat((String) inserted.get(0)[2]).hasSize(Constants.MAX_INTERACTION_TEXT_LENGTH);
+        assertThat((String) inserted.get(0)[3]).hasSize(Constants.MAX_INTERACTION_TEXT_LENGTH);
+    }
+
+    @Test
+    void failedWriteIsDroppedNotRetried() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db down"));
+        TagInteractionRecorder recorder = recorder(4, 100);
+        recorder.record(1, InteractionType.VIEWED, null, null);
+
+        recorder.flush();
+
+        assertThat(recorder.stats().buffered()).isZero();
+        assertThat(recorder.stats().written()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void userDedupIsKeyedOnClientAddressNotReportedUser() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        Set<String> keys = new HashSet<>();
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(inv -> keys.add(inv.getArgument(0)));
+        TagInteractionRecorder recorder = new TagInteractionRecorder(jdbcTemplate, transactionTemplate, redis,
+                16, 100, Duration.ofHours(24));
+
+        assertThat(recorder.recordFromUser(1, InteractionType.UPVOTE, "alice", "203.0.113.7"))
+                .isEqualTo(TagInteractionRecorder.RecordOutcome.RECORDED);
+        assertThat(recorder.recordFromUser(1, InteractionType.DOWNVOTE, "mallory", "203.0.113.7"))
+                .isEqualTo(TagInteractionRecorder.RecordOutcome.DUPLICATE);
+        assertThat(recorder.recordFromUser(1, InteractionType.UPVOTE, null, "198.51.100.2"))
+                .isEqualTo(TagInteractionRecorder.RecordOutcome.RECORDED);
+
+        recorder.flush();
+        assertThat(inserted).extracting(row -> row[2]).containsExactly("alice", "198.51.100.2");
+    }
+
+    private TagInteractionRecorder recorder(int bufferSize, int batchSize) {
+        return new TagInteractionRecorder(jdbcTemplate, transactionTemplate, mock(StringRedisTemplate.class),
+                bufferSize, batchSize, Duration.ofHours(24));
+    }
+}